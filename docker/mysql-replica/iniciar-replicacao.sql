@@ -0,0 +1,10 @@
+-- Executado na primeira inicialização de cada réplica (profile "replicas" do docker-compose):
+-- aponta para o primário e inicia a replicação por GTID. O estado fica salvo e a réplica retoma sozinha nos restarts.
+CHANGE REPLICATION SOURCE TO
+    SOURCE_HOST = 'mysql-econome-pedidos',
+    SOURCE_PORT = 3306,
+    SOURCE_USER = 'root',
+    SOURCE_PASSWORD = '12345',
+    SOURCE_AUTO_POSITION = 1,
+    GET_SOURCE_PUBLIC_KEY = 1;
+START REPLICA;
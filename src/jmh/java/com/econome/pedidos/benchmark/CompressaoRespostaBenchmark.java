@@ -0,0 +1,131 @@
+package com.econome.pedidos.benchmark;
+
+import com.econome.pedidos.AppEconomePedidosApplication;
+import com.econome.pedidos.dto.PedidoLoteItemRequest;
+import com.econome.pedidos.dto.PedidoRequest;
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import com.econome.pedidos.service.PedidoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@code GET /api/pedidos?tamanho=500} pelo servidor HTTP real (contexto completo contra H2 em modo MySQL),
+ * com e sem {@code Accept-Encoding: gzip} e variando o {@code buffer-size} da regra da listagem.
+ * <p>
+ * Além da latência total, imprime ao final a média de bytes recebidos (corpo como trafegou na rede, sem
+ * descompressão) e do tempo até o primeiro byte do corpo. A exportação não é medida aqui: o fetch size de
+ * streaming do MySQL não é aceito pelo H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressaoRespostaBenchmark {
+
+    private static final int PEDIDOS = 2000;
+
+    @Param({"identity", "gzip"})
+    String acceptEncoding;
+
+    @Param({"8KB", "64KB"})
+    String bufferSize;
+
+    private ConfigurableApplicationContext contexto;
+    private HttpClient httpClient;
+    private HttpRequest requisicao;
+    private long requisicoes;
+    private long bytesRecebidos;
+    private long nanosPrimeiroByte;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(AppEconomePedidosApplication.class)
+                .logStartupInfo(false)
+                // Argumentos de linha de comando: precedem o application.yml
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:compressao;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.docker.compose.enabled=false",
+                        "--app.compression.endpoints[0].path=/api/pedidos",
+                        "--app.compression.endpoints[0].buffer-size=" + bufferSize,
+                        "--participantes.api.enabled=false",
+                        "--transacoes.api.enabled=false",
+                        "--logging.level.root=WARN");
+        List<PedidoLoteItemRequest> lote = IntStream.range(0, PEDIDOS)
+                .mapToObj(i -> new PedidoLoteItemRequest(null, new PedidoRequest(ZonedDateTime.parse("2025-09-24T10:15:30-03:00"),
+                        "BENCH-" + i, TipoPedido.SAIDA, SituacaoPedido.PENDENTE, BigDecimal.valueOf(i + 1, 2),
+                        null, null, null, (long) (i % 50) + 1)))
+                .toList();
+        contexto.getBean(PedidoService.class).processarLote(lote);
+
+        String porta = contexto.getEnvironment().getProperty("local.server.port");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/api/pedidos?tamanho=500"))
+                .header("Accept-Encoding", acceptEncoding)
+                .build();
+    }
+
+    /**
+     * Médias impressas ao final refletem apenas a última iteração (sem o aquecimento).
+     */
+    @Setup(Level.Iteration)
+    public void zerarContadores() {
+        requisicoes = 0;
+        bytesRecebidos = 0;
+        nanosPrimeiroByte = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        System.out.printf("%n[CompressaoRespostaBenchmark] Accept-Encoding=%s buffer-size=%s: %d bytes na rede, "
+                        + "primeiro byte em %.0f us (médias das %d requisições da última iteração)%n",
+                acceptEncoding, bufferSize, bytesRecebidos / Math.max(1, requisicoes),
+                nanosPrimeiroByte / 1000.0 / Math.max(1, requisicoes), requisicoes);
+        contexto.close();
+    }
+
+    @Benchmark
+    public long listar() throws Exception {
+        long inicio = System.nanoTime();
+        HttpResponse<InputStream> resposta = httpClient.send(requisicao, HttpResponse.BodyHandlers.ofInputStream());
+        long bytes = 0;
+        try (InputStream corpo = resposta.body()) {
+            if (corpo.read() >= 0) {
+                nanosPrimeiroByte += System.nanoTime() - inicio;
+                bytes = 1 + corpo.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+        bytesRecebidos += bytes;
+        requisicoes++;
+        return bytes;
+    }
+}
@@ -0,0 +1,48 @@
+package com.econome.pedidos.benchmark;
+
+import com.econome.domain.Pedido;
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import com.econome.pedidos.integration.participante.dto.ParticipanteResumo;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Massa de dados determinística compartilhada pelos benchmarks.
+ */
+final class DadosBenchmark {
+
+    private static final ZonedDateTime EMISSAO_BASE = ZonedDateTime.of(2025, 9, 24, 10, 15, 30, 0,
+            ZoneId.of("America/Sao_Paulo"));
+
+    private DadosBenchmark() {
+    }
+
+    /**
+     * @param quantidade    pedidos gerados
+     * @param participantes ids de participante distintos distribuídos entre os pedidos (cardinalidade)
+     */
+    static List<Pedido> pedidos(int quantidade, int participantes) {
+        List<Pedido> pedidos = new ArrayList<>(quantidade);
+        for (int i = 1; i <= quantidade; i++) {
+            Pedido pedido = new Pedido();
+            pedido.setId((long) i);
+            pedido.setNumeroPedido("PED-" + i);
+            pedido.setDataEmissaoPedido(EMISSAO_BASE.plusMinutes(i));
+            pedido.setTipoPedido(i % 2 == 0 ? TipoPedido.ENTRADA : TipoPedido.SAIDA);
+            pedido.setSituacaoPedido(SituacaoPedido.values()[i % SituacaoPedido.values().length]);
+            pedido.setValorTotal(BigDecimal.valueOf(i * 1_000L + 99, 2));
+            pedido.setParticipanteId((long) (i % Math.max(1, participantes)) + 1);
+            pedidos.add(pedido);
+        }
+        return pedidos;
+    }
+
+    static ParticipanteResumo participante(Long id) {
+        return new ParticipanteResumo(id, "PART-" + id, "Participante " + id, "000000000" + id, "FISICA", "CLIENTE");
+    }
+}
@@ -0,0 +1,111 @@
+package com.econome.pedidos.benchmark;
+
+import com.econome.pedidos.config.PedidosProperties;
+import com.econome.pedidos.dto.PedidoMapperImpl;
+import com.econome.pedidos.dto.PedidoResponse;
+import com.econome.pedidos.integration.http.HttpClienteProperties;
+import com.econome.pedidos.integration.participante.cache.ParticipantesCache;
+import com.econome.pedidos.integration.participante.client.AgrupadorBuscasParticipantes;
+import com.econome.pedidos.integration.participante.client.ParticipantesClient;
+import com.econome.pedidos.integration.participante.config.ParticipantesApiProperties;
+import com.econome.pedidos.integration.participante.config.ParticipantesCacheProperties;
+import com.econome.pedidos.integration.participante.dto.ParticipanteResumo;
+import com.econome.pedidos.integration.resiliencia.ProtecaoChamadas;
+import com.econome.pedidos.integration.resiliencia.ResilienciaProperties;
+import com.econome.pedidos.service.EnriquecimentoPedidoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enriquecimento de uma página de pedidos ({@link EnriquecimentoPedidoService#enriquecer(List)}) com
+ * {@link ParticipantesClient} substituído por um stub em memória, variando a cardinalidade de participantes.
+ * Com {@code cache=true} mede o caminho de hit do {@link ParticipantesCache} (aquecido no warmup);
+ * com {@code cache=false}, o custo de montar o lote e o mapa por chamada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class EnriquecimentoBenchmark {
+
+    private static final int PEDIDOS_POR_PAGINA = 500;
+
+    @Param({"1", "50", "500"})
+    int cardinalidade;
+
+    @Param({"true", "false"})
+    boolean cache;
+
+    private EnriquecimentoPedidoService enriquecimento;
+    private List<PedidoResponse> pagina;
+
+    @Setup
+    public void preparar() {
+        ResilienciaProperties resiliencia = new ResilienciaProperties(false, 20, 10, 50, Duration.ofSeconds(30), 3,
+                1, Duration.ofMillis(100), Duration.ofSeconds(1), 0.2);
+        HttpClienteProperties http = new HttpClienteProperties(8, Duration.ofSeconds(1), Duration.ofSeconds(1),
+                Duration.ofSeconds(1), Duration.ofSeconds(30), Duration.ofMinutes(5), false);
+        ParticipantesApiProperties apiProperties = new ParticipantesApiProperties("http://localhost", true, true,
+                "/api/participantes/lote", 100, Duration.ofMinutes(5), 8, http, resiliencia,
+                new ParticipantesApiProperties.Agrupamento(false, Duration.ofMillis(5), 100));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ParticipantesClient client = new ParticipantesClientStub(apiProperties,
+                new ProtecaoChamadas("benchmark", resiliencia, registry));
+        ParticipantesCache participantesCache = new ParticipantesCache(client,
+                new AgrupadorBuscasParticipantes(client, apiProperties, registry),
+                new ParticipantesCacheProperties(cache, Duration.ofHours(1), Duration.ofHours(1), Duration.ZERO, 10_000), registry);
+        // Apenas o orçamento de enriquecimento é lido pelo serviço
+        PedidosProperties pedidosProperties = new PedidosProperties(null, null, null, null,
+                new PedidosProperties.Enriquecimento(Duration.ofMillis(50)), null, null);
+        enriquecimento = new EnriquecimentoPedidoService(participantesCache, pedidosProperties);
+        pagina = new PedidoMapperImpl().toResponseList(DadosBenchmark.pedidos(PEDIDOS_POR_PAGINA, cardinalidade));
+    }
+
+    @Benchmark
+    public List<PedidoResponse> enriquecerPagina() {
+        return enriquecimento.enriquecer(pagina);
+    }
+
+    /**
+     * Responde buscas em memória, sem I/O, isolando o custo do código de enriquecimento.
+     */
+    static final class ParticipantesClientStub extends ParticipantesClient {
+
+        ParticipantesClientStub(ParticipantesApiProperties properties, ProtecaoChamadas protecao) {
+            super(properties, RestClient.create(), protecao);
+        }
+
+        @Override
+        public Optional<ParticipanteResumo> buscarPorId(Long id) {
+            return Optional.of(DadosBenchmark.participante(id));
+        }
+
+        @Override
+        public Map<Long, Optional<ParticipanteResumo>> buscarPorIds(Collection<? extends Long> ids) {
+            Map<Long, Optional<ParticipanteResumo>> resultado = new HashMap<>();
+            ids.forEach(id -> resultado.put(id, Optional.of(DadosBenchmark.participante(id))));
+            return resultado;
+        }
+    }
+}
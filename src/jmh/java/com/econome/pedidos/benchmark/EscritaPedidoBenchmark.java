@@ -0,0 +1,161 @@
+package com.econome.pedidos.benchmark;
+
+import com.econome.pedidos.AppEconomePedidosApplication;
+import com.econome.pedidos.dto.PedidoRequest;
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import com.econome.pedidos.service.PedidoService;
+import com.econome.repository.PedidoRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caminhos de escrita de {@link PedidoService} (PUT e DELETE) com o contexto completo da aplicação contra H2
+ * em modo MySQL. {@code excluirComExistsById} reproduz o padrão {@code existsById + deleteById} do repositório
+ * como referência.
+ * <p>
+ * Além da latência, cada benchmark imprime ao final a quantidade de comandos SQL por operação e os comandos da
+ * primeira operação, contados por um {@link StatementInspector} apenas na thread do benchmark (o relay do outbox
+ * e demais tarefas agendadas ficam de fora).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EscritaPedidoBenchmark {
+
+    private ConfigurableApplicationContext contexto;
+    private PedidoService pedidoService;
+    private PedidoRepository pedidoRepository;
+    private TransactionTemplate transactionTemplate;
+
+    private Long idAtualizacao;
+    private Long idExclusao;
+    private int sequencia;
+    private long operacoes;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(AppEconomePedidosApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                // Argumentos de linha de comando: precedem o application.yml
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.docker.compose.enabled=false",
+                        "--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + ContadorSql.class.getName(),
+                        "--participantes.api.enabled=false",
+                        "--transacoes.api.enabled=false",
+                        "--logging.level.root=WARN");
+        pedidoService = contexto.getBean(PedidoService.class);
+        pedidoRepository = contexto.getBean(PedidoRepository.class);
+        transactionTemplate = contexto.getBean(TransactionTemplate.class);
+        idAtualizacao = pedidoService.criar(request("BENCH-ATUALIZACAO", BigDecimal.ONE)).id();
+    }
+
+    /**
+     * Pedido novo (já no cache de segundo nível, como após um POST) para cada exclusão.
+     */
+    @Setup(Level.Invocation)
+    public void prepararExclusao(BenchmarkParams params) {
+        if (params.getBenchmark().contains("excluir")) {
+            idExclusao = pedidoService.criar(request("BENCH-" + sequencia++, BigDecimal.TEN)).id();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar(BenchmarkParams params) {
+        System.out.printf("%n[EscritaPedidoBenchmark] %s: %.2f comandos SQL por operação%n",
+                params.getBenchmark(), (double) ContadorSql.total / Math.max(1, operacoes));
+        ContadorSql.primeiraOperacao.forEach(sql -> System.out.println("  " + sql));
+        contexto.close();
+    }
+
+    /**
+     * PUT alterando apenas {@code valorTotal}.
+     */
+    @Benchmark
+    public Object atualizar() {
+        BigDecimal valor = (operacoes & 1) == 0 ? BigDecimal.TEN : BigDecimal.ONE;
+        return medir(() -> pedidoService.atualizar(idAtualizacao, request("BENCH-ATUALIZACAO", valor), null));
+    }
+
+    @Benchmark
+    public Object excluir() {
+        return medir(() -> {
+            pedidoService.excluir(idExclusao);
+            return idExclusao;
+        });
+    }
+
+    @Benchmark
+    public Object excluirComExistsById() {
+        return medir(() -> transactionTemplate.execute(status -> {
+            if (!pedidoRepository.existsById(idExclusao)) throw new IllegalStateException();
+            pedidoRepository.deleteById(idExclusao);
+            return idExclusao;
+        }));
+    }
+
+    private Object medir(Supplier<Object> operacao) {
+        ContadorSql.ativo.set(true);
+        try {
+            return operacao.get();
+        } finally {
+            ContadorSql.ativo.set(false);
+            ContadorSql.registrando = false;
+            operacoes++;
+        }
+    }
+
+    private static PedidoRequest request(String numero, BigDecimal valor) {
+        return new PedidoRequest(ZonedDateTime.parse("2025-09-24T10:15:30-03:00"), numero, TipoPedido.SAIDA,
+                SituacaoPedido.PENDENTE, valor, null, null, null, 7L);
+    }
+
+    /**
+     * Conta os comandos preparados pelo Hibernate na thread do benchmark enquanto uma operação é medida.
+     */
+    public static final class ContadorSql implements StatementInspector {
+
+        static final ThreadLocal<Boolean> ativo = ThreadLocal.withInitial(() -> false);
+        static final List<String> primeiraOperacao = new ArrayList<>();
+        static volatile boolean registrando = true;
+        static long total;
+
+        @Override
+        public String inspect(String sql) {
+            if (ativo.get()) {
+                total++;
+                if (registrando) primeiraOperacao.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.econome.pedidos.benchmark;
+
+import com.econome.pedidos.dto.PedidoMapperImpl;
+import com.econome.pedidos.dto.PedidoResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escrita e leitura de listas de {@link PedidoResponse} (com participante embutido) em JSON, Smile e CBOR,
+ * com o ObjectMapper configurado como na aplicação. O tamanho do payload de cada formato é impresso no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class FormatoBinarioBenchmark {
+
+    @Param({"100", "1000"})
+    int tamanho;
+
+    @Param({"json", "smile", "cbor"})
+    String formato;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<PedidoResponse> pedidos;
+    private byte[] payload;
+
+    @Setup
+    public void preparar() throws Exception {
+        JsonFactory factory = switch (formato) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .timeZone(TimeZone.getTimeZone("America/Sao_Paulo"))
+                .build();
+        JavaType tipoLista = objectMapper.getTypeFactory().constructCollectionType(List.class, PedidoResponse.class);
+        writer = objectMapper.writerFor(tipoLista);
+        reader = objectMapper.readerFor(tipoLista);
+        pedidos = new PedidoMapperImpl().toResponseList(DadosBenchmark.pedidos(tamanho, tamanho)).stream()
+                .map(p -> p.comParticipante(DadosBenchmark.participante(p.participanteId())))
+                .toList();
+        payload = writer.writeValueAsBytes(pedidos);
+        System.out.printf("%n[FormatoBinarioBenchmark] %s, %d pedidos: %d bytes (%.1f por pedido)%n",
+                formato, tamanho, payload.length, (double) payload.length / tamanho);
+    }
+
+    @Benchmark
+    public byte[] escrever() throws Exception {
+        return writer.writeValueAsBytes(pedidos);
+    }
+
+    @Benchmark
+    public List<PedidoResponse> ler() throws Exception {
+        return reader.readValue(payload);
+    }
+}
@@ -0,0 +1,49 @@
+package com.econome.pedidos.benchmark;
+
+import com.econome.domain.Pedido;
+import com.econome.pedidos.dto.PedidoMapper;
+import com.econome.pedidos.dto.PedidoMapperImpl;
+import com.econome.pedidos.dto.PedidoResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeamento entidade → DTO ({@link PedidoMapper#toResponseList}) em diferentes tamanhos de lista.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class PedidoMapperBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int tamanho;
+
+    private PedidoMapper mapper;
+    private List<Pedido> pedidos;
+
+    @Setup
+    public void preparar() {
+        mapper = new PedidoMapperImpl();
+        pedidos = DadosBenchmark.pedidos(tamanho, tamanho);
+    }
+
+    @Benchmark
+    public List<PedidoResponse> toResponseList() {
+        return mapper.toResponseList(pedidos);
+    }
+}
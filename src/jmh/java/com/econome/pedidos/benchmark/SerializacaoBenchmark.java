@@ -0,0 +1,60 @@
+package com.econome.pedidos.benchmark;
+
+import com.econome.pedidos.dto.PedidoMapperImpl;
+import com.econome.pedidos.dto.PedidoResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escrita JSON de listas de {@link PedidoResponse} com o ObjectMapper configurado como na aplicação
+ * ({@code spring.jackson.*}), incluindo o padrão {@code @JsonFormat} de {@code ZonedDateTime}
+ * e o participante embutido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SerializacaoBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int tamanho;
+
+    private ObjectWriter writer;
+    private List<PedidoResponse> pedidos;
+
+    @Setup
+    public void preparar() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .timeZone(TimeZone.getTimeZone("America/Sao_Paulo"))
+                .build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, PedidoResponse.class));
+        pedidos = new PedidoMapperImpl().toResponseList(DadosBenchmark.pedidos(tamanho, tamanho)).stream()
+                .map(p -> p.comParticipante(DadosBenchmark.participante(p.participanteId())))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] escreverLista() throws Exception {
+        return writer.writeValueAsBytes(pedidos);
+    }
+}
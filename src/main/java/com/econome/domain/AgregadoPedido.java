@@ -0,0 +1,35 @@
+package com.econome.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Totais pré-calculados de pedidos por participante, tipo, situação e mês de emissão.
+ * Mantido por deltas a cada escrita em pedidos e reconstruível a partir da tabela de pedidos.
+ */
+@Entity
+@Data
+@Table(name = "pedidos_agregados")
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class AgregadoPedido implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @EmbeddedId
+    @EqualsAndHashCode.Include
+    private ChaveAgregadoPedido chave;
+
+    @Column(name = "quantidade", nullable = false)
+    private long quantidade;
+
+    @Column(name = "valor_total", nullable = false)
+    private BigDecimal valorTotal;
+}
@@ -0,0 +1,49 @@
+package com.econome.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Comparator;
+
+/**
+ * Chave de {@link AgregadoPedido}. Valores não informados no pedido usam sentinelas
+ * ({@code 0} para participante e competência, vazio para tipo e situação).
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaveAgregadoPedido implements Serializable, Comparable<ChaveAgregadoPedido> {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final Comparator<ChaveAgregadoPedido> ORDEM = Comparator
+            .comparingLong(ChaveAgregadoPedido::getParticipanteId)
+            .thenComparing(ChaveAgregadoPedido::getTipoPedido)
+            .thenComparing(ChaveAgregadoPedido::getSituacaoPedido)
+            .thenComparingInt(ChaveAgregadoPedido::getCompetencia);
+
+    @Column(name = "participante_id", nullable = false)
+    private long participanteId;
+
+    @Column(name = "tipo_pedido", nullable = false)
+    private String tipoPedido;
+
+    @Column(name = "situacao_pedido", nullable = false)
+    private String situacaoPedido;
+
+    // Ano e mês de emissão no formato yyyyMM
+    @Column(name = "competencia", nullable = false)
+    private int competencia;
+
+    @Override
+    public int compareTo(ChaveAgregadoPedido outra) {
+        return ORDEM.compare(this, outra);
+    }
+}
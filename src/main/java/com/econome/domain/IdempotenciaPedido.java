@@ -0,0 +1,49 @@
+package com.econome.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Chave de idempotência da criação de pedidos ({@code Idempotency-Key}).
+ * A linha é reservada antes da criação e completada com a resposta na mesma transação do Pedido;
+ * {@code hashRequisicao} identifica o corpo original para recusar a mesma chave com outro conteúdo.
+ */
+@Entity
+@Data
+@Table(name = "pedidos_idempotencia")
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class IdempotenciaPedido implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "chave", length = 100)
+    @EqualsAndHashCode.Include
+    private String chave;
+
+    @Column(name = "hash_requisicao", nullable = false, length = 32)
+    private byte[] hashRequisicao;
+
+    @Column(name = "pedido_id")
+    private Long pedidoId;
+
+    @Column(name = "versao")
+    private Long versao;
+
+    @Column(name = "resposta", length = 4000)
+    private String resposta;
+
+    @Column(name = "expira_em", nullable = false)
+    private Instant expiraEm;
+}
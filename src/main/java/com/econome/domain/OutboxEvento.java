@@ -0,0 +1,63 @@
+package com.econome.domain;
+
+import com.econome.pedidos.enums.StatusOutbox;
+import com.econome.pedidos.enums.TipoEventoOutbox;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Evento de integração pendente de entrega (Transactional Outbox).
+ * Gravado na mesma transação do Pedido; {@code proximaTentativaEm} indica quando o evento pode ser
+ * (re)processado e, enquanto PROCESSANDO, até quando a reserva do relay é válida.
+ */
+@Entity
+@Data
+@Table(name = "pedidos_outbox")
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class OutboxEvento implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "pedido_id", nullable = false)
+    private Long pedidoId;
+
+    @Column(name = "tipo_evento", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private TipoEventoOutbox tipoEvento;
+
+    @Column(name = "payload", nullable = false, length = 4000)
+    private String payload;
+
+    @Column(name = "status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private StatusOutbox status;
+
+    @Column(name = "tentativas", nullable = false)
+    private int tentativas;
+
+    @Column(name = "criado_em", nullable = false)
+    private Instant criadoEm;
+
+    @Column(name = "proxima_tentativa_em", nullable = false)
+    private Instant proximaTentativaEm;
+
+    @Column(name = "processado_em")
+    private Instant processadoEm;
+
+    @Column(name = "ultimo_erro", length = 1000)
+    private String ultimoErro;
+
+}
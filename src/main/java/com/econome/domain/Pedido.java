@@ -1,11 +1,15 @@
 package com.econome.domain;
 
+import com.econome.pedidos.datasource.EscritaPedidoListener;
 import com.econome.pedidos.enums.SituacaoPedido;
 import com.econome.pedidos.enums.TipoPedido;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -13,6 +17,12 @@ import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Pedido.REGIAO_CACHE)
+// UPDATE apenas com as colunas alteradas, detectadas pelo dirty checking
+@DynamicUpdate
+// Leituras logo após uma escrita vão ao primário quando há réplicas de leitura
+@EntityListeners(EscritaPedidoListener.class)
 @Data
 @Table(name = "pedidos")
 @NoArgsConstructor
@@ -22,8 +32,21 @@ public class Pedido implements Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Região do cache de segundo nível; entradas são atualizadas/invalidadas pelo Hibernate a cada UPDATE/DELETE.
+     */
+    public static final String REGIAO_CACHE = "pedidos";
+
+    /**
+     * Índice único de {@code numero_pedido} (Liquibase 0009); identifica a violação de unicidade no tratamento de erros.
+     */
+    public static final String INDICE_NUMERO_PEDIDO = "uk_pedidos_numero_pedido";
+
+    // Ids reservados em blocos (otimizador pooled) em vez de IDENTITY, permitindo batching de INSERTs
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "pedidos_id")
+    @TableGenerator(name = "pedidos_id", table = "id_geradores", pkColumnName = "gerador",
+            valueColumnName = "proximo_valor", pkColumnValue = "pedidos", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -48,4 +71,9 @@ public class Pedido implements Serializable {
     @Column(name = "participante_id")
     private Long participanteId;
 
+    // Concorrência otimista e base do ETag; incrementada pelo Hibernate a cada UPDATE
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
 }
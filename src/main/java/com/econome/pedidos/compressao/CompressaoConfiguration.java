@@ -0,0 +1,27 @@
+package com.econome.pedidos.compressao;
+
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra o {@link CompressaoRespostaFilter} para {@code /api/*} ({@code app.compression.enabled}).
+ * Substitui o {@code server.compression} do Tomcat, que não permite limiar nem buffer por endpoint.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.compression", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(CompressaoProperties.class)
+public class CompressaoConfiguration {
+
+    @Bean
+    FilterRegistrationBean<CompressaoRespostaFilter> compressaoRespostaFilter(CompressaoProperties properties) {
+        FilterRegistrationBean<CompressaoRespostaFilter> registro = new FilterRegistrationBean<>(new CompressaoRespostaFilter(properties));
+        registro.addUrlPatterns("/api/*");
+        // ASYNC: a exportação (StreamingResponseBody) termina de escrever no dispatch assíncrono
+        registro.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        return registro;
+    }
+}
@@ -0,0 +1,42 @@
+package com.econome.pedidos.compressao;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Compressão gzip das respostas da API, por endpoint.
+ * Prefixo: app.compression
+ *
+ * @param enabled         habilita o filtro de compressão
+ * @param minResponseSize tamanho a partir do qual a resposta é comprimida; abaixo dele segue sem compressão
+ *                        e com {@code Content-Length}
+ * @param level           nível do gzip (1 = mais rápido, 9 = menor)
+ * @param mimeTypes       tipos de conteúdo comprimidos
+ * @param endpoints       regras por caminho (padrão de {@code PathPattern}); vale a primeira que corresponder e
+ *                        caminhos sem regra não são comprimidos
+ */
+@ConfigurationProperties(prefix = "app.compression")
+public record CompressaoProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2KB") DataSize minResponseSize,
+        @DefaultValue("5") int level,
+        @DefaultValue({"application/json", "application/x-ndjson", "application/problem+json"}) List<String> mimeTypes,
+        @DefaultValue List<Endpoint> endpoints
+) {
+
+    /**
+     * @param path            caminho da requisição (ex.: {@code /api/pedidos}, {@code /api/pedidos/*})
+     * @param compress        comprime respostas deste caminho
+     * @param minResponseSize limiar próprio; ausente usa o global
+     * @param bufferSize      buffer de saída do container: ao encher, o trecho acumulado vai para a rede (menor =
+     *                        primeiro byte mais cedo e mais chunks); ausente usa o padrão do container
+     */
+    public record Endpoint(String path,
+                           @DefaultValue("true") boolean compress,
+                           DataSize minResponseSize,
+                           DataSize bufferSize) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.econome.pedidos.compressao;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Comprime em gzip as respostas dos endpoints configurados em {@link CompressaoProperties}, quando o cliente
+ * envia {@code Accept-Encoding: gzip}.
+ * <ul>
+ *     <li>A resposta fica retida em memória até atingir o limiar do endpoint; respostas menores saem sem
+ *     compressão. Acima dele a compressão é em streaming: cada {@code flush} (ex.: a cada janela da exportação)
+ *     envia o trecho já comprimido, sem esperar o fim da resposta.</li>
+ *     <li>O {@code buffer-size} do endpoint ajusta o buffer de saída do container, que define de quanto em quanto
+ *     o corpo vai para a rede (primeiro byte x quantidade de chunks), com ou sem compressão.</li>
+ *     <li>Respostas comprimidas recebem ETag fraco ({@code W/}), pois os bytes diferem da representação original;
+ *     {@code If-None-Match} continua correspondendo.</li>
+ * </ul>
+ */
+public class CompressaoRespostaFilter extends OncePerRequestFilter {
+
+    private final List<Regra> regras;
+    private final List<MediaType> tiposComprimiveis;
+    private final int nivel;
+
+    public CompressaoRespostaFilter(CompressaoProperties properties) {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        this.regras = properties.endpoints().stream()
+                .map(endpoint -> new Regra(parser.parse(endpoint.path()), endpoint.compress(),
+                        (int) (endpoint.minResponseSize() != null ? endpoint.minResponseSize() : properties.minResponseSize()).toBytes(),
+                        endpoint.bufferSize() != null ? (int) endpoint.bufferSize().toBytes() : 0))
+                .toList();
+        this.tiposComprimiveis = properties.mimeTypes().stream().map(MediaType::parseMediaType).toList();
+        this.nivel = properties.level();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            // Dispatch assíncrono da mesma requisição: regra já aplicada; conclui a compressão iniciada no primeiro
+            filterChain.doFilter(request, response);
+            RespostaComprimivel emAndamento = WebUtils.getNativeResponse(response, RespostaComprimivel.class);
+            if (emAndamento != null && !isAsyncStarted(request)) emAndamento.concluir();
+            return;
+        }
+
+        Regra regra = regra(request);
+        if (regra == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (regra.tamanhoBuffer() > 0) {
+            response.setBufferSize(regra.tamanhoBuffer());
+        }
+        if (!regra.comprimir()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || !aceitaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RespostaComprimivel resposta = new RespostaComprimivel(response, regra.tamanhoMinimo(), nivel, tiposComprimiveis);
+        filterChain.doFilter(request, resposta);
+        if (!isAsyncStarted(request)) resposta.concluir();
+    }
+
+    private Regra regra(HttpServletRequest request) {
+        PathContainer caminho = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        return regras.stream().filter(regra -> regra.padrao().matches(caminho)).findFirst().orElse(null);
+    }
+
+    /**
+     * {@code gzip} ou {@code *} com qualidade diferente de zero.
+     */
+    private static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) return false;
+        for (String item : acceptEncoding.split(",")) {
+            String[] partes = item.split(";");
+            String codificacao = partes[0].trim();
+            if (!codificacao.equalsIgnoreCase("gzip") && !codificacao.equals("*")) continue;
+            boolean recusado = false;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.startsWith("q=")) {
+                    try {
+                        recusado = Double.parseDouble(parametro.substring(2)) <= 0;
+                    } catch (NumberFormatException ex) {
+                        recusado = true;
+                    }
+                }
+            }
+            if (!recusado) return true;
+        }
+        return false;
+    }
+
+    private record Regra(PathPattern padrao, boolean comprimir, int tamanhoMinimo, int tamanhoBuffer) {
+    }
+}
@@ -0,0 +1,292 @@
+package com.econome.pedidos.compressao;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Resposta que decide entre gzip e saída direta ao atingir o tamanho mínimo (ou ao concluir, se não atingir).
+ * Até a decisão o corpo e o {@code Content-Length} ficam retidos; {@code flush} antes disso não tem efeito.
+ * <p>
+ * Escrita não bloqueante ({@code setWriteListener}) vai ao stream do container: registrada antes da decisão, a
+ * resposta sai sem compressão; com o gzip já iniciado, cada escrita envia o trecho comprimido numa única
+ * escrita ao container, respeitando o {@code isReady} consultado pela aplicação.
+ * <p>
+ * {@code reset} antes do commit descarta o gzip iniciado e volta à decisão pendente (o container remove os
+ * cabeçalhos). {@code resetBuffer} mantém os cabeçalhos, inclusive {@code Content-Encoding}: o corpo recomeça
+ * com um novo stream gzip. Depois do commit, ambos lançam {@link IllegalStateException} (pelo container).
+ */
+class RespostaComprimivel extends HttpServletResponseWrapper {
+
+    private enum Estado { PENDENTE, DIRETA, COMPRIMIDA, CONCLUIDA }
+
+    private final int tamanhoMinimo;
+    private final int nivel;
+    private final List<MediaType> tiposComprimiveis;
+    private final ByteArrayOutputStream pendente = new ByteArrayOutputStream();
+    private final Saida saida = new Saida();
+    private Estado estado = Estado.PENDENTE;
+    private OutputStream destino;
+    private ByteArrayOutputStream comprimidoPendente;
+    private ServletOutputStream saidaNaoBloqueante;
+    private Long tamanhoDeclarado;
+    private PrintWriter writer;
+
+    RespostaComprimivel(HttpServletResponse response, int tamanhoMinimo, int nivel, List<MediaType> tiposComprimiveis) {
+        super(response);
+        this.tamanhoMinimo = tamanhoMinimo;
+        this.nivel = nivel;
+        this.tiposComprimiveis = tiposComprimiveis;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        return saida;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(saida, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (estado == Estado.PENDENTE) {
+            tamanhoDeclarado = len;
+        } else if (estado == Estado.DIRETA) {
+            super.setContentLengthLong(len);
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            if (value != null) setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setHeader(name, value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) writer.flush();
+        saida.flush();
+        if (estado != Estado.PENDENTE) super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        pendente.reset();
+        writer = null;
+        if (estado == Estado.COMPRIMIDA) {
+            if (comprimidoPendente != null) comprimidoPendente.reset();
+            destino = novoGzip();
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        pendente.reset();
+        writer = null;
+        tamanhoDeclarado = null;
+        if (estado == Estado.CONCLUIDA) return;
+        comprimidoPendente = null;
+        if (saidaNaoBloqueante != null) {
+            // Escrita não bloqueante já registrada: segue sem compressão
+            destino = saidaNaoBloqueante;
+            estado = Estado.DIRETA;
+        } else {
+            destino = null;
+            estado = Estado.PENDENTE;
+        }
+    }
+
+    /**
+     * Envia o que estiver retido (sem compressão, abaixo do mínimo) ou encerra o gzip.
+     */
+    void concluir() throws IOException {
+        if (estado == Estado.CONCLUIDA) return;
+        if (writer != null) writer.flush();
+        if (estado == Estado.PENDENTE) {
+            if (tamanhoDeclarado == null && pendente.size() > 0) tamanhoDeclarado = (long) pendente.size();
+            decidir(false);
+        }
+        if (destino instanceof GZIPOutputStream gzip) {
+            gzip.finish();
+            enviarComprimido();
+        }
+        estado = Estado.CONCLUIDA;
+    }
+
+    private void decidir(boolean atingiuMinimo) throws IOException {
+        if (atingiuMinimo && comprimivel()) {
+            super.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            String etag = getHeader(HttpHeaders.ETAG);
+            if (etag != null && !etag.startsWith("W/")) super.setHeader(HttpHeaders.ETAG, "W/" + etag);
+            destino = novoGzip();
+            estado = Estado.COMPRIMIDA;
+        } else {
+            if (tamanhoDeclarado != null) super.setContentLengthLong(tamanhoDeclarado);
+            destino = super.getOutputStream();
+            estado = Estado.DIRETA;
+        }
+        if (pendente.size() > 0) {
+            pendente.writeTo(destino);
+            pendente.reset();
+        }
+    }
+
+    private GZIPOutputStream novoGzip() {
+        try {
+            // syncFlush: cada flush envia o trecho comprimido até ali
+            return new GZIPOutputStream(new SaidaComprimida(), 8192, true) {
+                {
+                    def.setLevel(nivel);
+                }
+            };
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * No modo não bloqueante o gzip pode gerar várias escritas por chamada; aqui elas saem como uma só.
+     */
+    private void enviarComprimido() throws IOException {
+        if (comprimidoPendente == null || comprimidoPendente.size() == 0) return;
+        comprimidoPendente.writeTo(super.getOutputStream());
+        comprimidoPendente.reset();
+    }
+
+    private boolean comprimivel() {
+        int status = getStatus();
+        if (status < 200 || status == HttpStatus.NO_CONTENT.value() || status == HttpStatus.PARTIAL_CONTENT.value()
+                || status == HttpStatus.NOT_MODIFIED.value()) {
+            return false;
+        }
+        if (getHeader(HttpHeaders.CONTENT_ENCODING) != null || getContentType() == null) return false;
+        MediaType tipo = MediaType.parseMediaType(getContentType());
+        return tiposComprimiveis.stream().anyMatch(comprimivel -> comprimivel.includes(tipo));
+    }
+
+    private final class Saida extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (estado == Estado.CONCLUIDA) throw new IOException("Resposta já concluída");
+            if (estado == Estado.PENDENTE) {
+                pendente.write(b, off, len);
+                if (pendente.size() >= tamanhoMinimo) decidir(true);
+                return;
+            }
+            destino.write(b, off, len);
+            enviarComprimido();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (estado == Estado.DIRETA || estado == Estado.COMPRIMIDA) {
+                destino.flush();
+                enviarComprimido();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            concluir();
+        }
+
+        @Override
+        public boolean isReady() {
+            if (estado == Estado.PENDENTE) return true;
+            try {
+                return RespostaComprimivel.super.getOutputStream().isReady();
+            } catch (IOException ex) {
+                return false;
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                if (estado == Estado.PENDENTE) decidir(false);
+                if (estado == Estado.COMPRIMIDA) comprimidoPendente = new ByteArrayOutputStream();
+                saidaNaoBloqueante = RespostaComprimivel.super.getOutputStream();
+                saidaNaoBloqueante.setWriteListener(writeListener);
+            } catch (IOException ex) {
+                writeListener.onError(ex);
+            }
+        }
+    }
+
+    /**
+     * Destino do gzip: o stream do container ou, no modo não bloqueante, o acúmulo enviado por {@link #enviarComprimido()}.
+     */
+    private final class SaidaComprimida extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (comprimidoPendente != null) {
+                comprimidoPendente.write(b, off, len);
+            } else {
+                RespostaComprimivel.super.getOutputStream().write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (comprimidoPendente == null) RespostaComprimivel.super.getOutputStream().flush();
+        }
+    }
+}
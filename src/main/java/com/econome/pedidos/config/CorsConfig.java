@@ -23,7 +23,7 @@ public class CorsConfig {
         config.setAllowedOrigins(allowedOrigins);
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
-        config.setExposedHeaders(List.of("Location"));
+        config.setExposedHeaders(List.of("Location", "ETag", "X-Enriquecimento-Parcial", "Idempotent-Replayed"));
         config.setAllowCredentials(false);
         config.setMaxAge(3600L);
 
@@ -0,0 +1,34 @@
+package com.econome.pedidos.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Representações binárias da API para tráfego entre serviços, negociadas por {@code Accept} (respostas) e
+ * {@code Content-Type} (corpos de requisição):
+ * <ul>
+ *     <li>Smile ({@code application/x-jackson-smile}): nomes de campo repetidos viram referências curtas,
+ *     o que reduz bastante listas de pedidos.</li>
+ *     <li>CBOR ({@code application/cbor}, RFC 8949): padrão aberto, para consumidores fora do Jackson.</li>
+ * </ul>
+ * Ambos usam o mesmo {@link Jackson2ObjectMapperBuilder} do JSON ({@code spring.jackson.*}): os mesmos campos,
+ * nomes e formatos de data. JSON continua sendo o padrão.
+ */
+@Configuration
+public class FormatosBinariosConfiguration {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -1,16 +1,82 @@
 package com.econome.pedidos.config;
 
+import com.econome.domain.Pedido;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
 /**
  * Configuração JPA centralizada para o contexto do serviço de pedidos.
  * Habilita o scan de repositórios e entidades, mantendo a organização por camadas/pacotes
  * e evitando mistura de responsabilidades.
+ * <p>
+ * Também define o cache de segundo nível do Hibernate ({@code app.pedidos.cache.*}): um {@link CacheManager}
+ * JCache local (Caffeine) com as regiões criadas aqui, cada uma com limite de entradas e expiração após escrita.
+ * Regiões ausentes fazem a inicialização falhar em vez de criar caches sem limite.
  */
+@Slf4j
 @Configuration
 @EnableJpaRepositories("com.econome.repository")
 @EntityScan("com.econome.domain")
 public class JpaConfiguration {
+
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager(PedidosProperties properties) {
+        PedidosProperties.Cache cache = properties.cache();
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // Um gerenciador por contexto: o padrão do provider é compartilhado pela JVM e as regiões já existiriam
+        CacheManager cacheManager = provider.getCacheManager(URI.create("pedidos-" + UUID.randomUUID()),
+                provider.getDefaultClassLoader());
+        criarRegiao(cacheManager, Pedido.REGIAO_CACHE, cache.maxEntries(), cache.ttl());
+        criarRegiao(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                cache.queryMaxEntries(), cache.queryTtl());
+        // Um registro por tabela; não pode expirar antes dos resultados de consulta que valida
+        criarRegiao(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, 1_000, null);
+        log.info("[JpaConfiguration] Cache de segundo nível {} (maxEntries={}, ttl={}, queryMaxEntries={}, queryTtl={})",
+                cache.enabled() ? "habilitado" : "desabilitado", cache.maxEntries(), cache.ttl(),
+                cache.queryMaxEntries(), cache.queryTtl());
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer segundoNivelCacheCustomizer(PedidosProperties properties, CacheManager hibernateCacheManager) {
+        boolean habilitado = properties.cache().enabled();
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, habilitado);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, habilitado);
+            hibernateProperties.put(AvailableSettings.JAKARTA_SHARED_CACHE_MODE, "ENABLE_SELECTIVE");
+            if (habilitado) {
+                hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+                hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+            }
+        };
+    }
+
+    private static void criarRegiao(CacheManager cacheManager, String nome, long maxEntradas, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>()
+                // Hibernate guarda entradas já desmontadas (imutáveis): cópia por valor seria custo sem ganho
+                .setStoreByValue(false)
+                .setStatisticsEnabled(true)
+                .setMaximumSize(OptionalLong.of(maxEntradas))
+                .setExpireAfterWrite(ttl == null ? OptionalLong.empty() : OptionalLong.of(ttl.toNanos()));
+        cacheManager.createCache(nome, configuracao);
+    }
 }
@@ -0,0 +1,12 @@
+package com.econome.pedidos.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra as propriedades do contexto de Pedidos ({@code app.pedidos.*}).
+ */
+@Configuration
+@EnableConfigurationProperties(PedidosProperties.class)
+public class PedidosConfiguration {
+}
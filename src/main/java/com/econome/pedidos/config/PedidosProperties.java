@@ -0,0 +1,95 @@
+package com.econome.pedidos.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.ZoneId;
+
+/**
+ * Propriedades do contexto de Pedidos.
+ * Prefixo: app.pedidos
+ */
+@ConfigurationProperties(prefix = "app.pedidos")
+public record PedidosProperties(@DefaultValue Exportacao exportacao, @DefaultValue Lote lote, @DefaultValue Cache cache,
+                                @DefaultValue Agregados agregados, @DefaultValue Enriquecimento enriquecimento,
+                                @DefaultValue Idempotencia idempotencia, @DefaultValue Respostas respostas) {
+
+    /**
+     * @param janela quantidade de pedidos mapeados, enriquecidos e escritos por vez na exportação
+     */
+    public record Exportacao(@DefaultValue("500") int janela) {
+    }
+
+    /**
+     * @param chunk itens persistidos por transação no processamento em lote
+     */
+    public record Lote(@DefaultValue("500") int chunk) {
+    }
+
+    /**
+     * Cache de segundo nível do Hibernate.
+     *
+     * @param enabled         habilita o cache de entidades e de consultas
+     * @param maxEntries      pedidos mantidos em cache (descarte por frequência/recência ao exceder)
+     * @param ttl             expiração após escrita; limita a defasagem diante de alterações feitas fora da aplicação
+     * @param queryMaxEntries resultados de consultas cacheáveis mantidos em cache
+     * @param queryTtl        expiração dos resultados de consultas
+     */
+    public record Cache(@DefaultValue("true") boolean enabled,
+                        @DefaultValue("10000") long maxEntries,
+                        @DefaultValue("10m") Duration ttl,
+                        @DefaultValue("1000") long queryMaxEntries,
+                        @DefaultValue("1m") Duration queryTtl) {
+    }
+
+    /**
+     * Tabela de agregados (GET /api/pedidos/agregados).
+     *
+     * @param zone              fuso usado para definir o mês de emissão de cada pedido
+     * @param rebuildOnStartup  reconstrói na inicialização se a tabela estiver vazia e houver pedidos (backfill)
+     * @param rebuildCron       reconstrução periódica ({@code -} desabilita; lido pelo {@code @Scheduled})
+     * @param rebuildBatchSize  pedidos lidos por consulta durante a reconstrução
+     */
+    public record Agregados(@DefaultValue("America/Sao_Paulo") ZoneId zone,
+                            @DefaultValue("true") boolean rebuildOnStartup,
+                            @DefaultValue("-") String rebuildCron,
+                            @DefaultValue("1000") int rebuildBatchSize) {
+    }
+
+    /**
+     * Enriquecimento das respostas com o participante embutido.
+     *
+     * @param budget tempo máximo de espera pelo serviço de Participantes por requisição; esgotado, a resposta
+     *               segue com os participantes já conhecidos ({@code 0} aguarda todos). Não se aplica à exportação
+     */
+    public record Enriquecimento(@DefaultValue("50ms") Duration budget) {
+    }
+
+    /**
+     * Idempotência do POST /api/pedidos (cabeçalho {@code Idempotency-Key}).
+     *
+     * @param ttl           retenção mínima de uma chave; após expirar é removida pelo expurgo
+     * @param hotMaxEntries chaves recentes mantidas em memória na frente da tabela
+     * @param hotTtl        permanência de uma chave em memória (limitada pelo {@code ttl})
+     * @param purgeCron     expurgo das chaves expiradas (lido pelo {@code @Scheduled})
+     */
+    public record Idempotencia(@DefaultValue("24h") Duration ttl,
+                               @DefaultValue("10000") long hotMaxEntries,
+                               @DefaultValue("10m") Duration hotTtl,
+                               @DefaultValue("0 0 * * * *") String purgeCron) {
+    }
+
+    /**
+     * Respostas de GET /api/pedidos/{id} já serializadas em memória.
+     *
+     * @param enabled habilita o cache de respostas
+     * @param maxSize total de bytes de JSON mantidos (descarte por frequência/recência ao exceder)
+     * @param ttl     expiração após escrita; limita a defasagem diante de alterações feitas em outra instância
+     */
+    public record Respostas(@DefaultValue("true") boolean enabled,
+                            @DefaultValue("32MB") DataSize maxSize,
+                            @DefaultValue("10m") Duration ttl) {
+    }
+}
@@ -1,23 +1,53 @@
 package com.econome.pedidos.controller;
 
+import com.econome.pedidos.dto.PedidoAgregadoFiltro;
+import com.econome.pedidos.dto.PedidoAgregadoResponse;
+import com.econome.pedidos.dto.PedidoFiltro;
+import com.econome.pedidos.dto.PedidoLoteItemRequest;
+import com.econome.pedidos.dto.PedidoLoteResponse;
+import com.econome.pedidos.dto.PedidoPaginaResponse;
 import com.econome.pedidos.dto.PedidoRequest;
 import com.econome.pedidos.dto.PedidoResponse;
+import com.econome.pedidos.dto.ReconstrucaoAgregadosResponse;
+import com.econome.pedidos.service.IdempotenciaPedidoService;
 import com.econome.pedidos.service.PedidoService;
+import com.econome.pedidos.service.RespostasPedidoCache;
+import com.econome.repository.MarcaVersaoPedidos;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 
 /**
  * Controller REST responsável por expor os endpoints do contexto de "Pedidos".
@@ -29,74 +59,239 @@ import io.swagger.v3.oas.annotations.media.Content;
 @Tag(name = "Pedidos", description = "Operações de CRUD para o recurso Pedido")
 public class PedidoController {
 
+    private static final int TAMANHO_PAGINA_PADRAO = 50;
+    private static final int TAMANHO_PAGINA_MAXIMO = 500;
+    private static final int TAMANHO_LOTE_MAXIMO = 10_000;
+    private static final String CABECALHO_ENRIQUECIMENTO_PARCIAL = "X-Enriquecimento-Parcial";
+    private static final String CABECALHO_IDEMPOTENCIA = "Idempotency-Key";
+    private static final String CABECALHO_IDEMPOTENCIA_REPETIDA = "Idempotent-Replayed";
+
+    private static final String CONTEUDO_SMILE = "application/x-jackson-smile";
+    private static final List<MediaType> FORMATOS_BINARIOS = List.of(MediaType.valueOf(CONTEUDO_SMILE), MediaType.APPLICATION_CBOR);
+
     private final PedidoService pedidoService;
+    private final IdempotenciaPedidoService idempotenciaPedidoService;
+    private final RespostasPedidoCache respostasPedidoCache;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Lista todos os pedidos.
+     * Lista pedidos paginados por cursor, ordenados por id.
+     * A resposta traz um ETag derivado da marca de versão dos pedidos filtrados; com {@code If-None-Match}
+     * correspondente retorna 304 sem consultar, enriquecer ou serializar a página.
      *
-     * @return lista de pedidos no formato de resposta.
+     * @param filtro      filtros opcionais (tipo, situação, participante e período de emissão)
+     * @param cursor      valor de {@code proximoCursor} da página anterior; omitido na primeira página
+     * @param tamanho     quantidade de pedidos por página (1 a {@value #TAMANHO_PAGINA_MAXIMO})
+     * @param ifNoneMatch ETag da última resposta recebida pelo cliente
+     * @return página de pedidos no formato de resposta, ou 304.
      */
     @GetMapping
-    @Operation(summary = "Listar pedidos", description = "Retorna a lista de todos os pedidos")
-    @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso")
-    public List<PedidoResponse> listar(@RequestParam(name = "embed", required = false) String embed) {
-        return pedidoService.listarTodos();
+    @Operation(summary = "Listar pedidos", description = "Retorna uma página de pedidos (paginação por cursor) com filtros opcionais")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Página retornada com sucesso"),
+            @ApiResponse(responseCode = "304", description = "Página inalterada desde o ETag informado", content = @Content)
+    })
+    public ResponseEntity<PedidoPaginaResponse> listar(@ParameterObject PedidoFiltro filtro,
+                                                       @RequestParam(name = "cursor", required = false) Long cursor,
+                                                       @RequestParam(name = "tamanho", defaultValue = "" + TAMANHO_PAGINA_PADRAO)
+                                                       @Min(1) @Max(TAMANHO_PAGINA_MAXIMO) int tamanho,
+                                                       @RequestParam(name = "embed", required = false) String embed,
+                                                       @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // ETag calculado antes da leitura: se algo mudar entre as duas consultas, o próximo GET recebe 200
+        String etag = etagListagem(pedidoService.marcaVersao(filtro, cursor, tamanho), tamanho);
+        if (correspondeAlgumEtag(ifNoneMatch, etag)) {
+            return naoModificado(etag);
+        }
+        PedidoPaginaResponse pagina = pedidoService.listar(filtro, cursor, tamanho);
+        boolean parcial = pagina.itens().stream().anyMatch(PedidoController::enriquecimentoParcial);
+        return versionado(ResponseEntity.ok(), etag, parcial).body(pagina);
+    }
+
+    /**
+     * Exporta todos os pedidos em streaming, ordenados por id, sem materializar a lista em memória.
+     * Formato NDJSON (um pedido por linha) por padrão; com {@code Accept: application/json}
+     * o corpo é um array JSON escrito em chunks.
+     *
+     * @param accept cabeçalho Accept da requisição
+     * @return corpo escrito progressivamente a cada janela de pedidos lida do banco
+     */
+    @GetMapping(value = "/exportacao", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Exportar pedidos", description = "Exporta todos os pedidos em streaming (NDJSON ou array JSON em chunks)")
+    @ApiResponse(responseCode = "200", description = "Exportação transmitida com sucesso")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean arrayJson = preferArrayJson(accept);
+        StreamingResponseBody corpo = saida -> escreverExportacao(saida, arrayJson);
+        return ResponseEntity.ok()
+                .contentType(arrayJson ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+                .body(corpo);
+    }
+
+    /**
+     * Totais de pedidos por participante, tipo, situação e mês de emissão, lidos da tabela de agregados.
+     *
+     * @param filtro filtros opcionais (participante, tipo, situação e intervalo de meses)
+     * @return grupos em ordem de mês, participante, tipo e situação
+     */
+    @GetMapping("/agregados")
+    @Operation(summary = "Agregados de pedidos", description = "Quantidade e soma de valorTotal por participante, tipo, situação e mês de emissão")
+    @ApiResponse(responseCode = "200", description = "Agregados retornados com sucesso")
+    public List<PedidoAgregadoResponse> agregar(@ParameterObject PedidoAgregadoFiltro filtro) {
+        return pedidoService.agregar(filtro);
+    }
+
+    /**
+     * Recalcula a tabela de agregados a partir dos pedidos (após cargas feitas diretamente no banco).
+     * Escritas em pedidos aguardam o fim da reconstrução.
+     *
+     * @return pedidos lidos e grupos gravados
+     */
+    @PostMapping("/agregados/reconstrucao")
+    @Operation(summary = "Reconstruir agregados", description = "Recalcula os agregados de pedidos a partir da tabela de pedidos")
+    @ApiResponse(responseCode = "200", description = "Agregados reconstruídos")
+    public ReconstrucaoAgregadosResponse reconstruirAgregados() {
+        return pedidoService.reconstruirAgregados();
     }
 
     /**
      * Busca um pedido pelo identificador.
+     * A resposta traz ETag forte baseado na versão do pedido; com {@code If-None-Match} correspondente
+     * retorna 304 consultando apenas a versão (sem enriquecimento nem serialização).
+     * O corpo JSON vem do {@link RespostasPedidoCache}: pedidos lidos com frequência são escritos a partir do JSON já
+     * serializado, sem consulta, mapeamento nem Jackson. Formatos binários (Smile/CBOR) são serializados a cada
+     * requisição.
      *
-     * @param id identificador do pedido
-     * @return pedido encontrado ou 404 se não existir
+     * @param id          identificador do pedido
+     * @param ifNoneMatch ETag da última resposta recebida pelo cliente
+     * @param accept      cabeçalho Accept da requisição
+     * @return pedido encontrado, 304 se inalterado ou 404 se não existir
      */
     @GetMapping("/{id}")
     @Operation(summary = "Buscar pedido por ID", description = "Retorna o pedido correspondente ao ID informado")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Pedido encontrado"),
+            @ApiResponse(responseCode = "200", description = "Pedido encontrado", content = {
+                    @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = PedidoResponse.class)),
+                    @Content(mediaType = CONTEUDO_SMILE, schema = @Schema(implementation = PedidoResponse.class)),
+                    @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = PedidoResponse.class))}),
+            @ApiResponse(responseCode = "304", description = "Pedido inalterado desde o ETag informado", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Pedido não encontrado", content = @Content)
+    })
+    public ResponseEntity<?> buscarPorId(@PathVariable Long id,
+                                         @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                         @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (ifNoneMatch != null) {
+            Optional<String> etagAtual = pedidoService.buscarVersao(id).map(versao -> etagPedido(id, versao));
+            if (etagAtual.isPresent() && correspondeAlgumEtag(ifNoneMatch, etagAtual.get())) {
+                return naoModificado(etagAtual.get());
+            }
+        }
+        if (preferBinario(accept)) {
+            PedidoResponse pedido = pedidoService.buscarPorId(id);
+            return versionado(ResponseEntity.ok(), etagPedido(id, pedido.versao()), enriquecimentoParcial(pedido)).body(pedido);
+        }
+        RespostasPedidoCache.RespostaSerializada resposta = respostasPedidoCache.obter(id, () -> pedidoService.buscarPorId(id));
+        // byte[] é copiado direto para o corpo (ByteArrayHttpMessageConverter), sem passar pelo Jackson
+        return versionado(ResponseEntity.ok(), etagPedido(id, resposta.versao()), resposta.parcial())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(resposta.json());
+    }
+
+    /**
+     * Busca um pedido pelo número (índice único), para integrações que conhecem apenas o número.
+     * Resolve o id pelo número (cache de consultas) e segue como {@code GET /{id}}: mesmo ETag, 304 consultando
+     * apenas a versão e corpo a partir do {@link RespostasPedidoCache}.
+     *
+     * @param numeroPedido número do pedido
+     * @param ifNoneMatch  ETag da última resposta recebida pelo cliente
+     * @param accept       cabeçalho Accept da requisição
+     * @return pedido encontrado, 304 se inalterado ou 404 se não existir
+     */
+    @GetMapping("/numero/{numeroPedido}")
+    @Operation(summary = "Buscar pedido por número", description = "Retorna o pedido com o número informado")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Pedido encontrado", content = {
+                    @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = PedidoResponse.class)),
+                    @Content(mediaType = CONTEUDO_SMILE, schema = @Schema(implementation = PedidoResponse.class)),
+                    @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = PedidoResponse.class))}),
+            @ApiResponse(responseCode = "304", description = "Pedido inalterado desde o ETag informado", content = @Content),
             @ApiResponse(responseCode = "404", description = "Pedido não encontrado", content = @Content)
     })
-    public PedidoResponse buscarPorId(@PathVariable Long id) {
-        return pedidoService.buscarPorId(id);
+    public ResponseEntity<?> buscarPorNumero(@PathVariable String numeroPedido,
+                                             @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        return buscarPorId(pedidoService.buscarIdPorNumero(numeroPedido), ifNoneMatch, accept);
     }
 
     /**
      * Cria um novo pedido.
+     * Com {@code Idempotency-Key}, repetições da mesma requisição (ex.: retry após timeout) devolvem a resposta da
+     * primeira execução, com {@value #CABECALHO_IDEMPOTENCIA_REPETIDA}, sem criar outro pedido.
      *
-     * @param request dados do pedido a ser criado
+     * @param request           dados do pedido a ser criado
+     * @param chaveIdempotencia chave escolhida pelo cliente, única por pedido a criar (opcional, até 100 caracteres)
      * @return pedido criado com cabeçalho Location apontando para o novo recurso
      */
     @PostMapping
     @Operation(summary = "Criar pedido", description = "Cria um novo pedido")
     @ApiResponses({
-            @ApiResponse(responseCode = "201", description = "Pedido criado com sucesso"),
-            @ApiResponse(responseCode = "400", description = "Dados inválidos", content = @Content)
+            @ApiResponse(responseCode = "201", description = "Pedido criado com sucesso (ou resposta repetida da mesma Idempotency-Key)"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos", content = @Content),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key já utilizada com outro conteúdo", content = @Content)
     })
-    public ResponseEntity<PedidoResponse> criar(@Valid @RequestBody PedidoRequest request) {
-        PedidoResponse criado = pedidoService.criar(request);
+    public ResponseEntity<PedidoResponse> criar(@Valid @RequestBody PedidoRequest request,
+                                                @RequestHeader(name = CABECALHO_IDEMPOTENCIA, required = false) String chaveIdempotencia) {
+        IdempotenciaPedidoService.Criacao criacao = idempotenciaPedidoService.criar(chaveIdempotencia, request);
+        PedidoResponse criado = criacao.pedido();
         URI location = ServletUriComponentsBuilder
                 .fromCurrentRequest()
                 .path("/{id}")
                 .buildAndExpand(criado.id())
                 .toUri();
-        return ResponseEntity.created(location).body(criado);
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.created(location);
+        if (criacao.repetida()) {
+            resposta.header(CABECALHO_IDEMPOTENCIA_REPETIDA, "true");
+        }
+        return versionado(resposta, etagPedido(criado.id(), criacao.versao()), enriquecimentoParcial(criado)).body(criado);
+    }
+
+    /**
+     * Cria e/ou atualiza pedidos em lote (importação). Itens sem {@code id} são criados e itens com
+     * {@code id} atualizados; cada item é validado individualmente e o resultado é devolvido por item.
+     *
+     * @param itens itens do lote (1 a {@value #TAMANHO_LOTE_MAXIMO})
+     * @return totais e resultado de cada item, na ordem recebida
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "Criar/atualizar pedidos em lote", description = "Processa uma lista de pedidos em chunks transacionais com inserts em lote")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lote processado; ver resultado por item"),
+            @ApiResponse(responseCode = "400", description = "Lote vazio ou acima do limite", content = @Content)
+    })
+    public PedidoLoteResponse processarLote(@RequestBody @NotEmpty @Size(max = TAMANHO_LOTE_MAXIMO) List<PedidoLoteItemRequest> itens) {
+        return pedidoService.processarLote(itens);
     }
 
     /**
      * Atualiza um pedido existente.
+     * Com {@code If-Match} (ETag obtido no GET) a atualização só é aplicada se o pedido não mudou desde a leitura.
      *
      * @param id      identificador do pedido a ser atualizado
      * @param request dados do pedido
-     * @return pedido atualizado
+     * @param ifMatch ETag esperado (opcional)
+     * @return pedido atualizado com o novo ETag
      */
     @PutMapping("/{id}")
     @Operation(summary = "Atualizar pedido", description = "Atualiza os dados de um pedido existente")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Pedido atualizado com sucesso"),
             @ApiResponse(responseCode = "400", description = "Dados inválidos", content = @Content),
-            @ApiResponse(responseCode = "404", description = "Pedido não encontrado", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Pedido não encontrado", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Pedido alterado desde o ETag informado em If-Match", content = @Content)
     })
-    public PedidoResponse atualizar(@PathVariable Long id, @Valid @RequestBody PedidoRequest request) {
-        return pedidoService.atualizar(id, request);
+    public ResponseEntity<PedidoResponse> atualizar(@PathVariable Long id, @Valid @RequestBody PedidoRequest request,
+                                                    @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        PedidoResponse atualizado = pedidoService.atualizar(id, request, versaoEsperada(id, ifMatch));
+        return versionado(ResponseEntity.ok(), etagPedido(atualizado.id(), atualizado.versao()), enriquecimentoParcial(atualizado))
+                .body(atualizado);
     }
 
     /**
@@ -115,4 +310,107 @@ public class PedidoController {
         pedidoService.excluir(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static String etagPedido(Long id, Long versao) {
+        return "\"" + id + "-" + versao + "\"";
+    }
+
+    private static String etagListagem(MarcaVersaoPedidos marca, int tamanho) {
+        return "\"l-" + tamanho + "-" + marca.quantidade() + "-" + marca.maiorId() + "-" + marca.somaVersoes() + "\"";
+    }
+
+    /**
+     * ETag e {@code Cache-Control: no-cache} para respostas completas. Com enriquecimento parcial a representação
+     * não é estável: sai sem ETag (um 304 posterior manteria o participante ausente), com {@code no-store}
+     * e o cabeçalho {@value #CABECALHO_ENRIQUECIMENTO_PARCIAL}.
+     */
+    private static ResponseEntity.BodyBuilder versionado(ResponseEntity.BodyBuilder resposta, String etag, boolean parcial) {
+        if (parcial) {
+            return resposta.header(CABECALHO_ENRIQUECIMENTO_PARCIAL, "true").cacheControl(CacheControl.noStore());
+        }
+        return resposta.eTag(etag).cacheControl(CacheControl.noCache());
+    }
+
+    private static boolean enriquecimentoParcial(PedidoResponse pedido) {
+        return Boolean.TRUE.equals(pedido.participantePendente());
+    }
+
+    private static <T> ResponseEntity<T> naoModificado(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+
+    /**
+     * Comparação fraca (RFC 9110) de um cabeçalho com lista de ETags, usada em If-None-Match.
+     */
+    private static boolean correspondeAlgumEtag(String cabecalho, String etag) {
+        if (cabecalho == null || cabecalho.isBlank()) return false;
+        return Arrays.stream(cabecalho.split(","))
+                .map(String::trim)
+                .map(valor -> valor.startsWith("W/") ? valor.substring(2) : valor)
+                .anyMatch(valor -> valor.equals("*") || valor.equals(etag));
+    }
+
+    /**
+     * Extrai a versão esperada de If-Match. Nulo quando ausente ou {@code *} (basta o pedido existir);
+     * ETag fraco, malformado ou de outro pedido nunca corresponde (versão -1 resulta em 412). Com várias versões
+     * listadas vale a atual, se estiver entre elas; o serviço confere de novo ao gravar.
+     */
+    private Long versaoEsperada(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String prefixo = "\"" + id + "-";
+        List<Long> versoes = Arrays.stream(ifMatch.split(","))
+                .map(String::trim)
+                .filter(valor -> valor.startsWith(prefixo) && valor.endsWith("\"") && valor.length() > prefixo.length() + 1)
+                .map(valor -> valor.substring(prefixo.length(), valor.length() - 1))
+                .filter(versao -> versao.chars().allMatch(Character::isDigit))
+                .map(Long::valueOf)
+                .distinct()
+                .toList();
+        if (versoes.size() <= 1) return versoes.isEmpty() ? -1L : versoes.get(0);
+        return pedidoService.buscarVersao(id).filter(versoes::contains).orElse(-1L);
+    }
+
+    private boolean preferArrayJson(String accept) {
+        if (accept == null || accept.isBlank()) return false;
+        return MediaType.parseMediaTypes(accept).stream()
+                .filter(tipo -> tipo.includes(MediaType.APPLICATION_NDJSON) || tipo.includes(MediaType.APPLICATION_JSON))
+                .findFirst()
+                .map(tipo -> !tipo.includes(MediaType.APPLICATION_NDJSON))
+                .orElse(false);
+    }
+
+    /**
+     * Verdadeiro quando o primeiro tipo do Accept compatível com a API é Smile ou CBOR ({@code *}{@code /*} conta
+     * como JSON).
+     */
+    private static boolean preferBinario(String accept) {
+        if (accept == null || accept.isBlank()) return false;
+        return MediaType.parseMediaTypes(accept).stream()
+                .filter(tipo -> tipo.includes(MediaType.APPLICATION_JSON) || FORMATOS_BINARIOS.stream().anyMatch(tipo::includes))
+                .findFirst()
+                .map(tipo -> !tipo.includes(MediaType.APPLICATION_JSON))
+                .orElse(false);
+    }
+
+    private void escreverExportacao(OutputStream saida, boolean arrayJson) throws IOException {
+        // Flush apenas ao final de cada janela, não a cada pedido
+        ObjectWriter writer = objectMapper.writerFor(PedidoResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator gerador = objectMapper.createGenerator(saida)) {
+            gerador.setRootValueSeparator(null);
+            if (arrayJson) gerador.writeStartArray();
+            pedidoService.exportar(janela -> {
+                try {
+                    for (PedidoResponse pedido : janela) {
+                        writer.writeValue(gerador, pedido);
+                        if (!arrayJson) gerador.writeRaw('\n');
+                    }
+                    gerador.flush();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            if (arrayJson) gerador.writeEndArray();
+        }
+    }
 }
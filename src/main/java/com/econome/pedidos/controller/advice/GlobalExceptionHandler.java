@@ -1,13 +1,20 @@
 package com.econome.pedidos.controller.advice;
 
+import com.econome.domain.Pedido;
+import com.econome.pedidos.exception.IdempotenciaConflitanteException;
+import com.econome.pedidos.exception.IdempotenciaEmAndamentoException;
+import com.econome.pedidos.exception.IdempotencyKeyInvalidaException;
 import com.econome.pedidos.exception.PedidoNaoEncontradoException;
+import com.econome.pedidos.exception.PedidoVersaoConflitanteException;
 import com.econome.pedidos.exception.ProblemDetails;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -18,6 +25,7 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Handler global de exceções da API.
@@ -35,10 +43,58 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return buildProblem(HttpStatus.NOT_FOUND, "Recurso não encontrado", ex.getMessage(), req.getRequestURI(), List.of());
     }
 
+    /**
+     * If-Match não corresponde à versão atual do pedido (412).
+     */
+    @ExceptionHandler(PedidoVersaoConflitanteException.class)
+    public ResponseEntity<ProblemDetails> handleVersaoConflitante(PedidoVersaoConflitanteException ex, HttpServletRequest req) {
+        return buildProblem(HttpStatus.PRECONDITION_FAILED, "Pré-condição falhou", ex.getMessage(), req.getRequestURI(), List.of());
+    }
+
+    /**
+     * Idempotency-Key reutilizada com outro corpo de requisição (422).
+     */
+    @ExceptionHandler(IdempotenciaConflitanteException.class)
+    public ResponseEntity<ProblemDetails> handleIdempotenciaConflitante(IdempotenciaConflitanteException ex, HttpServletRequest req) {
+        return buildProblem(HttpStatus.UNPROCESSABLE_ENTITY, "Requisição inválida", ex.getMessage(), req.getRequestURI(), List.of());
+    }
+
+    /**
+     * Idempotency-Key com a primeira requisição ainda em andamento (409); o cliente pode repetir.
+     */
+    @ExceptionHandler(IdempotenciaEmAndamentoException.class)
+    public ResponseEntity<ProblemDetails> handleIdempotenciaEmAndamento(IdempotenciaEmAndamentoException ex, HttpServletRequest req) {
+        return buildProblem(HttpStatus.CONFLICT, "Conflito", ex.getMessage(), req.getRequestURI(), List.of());
+    }
+
+    /**
+     * Atualização concorrente detectada pelo controle de versão no commit (409).
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetails> handleConcorrencia(ObjectOptimisticLockingFailureException ex, HttpServletRequest req) {
+        return buildProblem(HttpStatus.CONFLICT, "Conflito", "Pedido alterado por outra requisição. Recarregue e tente novamente.",
+                req.getRequestURI(), List.of());
+    }
+
+    /**
+     * Violação de restrição do banco (409); o índice único de numeroPedido é reportado no campo.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ProblemDetails> handleIntegridade(DataIntegrityViolationException ex, HttpServletRequest req) {
+        String causa = String.valueOf(ex.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (causa.contains(Pedido.INDICE_NUMERO_PEDIDO)) {
+            return buildProblem(HttpStatus.CONFLICT, "Conflito", "Já existe um pedido com o mesmo numeroPedido", req.getRequestURI(),
+                    List.of(new ProblemDetails.FieldErrorDetails("numeroPedido", "já utilizado por outro pedido")));
+        }
+        return buildProblem(HttpStatus.CONFLICT, "Conflito", "Operação viola uma restrição de integridade dos dados",
+                req.getRequestURI(), List.of());
+    }
+
     /**
      * Erros de validação de parâmetros e tipos incorretos (400).
      */
-    @ExceptionHandler({ConstraintViolationException.class, MethodArgumentTypeMismatchException.class})
+    @ExceptionHandler({ConstraintViolationException.class, MethodArgumentTypeMismatchException.class,
+            IdempotencyKeyInvalidaException.class})
     public ResponseEntity<ProblemDetails> handleValidation(Exception ex, HttpServletRequest req) {
         return buildProblem(HttpStatus.BAD_REQUEST, "Requisição inválida", ex.getMessage(), req.getRequestURI(), List.of());
     }
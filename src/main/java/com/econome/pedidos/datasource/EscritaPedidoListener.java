@@ -0,0 +1,28 @@
+package com.econome.pedidos.datasource;
+
+import com.econome.domain.Pedido;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Entity listener de {@link Pedido} (instanciado pelo Spring, via bean container do Hibernate): toda inclusão,
+ * alteração ou exclusão marca o pedido como escrito recentemente em {@link EscritasRecentesPedidos}, que só
+ * existe com as réplicas de leitura habilitadas.
+ */
+public class EscritaPedidoListener {
+
+    private final ObjectProvider<EscritasRecentesPedidos> escritasRecentes;
+
+    public EscritaPedidoListener(ObjectProvider<EscritasRecentesPedidos> escritasRecentes) {
+        this.escritasRecentes = escritasRecentes;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void registrar(Pedido pedido) {
+        escritasRecentes.ifAvailable(escritas -> escritas.registrar(pedido.getId()));
+    }
+}
@@ -0,0 +1,105 @@
+package com.econome.pedidos.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Escritas locais recentes em pedidos, registradas quando a entidade é gravada e de novo ao fim da transação
+ * (quando o Hibernate e o {@link com.econome.pedidos.service.RespostasPedidoCache} invalidam os caches).
+ * Valem por {@code janela}: o maior atraso possível de uma réplica em uso.
+ * <ul>
+ *     <li>Por pedido: a leitura de um pedido escrito na janela vai ao primário
+ *     ({@link #lerDoPrimarioSeEscrito(Long)}); uma réplica atrasada devolveria a versão anterior a quem acabou
+ *     de gravá-lo e ela voltaria aos caches até a próxima escrita.</li>
+ *     <li>Geral: transações somente leitura abertas na janela seguem nas réplicas, mas não alimentam o cache de
+ *     segundo nível nem o de consultas ({@link LeituraReplicaJpaDialect}); listagens e agregados podem refletir
+ *     a escrita só após o atraso da réplica.</li>
+ * </ul>
+ */
+public class EscritasRecentesPedidos {
+
+    private final Duration janela;
+    private final Cache<Long, Boolean> pedidos;
+    private final Object leituraNoPrimario = new Object();
+    private volatile long ultimaEscritaNanos;
+    private volatile boolean registrada;
+
+    public EscritasRecentesPedidos(Duration janela) {
+        this.janela = janela;
+        this.pedidos = Caffeine.newBuilder().expireAfterWrite(janela).build();
+    }
+
+    /**
+     * Marca uma escrita no pedido agora e, havendo transação, também na sua conclusão.
+     */
+    public void registrar(Long pedidoId) {
+        marcar(pedidoId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        @SuppressWarnings("unchecked")
+        Set<Long> escritos = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (escritos == null) {
+            Set<Long> daTransacao = new HashSet<>();
+            escritos = daTransacao;
+            TransactionSynchronizationManager.bindResource(this, daTransacao);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EscritasRecentesPedidos.this);
+                    daTransacao.forEach(EscritasRecentesPedidos.this::marcar);
+                }
+            });
+        }
+        escritos.add(pedidoId);
+    }
+
+    /**
+     * Indica se houve escrita em algum pedido dentro da janela.
+     */
+    public boolean ocorreuNaJanela() {
+        return registrada && System.nanoTime() - ultimaEscritaNanos < janela.toNanos();
+    }
+
+    /**
+     * Indica se o pedido foi escrito dentro da janela.
+     */
+    public boolean escritoNaJanela(Long pedidoId) {
+        return pedidoId != null && pedidos.getIfPresent(pedidoId) != null;
+    }
+
+    /**
+     * Envia ao primário a transação somente leitura corrente se o pedido foi escrito dentro da janela.
+     * Deve ser chamado antes do primeiro comando da transação (a conexão é obtida no primeiro comando).
+     */
+    public void lerDoPrimarioSeEscrito(Long pedidoId) {
+        if (!escritoNaJanela(pedidoId) || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(leituraNoPrimario)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(leituraNoPrimario, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(leituraNoPrimario);
+            }
+        });
+    }
+
+    /**
+     * Indica se a transação corrente foi enviada ao primário por {@link #lerDoPrimarioSeEscrito(Long)}.
+     */
+    public boolean leituraNoPrimario() {
+        return TransactionSynchronizationManager.hasResource(leituraNoPrimario);
+    }
+
+    private void marcar(Long pedidoId) {
+        ultimaEscritaNanos = System.nanoTime();
+        registrada = true;
+        if (pedidoId != null) pedidos.put(pedidoId, Boolean.TRUE);
+    }
+}
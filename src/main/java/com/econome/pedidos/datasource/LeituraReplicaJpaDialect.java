@@ -0,0 +1,43 @@
+package com.econome.pedidos.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Dialeto JPA com as réplicas de leitura habilitadas: transações somente leitura abertas logo após uma escrita
+ * em pedidos ({@link EscritasRecentesPedidos#ocorreuNaJanela()}) leem os caches, mas não os alimentam
+ * ({@link CacheStoreMode#BYPASS}). Uma réplica atrasada pode devolver a versão anterior de um pedido
+ * recém-escrito, e ela ficaria no cache de segundo nível ou no de consultas até a próxima escrita.
+ * <p>
+ * O modo é definido como propriedade do EntityManager (o {@code find} ignora o {@code CacheMode} da sessão) no
+ * início de cada transação, porque com open-in-view a mesma sessão atende as várias transações da requisição.
+ * Métrica {@code pedidos.datasource.replica.sem-cache}.
+ */
+public class LeituraReplicaJpaDialect extends HibernateJpaDialect {
+
+    private final EscritasRecentesPedidos escritasRecentes;
+    private final Counter leiturasSemCache;
+
+    public LeituraReplicaJpaDialect(EscritasRecentesPedidos escritasRecentes, MeterRegistry meterRegistry) {
+        this.escritasRecentes = escritasRecentes;
+        this.leiturasSemCache = Counter.builder("pedidos.datasource.replica.sem-cache")
+                .description("Transações somente leitura que não alimentam os caches por ocorrerem logo após uma escrita em pedidos")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition) throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        boolean semCache = definition.isReadOnly() && escritasRecentes.ocorreuNaJanela();
+        entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, semCache ? CacheStoreMode.BYPASS : CacheStoreMode.USE);
+        if (semCache) leiturasSemCache.increment();
+        return transactionData;
+    }
+}
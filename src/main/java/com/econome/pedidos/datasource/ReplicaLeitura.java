@@ -0,0 +1,46 @@
+package com.econome.pedidos.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.time.Duration;
+
+/**
+ * Pool de uma réplica e seu estado na última verificação.
+ */
+final class ReplicaLeitura {
+
+    private final String nome;
+    private final HikariDataSource dataSource;
+    private volatile boolean disponivel = true;
+    private volatile Duration atraso = Duration.ZERO;
+
+    ReplicaLeitura(String nome, HikariDataSource dataSource) {
+        this.nome = nome;
+        this.dataSource = dataSource;
+    }
+
+    String nome() {
+        return nome;
+    }
+
+    HikariDataSource dataSource() {
+        return dataSource;
+    }
+
+    boolean disponivel() {
+        return disponivel;
+    }
+
+    Duration atraso() {
+        return atraso;
+    }
+
+    int conexoesAtivas() {
+        return dataSource.getHikariPoolMXBean() == null ? 0 : dataSource.getHikariPoolMXBean().getActiveConnections();
+    }
+
+    void atualizar(boolean disponivel, Duration atraso) {
+        this.disponivel = disponivel;
+        this.atraso = atraso;
+    }
+}
@@ -0,0 +1,106 @@
+package com.econome.pedidos.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Roteamento de leituras para réplicas ({@code app.datasource.read-replicas.enabled=true}).
+ * <p>
+ * O DataSource principal passa a ser um {@link LazyConnectionDataSourceProxy}: a conexão física só é obtida
+ * no primeiro comando, depois que o gerenciador de transações marcou a conexão como somente leitura. Transações
+ * {@code @Transactional(readOnly = true)} usam o {@link ReplicasLeituraDataSource}; as demais (e leituras que
+ * participam de uma transação de escrita) usam o primário. O primário continua configurado por
+ * {@code spring.datasource.*}.
+ * <p>
+ * Após uma escrita em pedidos ({@link EscritasRecentesPedidos}, janela de {@code max-lag + health-check-interval}),
+ * as leituras do pedido escrito vão ao primário e as demais transações somente leitura seguem nas réplicas sem
+ * alimentar os caches do Hibernate ({@link LeituraReplicaJpaDialect}).
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.read-replicas", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicasLeituraProperties.class)
+public class ReplicasLeituraConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primarioDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    EscritasRecentesPedidos escritasRecentesPedidos(ReplicasLeituraProperties properties) {
+        // Maior atraso possível de uma réplica em uso
+        return new EscritasRecentesPedidos(properties.maxLag().plus(properties.healthCheckInterval()));
+    }
+
+    /**
+     * Instala o {@link LeituraReplicaJpaDialect} no EntityManagerFactory (e, por ele, no gerenciador de transações).
+     */
+    @Bean
+    static BeanPostProcessor leituraReplicaJpaDialectPostProcessor(ObjectProvider<EscritasRecentesPedidos> escritasRecentesPedidos,
+                                                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LocalContainerEntityManagerFactoryBean entityManagerFactory) {
+                    entityManagerFactory.setJpaDialect(new LeituraReplicaJpaDialect(escritasRecentesPedidos.getObject(),
+                            meterRegistry.getObject()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    ReplicasLeituraDataSource replicasLeituraDataSource(ReplicasLeituraProperties properties, DataSourceProperties dataSourceProperties,
+                                                        HikariDataSource primarioDataSource,
+                                                        EscritasRecentesPedidos escritasRecentesPedidos, MeterRegistry meterRegistry) {
+        List<ReplicaLeitura> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.nodes().size(); i++) {
+            ReplicasLeituraProperties.Replica no = properties.nodes().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (i + 1));
+            pool.setJdbcUrl(no.url());
+            pool.setUsername(no.username() != null ? no.username() : dataSourceProperties.determineUsername());
+            pool.setPassword(no.password() != null ? no.password() : dataSourceProperties.determinePassword());
+            pool.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            pool.setDataSourceProperties(primarioDataSource.getDataSourceProperties());
+            pool.setMaximumPoolSize(properties.maxPoolSize());
+            pool.setConnectionTimeout(properties.connectionTimeout().toMillis());
+            pool.setReadOnly(true);
+            // Réplica fora do ar não impede a inicialização; fica indisponível até a próxima verificação
+            pool.setInitializationFailTimeout(-1);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new ReplicaLeitura(pool.getPoolName(), pool));
+        }
+        log.info("[ReplicasLeituraConfiguration] Leituras roteadas para {} réplica(s) (selection={}, maxLag={}, checkLag={})",
+                replicas.size(), properties.selection(), properties.maxLag(), properties.checkLag());
+        return new ReplicasLeituraDataSource(primarioDataSource, replicas, properties, escritasRecentesPedidos, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource primarioDataSource, ReplicasLeituraDataSource replicasLeituraDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primarioDataSource);
+        proxy.setReadOnlyDataSource(replicasLeituraDataSource);
+        return proxy;
+    }
+}
@@ -0,0 +1,179 @@
+package com.econome.pedidos.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource das transações somente leitura: escolhe uma réplica disponível (round-robin ou menos conexões
+ * ativas) e recorre ao primário quando nenhuma atende. Uma réplica fica indisponível quando a conexão falha ou
+ * o atraso de replicação passa de {@code max-lag}, e volta na próxima verificação bem-sucedida.
+ * <p>
+ * Transações marcadas por {@link EscritasRecentesPedidos#lerDoPrimarioSeEscrito(Long)} (leitura de um pedido
+ * escrito nesta instância há menos de {@code max-lag + health-check-interval}) vão ao primário; as demais
+ * seguem nas réplicas mesmo durante escritas.
+ * <p>
+ * Métricas: {@code pedidos.datasource.replica.disponivel} e {@code pedidos.datasource.replica.atraso}
+ * (tag {@code replica}), {@code pedidos.datasource.replica.fallback} (leituras enviadas ao primário por falta
+ * de réplica) e {@code pedidos.datasource.replica.apos-escrita} (leituras de pedidos recém-escritos enviadas ao primário).
+ */
+@Slf4j
+public class ReplicasLeituraDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final HikariDataSource primario;
+    private final List<ReplicaLeitura> replicas;
+    private final ReplicasLeituraProperties properties;
+    private final AtomicInteger proxima = new AtomicInteger();
+    private final EscritasRecentesPedidos escritasRecentes;
+    private final Counter fallbacks;
+    private final Counter leiturasAposEscrita;
+
+    public ReplicasLeituraDataSource(HikariDataSource primario, List<ReplicaLeitura> replicas,
+                                     ReplicasLeituraProperties properties, EscritasRecentesPedidos escritasRecentes,
+                                     MeterRegistry meterRegistry) {
+        this.primario = primario;
+        this.replicas = List.copyOf(replicas);
+        this.properties = properties;
+        this.escritasRecentes = escritasRecentes;
+        this.leiturasAposEscrita = Counter.builder("pedidos.datasource.replica.apos-escrita")
+                .description("Leituras de pedidos escritos há pouco enviadas ao primário")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("pedidos.datasource.replica.fallback")
+                .description("Leituras enviadas ao primário por falta de réplica disponível")
+                .register(meterRegistry);
+        for (ReplicaLeitura replica : this.replicas) {
+            Gauge.builder("pedidos.datasource.replica.disponivel", replica, r -> r.disponivel() ? 1 : 0)
+                    .tag("replica", replica.nome())
+                    .register(meterRegistry);
+            Gauge.builder("pedidos.datasource.replica.atraso", replica, r -> r.atraso().toMillis() / 1000.0)
+                    .tag("replica", replica.nome())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conectar(HikariDataSource::getConnection);
+    }
+
+    /**
+     * Mesmo roteamento de {@link #getConnection()}, com uma conexão fora do pool aberta com as credenciais
+     * informadas (o Hikari não aceita credenciais por chamada).
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conectar(pool -> conectarComCredenciais(pool, username, password));
+    }
+
+    private Connection conectar(Conexao conexao) throws SQLException {
+        if (escritasRecentes.leituraNoPrimario()) {
+            leiturasAposEscrita.increment();
+            return conexao.abrir(primario);
+        }
+        for (ReplicaLeitura replica : candidatas()) {
+            try {
+                return conexao.abrir(replica.dataSource());
+            } catch (SQLException ex) {
+                replica.atualizar(false, replica.atraso());
+                log.warn("[ReplicasLeituraDataSource] Réplica {} indisponível: {}", replica.nome(), ex.getMessage());
+            }
+        }
+        fallbacks.increment();
+        return conexao.abrir(primario);
+    }
+
+    private static Connection conectarComCredenciais(HikariDataSource pool, String username, String password) throws SQLException {
+        Properties propriedades = new Properties();
+        propriedades.putAll(pool.getDataSourceProperties());
+        if (username != null) propriedades.setProperty("user", username);
+        if (password != null) propriedades.setProperty("password", password);
+        Connection conexao = DriverManager.getConnection(pool.getJdbcUrl(), propriedades);
+        if (pool.isReadOnly()) conexao.setReadOnly(true);
+        return conexao;
+    }
+
+    private List<ReplicaLeitura> candidatas() {
+        List<ReplicaLeitura> disponiveis = new ArrayList<>(replicas.size());
+        for (ReplicaLeitura replica : replicas) {
+            if (replica.disponivel()) disponiveis.add(replica);
+        }
+        if (disponiveis.size() <= 1) return disponiveis;
+        return switch (properties.selection()) {
+            case LEAST_CONNECTIONS -> {
+                disponiveis.sort(Comparator.comparingInt(ReplicaLeitura::conexoesAtivas));
+                yield disponiveis;
+            }
+            case ROUND_ROBIN -> {
+                // Começa pela próxima da vez; as demais ficam como alternativa se a conexão falhar
+                int inicio = Math.floorMod(proxima.getAndIncrement(), disponiveis.size());
+                List<ReplicaLeitura> ordem = new ArrayList<>(disponiveis.subList(inicio, disponiveis.size()));
+                ordem.addAll(disponiveis.subList(0, inicio));
+                yield ordem;
+            }
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.read-replicas.health-check-interval:5s}")
+    public void verificar() {
+        for (ReplicaLeitura replica : replicas) {
+            boolean estavaDisponivel = replica.disponivel();
+            try (Connection conexao = replica.dataSource().getConnection()) {
+                Duration atraso = properties.checkLag() ? medirAtraso(conexao) : Duration.ZERO;
+                boolean disponivel = atraso != null && atraso.compareTo(properties.maxLag()) <= 0;
+                replica.atualizar(disponivel, atraso == null ? replica.atraso() : atraso);
+                if (!disponivel && estavaDisponivel) {
+                    log.warn("[ReplicasLeituraDataSource] Réplica {} removida do roteamento: atraso {} (máximo {})",
+                            replica.nome(), atraso == null ? "desconhecido (replicação parada)" : atraso, properties.maxLag());
+                }
+            } catch (SQLException ex) {
+                replica.atualizar(false, replica.atraso());
+                if (estavaDisponivel) {
+                    log.warn("[ReplicasLeituraDataSource] Réplica {} indisponível: {}", replica.nome(), ex.getMessage());
+                }
+            }
+            if (replica.disponivel() && !estavaDisponivel) {
+                log.info("[ReplicasLeituraDataSource] Réplica {} de volta ao roteamento", replica.nome());
+            }
+        }
+    }
+
+    /**
+     * Atraso informado pelo MySQL ({@code Seconds_Behind_Source}); nulo quando a replicação está parada.
+     * Um servidor sem replicação configurada (ex.: banco local de testes) é tratado como sem atraso.
+     */
+    private static Duration medirAtraso(Connection conexao) throws SQLException {
+        try (Statement statement = conexao.createStatement();
+             ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!status.next()) return Duration.ZERO;
+            long segundos = status.getLong("Seconds_Behind_Source");
+            return status.wasNull() ? null : Duration.ofSeconds(segundos);
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource().close());
+    }
+
+    @FunctionalInterface
+    private interface Conexao {
+        Connection abrir(HikariDataSource pool) throws SQLException;
+    }
+}
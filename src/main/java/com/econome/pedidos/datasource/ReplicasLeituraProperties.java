@@ -0,0 +1,41 @@
+package com.econome.pedidos.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Réplicas de leitura usadas pelas transações {@code readOnly}.
+ * Prefixo: app.datasource.read-replicas
+ *
+ * @param enabled             habilita o roteamento (sem réplicas tudo vai ao primário)
+ * @param selection           estratégia de escolha entre réplicas disponíveis
+ * @param maxLag              atraso de replicação acima do qual a réplica deixa de receber leituras
+ * @param checkLag            consulta o atraso ({@code SHOW REPLICA STATUS}); com false verifica apenas a conexão
+ * @param healthCheckInterval intervalo entre verificações (lido também pelo {@code @Scheduled})
+ * @param maxPoolSize         conexões por réplica
+ * @param connectionTimeout   espera por conexão de uma réplica antes de tentar a próxima (ou o primário)
+ * @param nodes               réplicas; usuário e senha ausentes herdam os de {@code spring.datasource}
+ */
+@ConfigurationProperties(prefix = "app.datasource.read-replicas")
+public record ReplicasLeituraProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("ROUND_ROBIN") EstrategiaSelecaoReplica selection,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("true") boolean checkLag,
+        @DefaultValue("5s") Duration healthCheckInterval,
+        @DefaultValue("10") int maxPoolSize,
+        @DefaultValue("1s") Duration connectionTimeout,
+        @DefaultValue List<Replica> nodes
+) {
+
+    public record Replica(String url, String username, String password) {
+    }
+
+    public enum EstrategiaSelecaoReplica {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+}
@@ -0,0 +1,23 @@
+package com.econome.pedidos.dto;
+
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.YearMonth;
+
+/**
+ * Filtros opcionais da consulta de agregados (query string). Campos nulos não restringem o resultado.
+ */
+@Schema(name = "PedidoAgregadoFiltro", description = "Filtros opcionais da consulta de agregados de pedidos")
+public record PedidoAgregadoFiltro(
+        @Schema(description = "Identificador do participante", example = "10") Long participanteId,
+        @Schema(description = "Tipo do pedido") TipoPedido tipoPedido,
+        @Schema(description = "Situação do pedido") SituacaoPedido situacaoPedido,
+        @Schema(description = "Mês de emissão inicial (inclusive)", example = "2025-01")
+        @DateTimeFormat(pattern = "yyyy-MM") YearMonth mesInicio,
+        @Schema(description = "Mês de emissão final (inclusive)", example = "2025-12")
+        @DateTimeFormat(pattern = "yyyy-MM") YearMonth mesFim
+) {
+}
@@ -0,0 +1,25 @@
+package com.econome.pedidos.dto;
+
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Totais de um grupo de pedidos (participante, tipo, situação e mês de emissão).
+ * Campos nulos agrupam pedidos sem o valor informado.
+ */
+@Schema(name = "PedidoAgregadoResponse", description = "Totais de pedidos por participante, tipo, situação e mês de emissão")
+public record PedidoAgregadoResponse(
+        @Schema(description = "Identificador do participante", example = "10") Long participanteId,
+        @Schema(description = "Tipo do pedido") TipoPedido tipoPedido,
+        @Schema(description = "Situação do pedido") SituacaoPedido situacaoPedido,
+        @Schema(description = "Mês de emissão", example = "2025-09", type = "string")
+        @JsonFormat(pattern = "yyyy-MM") YearMonth mes,
+        @Schema(description = "Quantidade de pedidos", example = "42") long quantidade,
+        @Schema(description = "Soma de valorTotal", example = "12500.00") BigDecimal valorTotal
+) {
+}
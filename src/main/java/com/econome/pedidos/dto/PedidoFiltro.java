@@ -0,0 +1,23 @@
+package com.econome.pedidos.dto;
+
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Filtros opcionais da listagem de pedidos (query string). Campos nulos não restringem o resultado.
+ */
+@Schema(name = "PedidoFiltro", description = "Filtros opcionais da listagem de pedidos")
+public record PedidoFiltro(
+        @Schema(description = "Tipo do pedido") TipoPedido tipoPedido,
+        @Schema(description = "Situação do pedido") SituacaoPedido situacaoPedido,
+        @Schema(description = "Identificador do participante", example = "10") Long participanteId,
+        @Schema(description = "Emissão a partir de (inclusive, ISO-8601)", example = "2025-09-01T00:00:00-03:00")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime dataEmissaoInicio,
+        @Schema(description = "Emissão até (exclusive, ISO-8601)", example = "2025-10-01T00:00:00-03:00")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime dataEmissaoFim
+) {
+}
@@ -0,0 +1,14 @@
+package com.econome.pedidos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Item do cadastro em lote: sem {@code id} cria um pedido, com {@code id} atualiza o existente.
+ * A validação de {@code pedido} é feita por item, para que itens inválidos não rejeitem o lote inteiro.
+ */
+@Schema(name = "PedidoLoteItemRequest", description = "Item do cadastro em lote de pedidos")
+public record PedidoLoteItemRequest(
+        @Schema(description = "Id do pedido a atualizar (omitido para criação)", example = "10") Long id,
+        @Schema(description = "Dados do pedido") PedidoRequest pedido
+) {
+}
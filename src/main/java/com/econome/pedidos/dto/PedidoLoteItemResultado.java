@@ -0,0 +1,28 @@
+package com.econome.pedidos.dto;
+
+import com.econome.pedidos.enums.StatusItemLote;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Resultado de um item do cadastro em lote, na mesma posição do item enviado.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@Schema(name = "PedidoLoteItemResultado", description = "Resultado de um item do lote")
+public record PedidoLoteItemResultado(
+        @Schema(description = "Posição do item na requisição (a partir de 0)", example = "0") int indice,
+        @Schema(description = "Resultado do item") StatusItemLote status,
+        @Schema(description = "Id do pedido criado/atualizado", example = "10") Long id,
+        @Schema(description = "Mensagens de validação ou erro") List<String> erros
+) {
+
+    public static PedidoLoteItemResultado sucesso(int indice, StatusItemLote status, Long id) {
+        return new PedidoLoteItemResultado(indice, status, id, List.of());
+    }
+
+    public static PedidoLoteItemResultado falha(int indice, StatusItemLote status, Long id, List<String> erros) {
+        return new PedidoLoteItemResultado(indice, status, id, erros);
+    }
+}
@@ -0,0 +1,17 @@
+package com.econome.pedidos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Resposta do cadastro em lote: totais e resultado individual de cada item.
+ */
+@Schema(name = "PedidoLoteResponse", description = "Resultado do cadastro em lote de pedidos")
+public record PedidoLoteResponse(
+        @Schema(description = "Itens recebidos", example = "1000") int total,
+        @Schema(description = "Itens criados ou atualizados", example = "998") int processados,
+        @Schema(description = "Itens rejeitados ou com erro", example = "2") int falhas,
+        @Schema(description = "Resultado por item, na ordem da requisição") List<PedidoLoteItemResultado> itens
+) {
+}
@@ -29,15 +29,17 @@ public interface PedidoMapper {
 
     /**
      * Converte a entidade para o DTO de resposta público da API.
-     * Campo participanteResumo é enriquecido posteriormente (ignorado aqui).
+     * Campos participanteResumo e participantePendente são preenchidos no enriquecimento (ignorados aqui).
      */
     @Mapping(target = "participanteResumo", ignore = true)
+    @Mapping(target = "participantePendente", ignore = true)
     PedidoResponse toResponse(Pedido entity);
 
     /**
      * Converte uma lista de entidades para a lista correspondente de DTOs de resposta.
      */
     @Mapping(target = "participanteResumo", ignore = true)
+    @Mapping(target = "participantePendente", ignore = true)
     List<PedidoResponse> toResponseList(List<Pedido> entities);
 
     // Nota: participanteId é mapeado automaticamente por possuir o mesmo nome em DTO e entidade.
@@ -0,0 +1,20 @@
+package com.econome.pedidos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Página de pedidos paginada por cursor (keyset em {@code id}).
+ * Para obter a próxima página, repetir a consulta informando {@code cursor=proximoCursor}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(name = "PedidoPaginaResponse", description = "Página de pedidos paginada por cursor")
+public record PedidoPaginaResponse(
+        @Schema(description = "Pedidos da página, ordenados por id") List<PedidoResponse> itens,
+        @Schema(description = "Cursor da próxima página (ausente na última página)", example = "150") Long proximoCursor,
+        @Schema(description = "Indica se existem mais pedidos após esta página") boolean possuiProxima,
+        @Schema(description = "Tamanho de página solicitado", example = "50") int tamanho
+) {
+}
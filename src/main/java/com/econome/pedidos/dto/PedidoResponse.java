@@ -3,6 +3,7 @@ package com.econome.pedidos.dto;
 import com.econome.pedidos.enums.SituacaoPedido;
 import com.econome.pedidos.enums.TipoPedido;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.econome.pedidos.integration.participante.dto.ParticipanteResumo;
@@ -27,6 +28,26 @@ public record PedidoResponse(
         @Schema(description = "Valor total do pedido", example = "150.00") BigDecimal valorTotal,
         @Schema(description = "Identificador de participante associado", example = "10") Long participanteId,
         @Schema(description = "Dados resumidos do participante quando embutido")
-        @JsonProperty("participante") ParticipanteResumo participanteResumo
+        @JsonProperty("participante") ParticipanteResumo participanteResumo,
+        @Schema(description = "Presente (true) quando o participante não foi resolvido dentro do orçamento de tempo da requisição")
+        Boolean participantePendente,
+        // Versão do pedido: transmitida no cabeçalho ETag, não no corpo
+        @JsonIgnore @Schema(hidden = true) Long versao
 ) {
+
+    /**
+     * Cópia da resposta com o participante embutido.
+     */
+    public PedidoResponse comParticipante(ParticipanteResumo participante) {
+        return new PedidoResponse(id, dataEmissaoPedido, numeroPedido, tipoPedido, situacaoPedido, valorTotal,
+                participanteId, participante, participantePendente, versao);
+    }
+
+    /**
+     * Cópia da resposta sinalizando que o participante ainda está sendo carregado.
+     */
+    public PedidoResponse comParticipantePendente() {
+        return new PedidoResponse(id, dataEmissaoPedido, numeroPedido, tipoPedido, situacaoPedido, valorTotal,
+                participanteId, participanteResumo, Boolean.TRUE, versao);
+    }
 }
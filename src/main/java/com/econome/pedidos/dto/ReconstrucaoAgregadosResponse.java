@@ -0,0 +1,13 @@
+package com.econome.pedidos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Resultado da reconstrução da tabela de agregados a partir dos pedidos.
+ */
+@Schema(name = "ReconstrucaoAgregadosResponse", description = "Resultado da reconstrução dos agregados de pedidos")
+public record ReconstrucaoAgregadosResponse(
+        @Schema(description = "Pedidos lidos", example = "150000") long pedidos,
+        @Schema(description = "Grupos gravados", example = "1200") int grupos
+) {
+}
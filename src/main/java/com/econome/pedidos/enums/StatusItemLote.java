@@ -0,0 +1,11 @@
+package com.econome.pedidos.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Resultado do processamento de um item no cadastro em lote de pedidos.
+ */
+@Schema(description = "Resultado de um item do lote")
+public enum StatusItemLote {
+    CRIADO, ATUALIZADO, INVALIDO, NAO_ENCONTRADO, ERRO
+}
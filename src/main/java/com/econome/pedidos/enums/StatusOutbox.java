@@ -0,0 +1,10 @@
+package com.econome.pedidos.enums;
+
+/**
+ * Ciclo de vida de um evento do outbox de integração.
+ * PENDENTE → PROCESSANDO → PROCESSADO, voltando a PENDENTE em caso de falha até esgotar as tentativas (FALHA).
+ * Atualizações absorvidas por um evento anterior do mesmo pedido vão de PENDENTE a COALESCIDO, sem entrega própria.
+ */
+public enum StatusOutbox {
+    PENDENTE, PROCESSANDO, PROCESSADO, FALHA, COALESCIDO
+}
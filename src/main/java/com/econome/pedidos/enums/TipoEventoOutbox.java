@@ -0,0 +1,8 @@
+package com.econome.pedidos.enums;
+
+/**
+ * Tipos de evento gravados no outbox de integração com Transações.
+ */
+public enum TipoEventoOutbox {
+    PEDIDO_CRIADO, PEDIDO_ATUALIZADO
+}
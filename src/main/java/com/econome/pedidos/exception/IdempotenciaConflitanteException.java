@@ -0,0 +1,10 @@
+package com.econome.pedidos.exception;
+
+/**
+ * Exceção lançada quando uma {@code Idempotency-Key} já utilizada é reenviada com outro corpo de requisição.
+ */
+public class IdempotenciaConflitanteException extends RuntimeException {
+    public IdempotenciaConflitanteException(String chave) {
+        super("Idempotency-Key já utilizada com outro conteúdo. Chave=" + chave);
+    }
+}
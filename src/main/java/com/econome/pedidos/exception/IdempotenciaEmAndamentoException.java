@@ -0,0 +1,11 @@
+package com.econome.pedidos.exception;
+
+/**
+ * Exceção lançada quando a criação com a mesma {@code Idempotency-Key} ainda está em andamento em outra requisição
+ * e a resposta dela não ficou disponível a tempo; o cliente pode repetir a requisição.
+ */
+public class IdempotenciaEmAndamentoException extends RuntimeException {
+    public IdempotenciaEmAndamentoException(String chave, Throwable causa) {
+        super("Requisição com a mesma Idempotency-Key em andamento. Tente novamente. Chave=" + chave, causa);
+    }
+}
@@ -0,0 +1,10 @@
+package com.econome.pedidos.exception;
+
+/**
+ * Exceção lançada quando o cabeçalho {@code Idempotency-Key} está vazio ou excede o tamanho máximo.
+ */
+public class IdempotencyKeyInvalidaException extends RuntimeException {
+    public IdempotencyKeyInvalidaException(int tamanhoMaximo) {
+        super("Idempotency-Key deve ter entre 1 e " + tamanhoMaximo + " caracteres");
+    }
+}
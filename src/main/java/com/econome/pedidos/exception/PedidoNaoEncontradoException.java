@@ -8,4 +8,8 @@ public class PedidoNaoEncontradoException extends RuntimeException {
     public PedidoNaoEncontradoException(Long id) {
         super("Pedido não encontrado. ID=" + id);
     }
+
+    public PedidoNaoEncontradoException(String numeroPedido) {
+        super("Pedido não encontrado. Número=" + numeroPedido);
+    }
 }
@@ -0,0 +1,11 @@
+package com.econome.pedidos.exception;
+
+/**
+ * Exceção lançada quando a versão informada em {@code If-Match} não corresponde à versão atual do Pedido
+ * (o pedido foi alterado desde que o cliente o leu).
+ */
+public class PedidoVersaoConflitanteException extends RuntimeException {
+    public PedidoVersaoConflitanteException(Long id, Long versaoAtual) {
+        super("Pedido alterado por outra requisição. ID=" + id + ", versão atual=" + versaoAtual);
+    }
+}
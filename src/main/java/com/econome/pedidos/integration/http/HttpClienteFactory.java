@@ -0,0 +1,135 @@
+package com.econome.pedidos.integration.http;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.observation.ClientRequestObservationContext;
+import org.springframework.http.client.observation.DefaultClientRequestObservationConvention;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Cria os {@link RestClient} dos serviços downstream a partir do {@link RestClient.Builder} do Spring Boot
+ * (conversores e observabilidade padrão), cada um com pool de conexões próprio, keep-alive e timeouts
+ * definidos em {@link HttpClienteProperties}.
+ * <p>
+ * Os clientes são criados uma vez na inicialização e fechados no desligamento. Métricas do pool:
+ * {@code httpcomponents.httpclient.pool.*} com tag {@code httpclient=<nome>}; latência e erros por
+ * serviço em {@code http.client.requests} com tag {@code client.name=<nome>}.
+ */
+@Slf4j
+@Component
+public class HttpClienteFactory {
+
+    private final RestClient.Builder restClientBuilder;
+    private final MeterRegistry meterRegistry;
+    private final List<AutoCloseable> recursos = new ArrayList<>();
+
+    public HttpClienteFactory(RestClient.Builder restClientBuilder, MeterRegistry meterRegistry) {
+        this.restClientBuilder = restClientBuilder;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param nome    identificação do serviço (métricas e logs)
+     * @param baseUrl URL base; barra final é removida
+     */
+    public synchronized RestClient criar(String nome, String baseUrl, HttpClienteProperties properties) {
+        RestClient.Builder builder = restClientBuilder.clone()
+                .requestFactory(properties.http2() ? jdk(properties) : pool(nome, properties))
+                .observationConvention(new ConvencaoObservacao(nome));
+        if (baseUrl != null && !baseUrl.isBlank()) {
+            builder.baseUrl(baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl);
+        }
+        log.info("[HttpClienteFactory] Cliente '{}' criado (baseUrl={}, http2={}, maxConnections={}, readTimeout={})",
+                nome, baseUrl, properties.http2(), properties.maxConnections(), properties.readTimeout());
+        return builder.build();
+    }
+
+    private ClientHttpRequestFactory pool(String nome, HttpClienteProperties properties) {
+        int maxConexoes = Math.max(1, properties.maxConnections());
+        PoolingHttpClientConnectionManager gerenciador = PoolingHttpClientConnectionManagerBuilder.create()
+                // Um único destino por cliente: o limite total e por rota coincidem
+                .setMaxConnTotal(maxConexoes)
+                .setMaxConnPerRoute(maxConexoes)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.connectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.readTimeout()))
+                        .setTimeToLive(TimeValue.of(properties.timeToLive()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(gerenciador)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.connectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.readTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.idleTimeout()))
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(gerenciador, nome, Tags.empty()).bindTo(meterRegistry);
+        recursos.add(httpClient);
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    private ClientHttpRequestFactory jdk(HttpClienteProperties properties) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.connectTimeout())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        recursos.add(httpClient);
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(properties.readTimeout());
+        return requestFactory;
+    }
+
+    /**
+     * Identifica o serviço downstream pelo nome lógico (o host pode ser igual entre serviços).
+     */
+    private static final class ConvencaoObservacao extends DefaultClientRequestObservationConvention {
+
+        private final KeyValue nomeCliente;
+
+        private ConvencaoObservacao(String nome) {
+            this.nomeCliente = KeyValue.of("client.name", nome);
+        }
+
+        @Override
+        protected KeyValue clientName(ClientRequestObservationContext context) {
+            return nomeCliente;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void fechar() {
+        for (AutoCloseable recurso : recursos) {
+            try {
+                recurso.close();
+            } catch (Exception ex) {
+                log.warn("[HttpClienteFactory] Erro ao fechar cliente HTTP: {}", ex.getMessage());
+            }
+        }
+        recursos.clear();
+    }
+}
@@ -0,0 +1,28 @@
+package com.econome.pedidos.integration.http;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração do cliente HTTP de um serviço downstream (usada como {@code <prefixo>.api.http}).
+ *
+ * @param maxConnections           conexões simultâneas mantidas no pool para o serviço
+ * @param connectTimeout           tempo máximo para estabelecer a conexão TCP
+ * @param readTimeout              tempo máximo de espera pela resposta (socket/response timeout)
+ * @param connectionRequestTimeout tempo máximo aguardando uma conexão livre do pool
+ * @param idleTimeout              conexões ociosas por mais tempo são fechadas
+ * @param timeToLive               idade máxima de uma conexão reutilizada (evita conexões presas a instâncias antigas)
+ * @param http2                    usa o {@link java.net.http.HttpClient} do JDK com HTTP/2 (multiplexado,
+ *                                 sem pool por conexão) em vez do pool HTTP/1.1 do Apache HttpClient
+ */
+public record HttpClienteProperties(
+        @DefaultValue("50") int maxConnections,
+        @DefaultValue("2s") Duration connectTimeout,
+        @DefaultValue("5s") Duration readTimeout,
+        @DefaultValue("1s") Duration connectionRequestTimeout,
+        @DefaultValue("30s") Duration idleTimeout,
+        @DefaultValue("5m") Duration timeToLive,
+        @DefaultValue("false") boolean http2
+) {
+}
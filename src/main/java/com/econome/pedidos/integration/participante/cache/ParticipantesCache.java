@@ -0,0 +1,198 @@
+package com.econome.pedidos.integration.participante.cache;
+
+import com.econome.pedidos.integration.participante.client.AgrupadorBuscasParticipantes;
+import com.econome.pedidos.integration.participante.client.ParticipantesClient;
+import com.econome.pedidos.integration.participante.config.ParticipantesCacheProperties;
+import com.econome.pedidos.integration.participante.dto.ParticipanteResumo;
+import com.econome.pedidos.integration.resiliencia.CircuitoAbertoException;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Cache local (Caffeine) de {@link ParticipanteResumo} na frente do {@link ParticipantesClient}.
+ * <ul>
+ *     <li>Limitado por quantidade de entradas, com TTL distinto para encontrados e inexistentes (cache negativo de 404).</li>
+ *     <li>Carregamento single-flight: misses concorrentes do mesmo id compartilham a mesma chamada remota.</li>
+ *     <li>Misses individuais de ids diferentes em requisições concorrentes são agrupados em uma busca em lote
+ *     ({@link AgrupadorBuscasParticipantes}).</li>
+ *     <li>Falhas de comunicação não são cacheadas; o id fica sem participante apenas naquela resposta.</li>
+ *     <li>Entradas com mais de {@code refresh-after} são recarregadas em segundo plano no próximo acesso, que
+ *     recebe o valor antigo sem esperar (stale-while-revalidate).</li>
+ *     <li>Buscas podem ser limitadas por um orçamento de tempo: o que não ficar pronto é devolvido como pendente.</li>
+ * </ul>
+ * Métricas de hit/miss/eviction publicadas como {@code cache.*} com tag {@code cache=participantes};
+ * buscas interrompidas pelo orçamento em {@code participantes.busca.parcial}.
+ */
+@Component
+public class ParticipantesCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticipantesCache.class);
+    private static final String NOME_CACHE = "participantes";
+
+    private final ParticipantesClient participantesClient;
+    private final AgrupadorBuscasParticipantes agrupador;
+    private final ParticipantesCacheProperties properties;
+    private final Executor carregamentos = Executors.newVirtualThreadPerTaskExecutor();
+    private final AsyncLoadingCache<Long, Optional<ParticipanteResumo>> cache;
+    private final Counter buscasParciais;
+
+    public ParticipantesCache(ParticipantesClient participantesClient,
+                              AgrupadorBuscasParticipantes agrupador,
+                              ParticipantesCacheProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.participantesClient = participantesClient;
+        this.agrupador = agrupador;
+        this.properties = properties;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(properties.maxEntries())
+                // Carregamentos fazem I/O bloqueante: virtual threads em vez do ForkJoinPool comum
+                .executor(carregamentos)
+                .recordStats();
+        Duration refreshAfter = properties.refreshAfter();
+        if (refreshAfter.isPositive() && refreshAfter.compareTo(properties.ttl()) < 0) {
+            // Entrada antiga continua sendo servida enquanto a recarga (agrupada) roda em segundo plano
+            builder.refreshAfterWrite(refreshAfter);
+        }
+        this.cache = builder
+                .expireAfter(Expiry.<Long, Optional<ParticipanteResumo>>writing(
+                        (id, participante) -> participante.isPresent() ? properties.ttl() : properties.negativeTtl()))
+                .buildAsync(new CarregadorParticipantes(participantesClient, agrupador));
+        this.buscasParciais = Counter.builder("participantes.busca.parcial")
+                .description("Buscas encerradas pelo orçamento de tempo com participantes pendentes")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOME_CACHE);
+    }
+
+    /**
+     * Busca vários participantes aguardando todas as consultas; apenas os ids ausentes do cache são enviados
+     * ao serviço remoto, agrupados em uma única busca em lote.
+     *
+     * @return mapa id → participante encontrado (inexistentes e indisponíveis ficam de fora)
+     */
+    public Map<Long, ParticipanteResumo> buscarPorIds(Collection<Long> ids) {
+        return buscarPorIds(ids, Duration.ZERO).encontrados();
+    }
+
+    /**
+     * Busca vários participantes aguardando no máximo {@code orcamento}. Esgotado o prazo, retorna os que já
+     * estão no cache e marca os demais como pendentes; as consultas em andamento não são canceladas e
+     * populam o cache para as próximas requisições.
+     *
+     * @param orcamento tempo máximo de espera; zero ou negativo aguarda todas as consultas
+     */
+    public ParticipantesResolvidos buscarPorIds(Collection<Long> ids, Duration orcamento) {
+        List<Long> distintos = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distintos.isEmpty()) return new ParticipantesResolvidos(Map.of(), Set.of());
+
+        CompletableFuture<Map<Long, Optional<ParticipanteResumo>>> busca = iniciarBusca(distintos);
+        Map<Long, Optional<ParticipanteResumo>> resultados;
+        Set<Long> pendentes = Set.of();
+        try {
+            resultados = orcamento.isPositive()
+                    ? busca.get(orcamento.toNanos(), TimeUnit.NANOSECONDS)
+                    : busca.join();
+        } catch (TimeoutException ex) {
+            resultados = presentes(distintos);
+            pendentes = new HashSet<>(distintos);
+            pendentes.removeAll(resultados.keySet());
+            buscasParciais.increment();
+            log.debug("Orçamento de {} esgotado com {} de {} participantes pendentes", orcamento, pendentes.size(), distintos.size());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            resultados = presentes(distintos);
+        } catch (ExecutionException | CompletionException ex) {
+            registrarFalha(distintos, ex.getCause() != null ? ex.getCause() : ex);
+            resultados = presentes(distintos);
+        }
+
+        Map<Long, ParticipanteResumo> encontrados = new HashMap<>();
+        resultados.forEach((id, participante) -> participante.ifPresent(p -> encontrados.put(id, p)));
+        return new ParticipantesResolvidos(encontrados, pendentes);
+    }
+
+    /**
+     * Indica se o cache ainda resolve {@code id} para {@code participante}, sem consultar o serviço remoto.
+     * Falso quando a entrada expirou, está carregando, foi recarregada com outro valor ou o cache está desabilitado.
+     *
+     * @param participante valor conhecido; nulo para participante inexistente
+     */
+    public boolean atual(Long id, ParticipanteResumo participante) {
+        if (!properties.enabled()) return false;
+        // Acesso comum ao cache: conta como hit e dispara o refresh em segundo plano quando vencido
+        CompletableFuture<Optional<ParticipanteResumo>> entrada = cache.getIfPresent(id);
+        return entrada != null && entrada.isDone() && !entrada.isCompletedExceptionally()
+                && Objects.equals(entrada.join().orElse(null), participante);
+    }
+
+    /**
+     * Id único passa pelo agrupador (direto ou via loader do cache); vários ids formam uma busca em lote.
+     */
+    private CompletableFuture<Map<Long, Optional<ParticipanteResumo>>> iniciarBusca(List<Long> distintos) {
+        if (distintos.size() == 1) {
+            Long id = distintos.getFirst();
+            return (properties.enabled() ? cache.get(id) : agrupador.buscar(id))
+                    .thenApply(participante -> Map.of(id, participante));
+        }
+        return properties.enabled()
+                ? cache.getAll(distintos)
+                : CompletableFuture.supplyAsync(() -> participantesClient.buscarPorIds(distintos), carregamentos);
+    }
+
+    /**
+     * Resultados já concluídos no cache, sem aguardar carregamentos em andamento.
+     */
+    private Map<Long, Optional<ParticipanteResumo>> presentes(List<Long> distintos) {
+        return properties.enabled() ? cache.synchronous().getAllPresent(distintos) : Map.of();
+    }
+
+    private static void registrarFalha(List<Long> distintos, Throwable causa) {
+        if (causa instanceof CircuitoAbertoException) {
+            log.debug("{} participantes não consultados: {}", distintos.size(), causa.getMessage());
+        } else {
+            log.error("Erro ao consultar {} participantes: {}", distintos.size(), causa.getMessage());
+        }
+    }
+
+    /**
+     * Loader que agrupa misses individuais entre requisições; {@code loadAll} já é uma busca em lote
+     * e vai direto ao client.
+     */
+    private record CarregadorParticipantes(ParticipantesClient client, AgrupadorBuscasParticipantes agrupador)
+            implements AsyncCacheLoader<Long, Optional<ParticipanteResumo>> {
+
+        @Override
+        public CompletableFuture<Optional<ParticipanteResumo>> asyncLoad(Long id, Executor executor) {
+            return agrupador.buscar(id);
+        }
+
+        @Override
+        public CompletableFuture<Map<Long, Optional<ParticipanteResumo>>> asyncLoadAll(Set<? extends Long> ids, Executor executor) {
+            return CompletableFuture.supplyAsync(() -> client.buscarPorIds(ids), executor);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.econome.pedidos.integration.participante.cache;
+
+import com.econome.pedidos.integration.participante.dto.ParticipanteResumo;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resultado de uma busca de participantes limitada por tempo.
+ *
+ * @param encontrados mapa id → participante encontrado (inexistentes e indisponíveis ficam de fora)
+ * @param pendentes   ids cuja busca não terminou dentro do orçamento; seguem carregando em segundo plano
+ */
+public record ParticipantesResolvidos(Map<Long, ParticipanteResumo> encontrados, Set<Long> pendentes) {
+
+    public boolean parcial() {
+        return !pendentes.isEmpty();
+    }
+}
@@ -0,0 +1,187 @@
+package com.econome.pedidos.integration.participante.client;
+
+import com.econome.pedidos.integration.participante.config.ParticipantesApiProperties;
+import com.econome.pedidos.integration.participante.dto.ParticipanteResumo;
+import com.econome.pedidos.integration.resiliencia.CircuitoAbertoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Agrupa buscas individuais de participantes feitas por requisições concorrentes (request collapsing).
+ * <p>
+ * Buscas que chegam dentro de {@code participantes.api.collapsing.window} são reunidas (ids repetidos
+ * compartilham o mesmo resultado) e resolvidas por um único {@link ParticipantesClient#buscarPorIds}: lote
+ * remoto ou chamadas individuais com concorrência limitada. O lote é disparado antes do fim da janela ao
+ * atingir {@code max-batch-size} ids. Ids sem resposta (falha de comunicação) completam com erro, para não
+ * serem cacheados.
+ * <p>
+ * Após {@link #encerrar()} (desligamento do contexto) não há janela nem threads próprias: cada busca é um
+ * {@link ParticipantesClient#buscarPorIds} direto na thread chamadora.
+ * <p>
+ * Métricas: {@code participantes.agrupamento.buscas} (buscas recebidas) e
+ * {@code participantes.agrupamento.lotes} (ids por lote disparado); a razão de agrupamento é
+ * {@code buscas / lotes_count}.
+ */
+@Slf4j
+@Component
+public class AgrupadorBuscasParticipantes {
+
+    private final ParticipantesClient participantesClient;
+    private final ParticipantesApiProperties properties;
+    private final ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("participantes-agrupamento").daemon().factory());
+    // Lotes fazem I/O bloqueante
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter buscas;
+    private final DistributionSummary lotes;
+
+    private Map<Long, CompletableFuture<Optional<ParticipanteResumo>>> pendentes = new LinkedHashMap<>();
+    private ScheduledFuture<?> disparoAgendado;
+    private volatile boolean encerrado;
+
+    public AgrupadorBuscasParticipantes(ParticipantesClient participantesClient, ParticipantesApiProperties properties,
+                                        MeterRegistry meterRegistry) {
+        this.participantesClient = participantesClient;
+        this.properties = properties;
+        this.buscas = Counter.builder("participantes.agrupamento.buscas")
+                .description("Buscas individuais de participantes recebidas pelo agrupador")
+                .register(meterRegistry);
+        this.lotes = DistributionSummary.builder("participantes.agrupamento.lotes")
+                .description("Ids distintos por busca disparada pelo agrupador")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Agenda a busca do participante no próximo lote.
+     *
+     * @return resultado da busca (vazio se inexistente); completa com erro em falha de comunicação ou circuito aberto
+     */
+    public CompletableFuture<Optional<ParticipanteResumo>> buscar(Long id) {
+        if (id == null || !properties.enabled()) return CompletableFuture.completedFuture(Optional.empty());
+        if (!participantesClient.disponivel()) return CompletableFuture.failedFuture(new CircuitoAbertoException("participantes"));
+        if (encerrado) return buscarDiretamente(id);
+        ParticipantesApiProperties.Agrupamento agrupamento = properties.collapsing();
+        if (!agrupamento.enabled()) {
+            try {
+                return CompletableFuture.supplyAsync(() -> participantesClient.buscarPorId(id), executor);
+            } catch (RejectedExecutionException ex) {
+                return buscarDiretamente(id);
+            }
+        }
+        buscas.increment();
+
+        Map<Long, CompletableFuture<Optional<ParticipanteResumo>>> lote = null;
+        CompletableFuture<Optional<ParticipanteResumo>> futuro = null;
+        lock.lock();
+        try {
+            // Encerrado após a verificação acima (o agendador já foi desligado): busca direta, fora do lock
+            if (!encerrado) {
+                futuro = pendentes.computeIfAbsent(id, chave -> new CompletableFuture<>());
+                if (pendentes.size() >= Math.max(1, agrupamento.maxBatchSize())) {
+                    lote = retirarPendentes();
+                } else if (disparoAgendado == null) {
+                    disparoAgendado = agendador.schedule(this::dispararPorJanela,
+                            agrupamento.window().toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (futuro == null) return buscarDiretamente(id);
+        if (lote != null) disparar(lote);
+        return futuro;
+    }
+
+    private CompletableFuture<Optional<ParticipanteResumo>> buscarDiretamente(Long id) {
+        CompletableFuture<Optional<ParticipanteResumo>> futuro = new CompletableFuture<>();
+        executarLote(Map.of(id, futuro));
+        return futuro;
+    }
+
+    private void dispararPorJanela() {
+        Map<Long, CompletableFuture<Optional<ParticipanteResumo>>> lote;
+        lock.lock();
+        try {
+            lote = retirarPendentes();
+        } finally {
+            lock.unlock();
+        }
+        if (!lote.isEmpty()) disparar(lote);
+    }
+
+    private void disparar(Map<Long, CompletableFuture<Optional<ParticipanteResumo>>> lote) {
+        try {
+            executor.execute(() -> executarLote(lote));
+        } catch (RejectedExecutionException ex) {
+            // Executor encerrado entre a retirada do lote e o disparo
+            executarLote(lote);
+        }
+    }
+
+    // Chamado com o lock adquirido
+    private Map<Long, CompletableFuture<Optional<ParticipanteResumo>>> retirarPendentes() {
+        Map<Long, CompletableFuture<Optional<ParticipanteResumo>>> lote = pendentes;
+        pendentes = new LinkedHashMap<>();
+        if (disparoAgendado != null) {
+            disparoAgendado.cancel(false);
+            disparoAgendado = null;
+        }
+        return lote;
+    }
+
+    private void executarLote(Map<Long, CompletableFuture<Optional<ParticipanteResumo>>> lote) {
+        lotes.record(lote.size());
+        Map<Long, Optional<ParticipanteResumo>> resultados;
+        try {
+            resultados = participantesClient.buscarPorIds(new ArrayList<>(lote.keySet()));
+        } catch (RuntimeException ex) {
+            lote.values().forEach(futuro -> futuro.completeExceptionally(ex));
+            return;
+        }
+        List<Long> semResposta = new ArrayList<>();
+        lote.forEach((id, futuro) -> {
+            Optional<ParticipanteResumo> resultado = resultados.get(id);
+            if (resultado != null) {
+                futuro.complete(resultado);
+            } else {
+                semResposta.add(id);
+                futuro.completeExceptionally(new IllegalStateException("Participante " + id + " sem resposta do serviço"));
+            }
+        });
+        if (!semResposta.isEmpty()) {
+            log.debug("[AgrupadorBuscasParticipantes] {} de {} ids sem resposta no lote", semResposta.size(), lote.size());
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        lock.lock();
+        try {
+            encerrado = true;
+        } finally {
+            lock.unlock();
+        }
+        agendador.shutdownNow();
+        dispararPorJanela();
+        executor.close();
+    }
+}
@@ -2,52 +2,256 @@ package com.econome.pedidos.integration.participante.client;
 
 import com.econome.pedidos.integration.participante.config.ParticipantesApiProperties;
 import com.econome.pedidos.integration.participante.dto.ParticipanteResumo;
-import lombok.RequiredArgsConstructor;
+import com.econome.pedidos.integration.resiliencia.ProtecaoChamadas;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
 
 /**
- * Client simples (RestClient) para buscar participante individual.
- * Pode ser evoluído futuramente para batch.
+ * Client (RestClient) para buscar participantes no microserviço de Participantes.
+ * Suporta busca individual e busca em lote. A busca em lote usa o endpoint de lote quando disponível
+ * e recorre a chamadas individuais paralelas quando o serviço remoto não o expõe; o endpoint de lote volta a ser
+ * tentado após {@code batch-retry-interval} (ex.: indisponível só durante um deploy do serviço remoto).
+ * Chamadas passam pelo circuit breaker/retentativas de {@code participantesProtecao}; com o circuito
+ * aberto a busca em lote retorna vazio sem acessar o serviço.
+ * Sempre acessa o serviço remoto; leituras do fluxo de pedidos devem passar por
+ * {@link com.econome.pedidos.integration.participante.cache.ParticipantesCache}.
  */
 @Component
-@RequiredArgsConstructor
 public class ParticipantesClient {
 
     private static final Logger log = LoggerFactory.getLogger(ParticipantesClient.class);
+
+    // Status que indicam ausência do endpoint de lote (rota inexistente ou "lote" interpretado como {id})
+    private static final Set<HttpStatus> STATUS_LOTE_INDISPONIVEL = Set.of(
+            HttpStatus.BAD_REQUEST, HttpStatus.NOT_FOUND, HttpStatus.METHOD_NOT_ALLOWED, HttpStatus.NOT_IMPLEMENTED);
+
     private final ParticipantesApiProperties properties;
 
-    private RestClient restClient;
+    private final Semaphore limiteConcorrencia;
+    // Até quando o endpoint de lote não deve ser tentado (null = disponível)
+    private volatile Instant loteIndisponivelAte;
+    private final RestClient restClient;
+    private final ProtecaoChamadas protecao;
 
-    private RestClient client() {
-        if (restClient == null) {
-            String base = properties.baseUrl();
-            // Remove trailing slash para consistência
-            if (base.endsWith("/")) base = base.substring(0, base.length() - 1);
-            restClient = RestClient.builder().baseUrl(base).build();
-        }
-        return restClient;
+    public ParticipantesClient(ParticipantesApiProperties properties,
+                               @Qualifier("participantesRestClient") RestClient restClient,
+                               @Qualifier("participantesProtecao") ProtecaoChamadas protecao) {
+        this.properties = properties;
+        this.restClient = restClient;
+        this.protecao = protecao;
+        this.limiteConcorrencia = new Semaphore(Math.max(1, properties.maxConcurrency()));
     }
 
+    /**
+     * Indica se o serviço pode ser chamado agora (circuito fechado ou em teste).
+     */
+    public boolean disponivel() {
+        return protecao.disponivel();
+    }
+
+    /**
+     * Busca um participante pelo id.
+     *
+     * @return participante encontrado ou vazio quando o serviço responde 404
+     * @throws org.springframework.web.client.RestClientException em falhas de comunicação ou status de erro
+     *                                                           diferentes de 404 (não devem ser cacheadas)
+     * @throws com.econome.pedidos.integration.resiliencia.CircuitoAbertoException com o circuito aberto
+     */
     public Optional<ParticipanteResumo> buscarPorId(Long id) {
         if (id == null || !properties.enabled()) return Optional.empty();
         try {
-        ParticipanteResumo body = client().get()
-            .uri("/api/participantes/{id}", id)
+            ParticipanteResumo body = protecao.executar(true, () -> restClient.get()
+                    .uri("/api/participantes/{id}", id)
                     .accept(MediaType.APPLICATION_JSON)
                     .retrieve()
-                    .onStatus(HttpStatusCode::is4xxClientError, (req, res) -> log.warn("Participante {} não encontrado (status {})", id, res.getStatusCode()))
-                    .body(ParticipanteResumo.class);
+                    .body(ParticipanteResumo.class));
             return Optional.ofNullable(body);
+        } catch (HttpClientErrorException.NotFound ex) {
+            log.warn("Participante {} não encontrado (status {})", id, ex.getStatusCode());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Busca vários participantes com número fixo de round trips: ids distintos são divididos em lotes
+     * de {@code batchSize} e os lotes executados com concorrência limitada a {@code maxConcurrency}.
+     * <p>
+     * O mapa retornado contém apenas ids cuja consulta foi concluída: presente quando encontrado,
+     * vazio quando o serviço confirmou a inexistência. Ids de lotes/chamadas com erro ficam ausentes.
+     *
+     * @param ids identificadores de participantes (nulos e repetidos são ignorados)
+     * @return mapa id → resultado da consulta
+     */
+    public Map<Long, Optional<ParticipanteResumo>> buscarPorIds(Collection<? extends Long> ids) {
+        if (ids == null || ids.isEmpty() || !properties.enabled()) return Map.of();
+        List<Long> distintos = ids.stream().filter(Objects::nonNull).map(Long::valueOf).distinct().toList();
+        if (distintos.isEmpty()) return Map.of();
+        if (!protecao.disponivel()) {
+            log.debug("Circuito de participantes aberto. {} ids sem consulta remota.", distintos.size());
+            return Map.of();
+        }
+
+        if (properties.batchEnabled() && loteDisponivel()) {
+            try {
+                Map<Long, Optional<ParticipanteResumo>> resultado = buscarEmLotes(distintos);
+                loteIndisponivelAte = null;
+                return resultado;
+            } catch (LoteIndisponivelException ex) {
+                log.warn("Endpoint de lote de participantes indisponível (status {}). Usando chamadas individuais por {}.",
+                        ex.status, properties.batchRetryInterval());
+                loteIndisponivelAte = Instant.now().plus(properties.batchRetryInterval());
+            }
+        }
+        return buscarIndividualmente(distintos);
+    }
+
+    private boolean loteDisponivel() {
+        Instant ate = loteIndisponivelAte;
+        return ate == null || !Instant.now().isBefore(ate);
+    }
+
+    private Map<Long, Optional<ParticipanteResumo>> buscarEmLotes(List<Long> ids) {
+        int tamanhoLote = Math.max(1, properties.batchSize());
+        List<Callable<Map<Long, Optional<ParticipanteResumo>>>> tarefas = new ArrayList<>();
+        for (int inicio = 0; inicio < ids.size(); inicio += tamanhoLote) {
+            List<Long> lote = ids.subList(inicio, Math.min(inicio + tamanhoLote, ids.size()));
+            tarefas.add(() -> buscarLote(lote));
+        }
+        Map<Long, Optional<ParticipanteResumo>> resultado = new HashMap<>();
+        executarComConcorrenciaLimitada(tarefas).forEach(resultado::putAll);
+        return resultado;
+    }
+
+    private Map<Long, Optional<ParticipanteResumo>> buscarLote(List<Long> ids) {
+        String csv = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        List<ParticipanteResumo> body;
+        try {
+            body = protecao.executar(true, () -> restClient.get()
+                    .uri(uri -> uri.path(properties.batchPath()).queryParam("ids", csv).build())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<ParticipanteResumo>>() {
+                    }));
+        } catch (HttpClientErrorException ex) {
+            if (STATUS_LOTE_INDISPONIVEL.contains(HttpStatus.resolve(ex.getStatusCode().value()))) {
+                throw new LoteIndisponivelException(ex.getStatusCode());
+            }
+            log.error("Erro ao consultar lote de {} participantes: {}", ids.size(), ex.getMessage());
+            return Map.of();
+        } catch (Exception ex) {
+            log.error("Erro ao consultar lote de {} participantes: {}", ids.size(), ex.getMessage());
+            return Map.of();
+        }
+
+        Map<Long, ParticipanteResumo> encontrados = new HashMap<>();
+        if (body != null) {
+            body.stream().filter(Objects::nonNull).forEach(p -> encontrados.putIfAbsent(p.id(), p));
+        }
+        // Ids solicitados e não devolvidos pelo lote são inexistentes no serviço remoto
+        Map<Long, Optional<ParticipanteResumo>> resultado = new HashMap<>();
+        ids.forEach(id -> resultado.put(id, Optional.ofNullable(encontrados.get(id))));
+        return resultado;
+    }
+
+    private Map<Long, Optional<ParticipanteResumo>> buscarIndividualmente(List<Long> ids) {
+        List<Callable<Map.Entry<Long, Optional<ParticipanteResumo>>>> tarefas = ids.stream()
+                .<Callable<Map.Entry<Long, Optional<ParticipanteResumo>>>>map(id -> () -> buscarIsolado(id))
+                .toList();
+        Map<Long, Optional<ParticipanteResumo>> resultado = new HashMap<>();
+        executarComConcorrenciaLimitada(tarefas).stream()
+                .filter(Objects::nonNull)
+                .forEach(entrada -> resultado.put(entrada.getKey(), entrada.getValue()));
+        return resultado;
+    }
+
+    private Map.Entry<Long, Optional<ParticipanteResumo>> buscarIsolado(Long id) {
+        try {
+            return Map.entry(id, buscarPorId(id));
         } catch (Exception ex) {
             log.error("Erro ao consultar participante {}: {}", id, ex.getMessage());
-            return Optional.empty();
+            return null;
+        }
+    }
+
+    /**
+     * Executa as tarefas em virtual threads respeitando o limite global de requisições simultâneas.
+     * Uma única tarefa roda na própria thread chamadora, evitando custo de agendamento desnecessário.
+     */
+    private <T> List<T> executarComConcorrenciaLimitada(List<Callable<T>> tarefas) {
+        if (tarefas.size() == 1) {
+            return Collections.singletonList(executarComPermissao(tarefas.getFirst()));
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futuros = tarefas.stream()
+                    .map(tarefa -> executor.submit(() -> executarComPermissao(tarefa)))
+                    .toList();
+            List<T> resultados = new ArrayList<>(futuros.size());
+            for (Future<T> futuro : futuros) {
+                resultados.add(futuro.get());
+            }
+            return resultados;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Busca de participantes interrompida", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException("Falha na busca de participantes", ex.getCause());
+        }
+    }
+
+    private <T> T executarComPermissao(Callable<T> tarefa) {
+        try {
+            limiteConcorrencia.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Busca de participantes interrompida", ex);
+        }
+        try {
+            return tarefa.call();
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            limiteConcorrencia.release();
+        }
+    }
+
+    /**
+     * Sinaliza que o serviço remoto não expõe o endpoint de lote.
+     */
+    private static final class LoteIndisponivelException extends RuntimeException {
+        private final transient HttpStatusCode status;
+
+        private LoteIndisponivelException(HttpStatusCode status) {
+            super("Endpoint de lote indisponível: " + status);
+            this.status = status;
         }
     }
 }
@@ -1,11 +1,48 @@
 package com.econome.pedidos.integration.participante.config;
 
+import com.econome.pedidos.integration.http.HttpClienteProperties;
+import com.econome.pedidos.integration.resiliencia.ResilienciaProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 
+import java.time.Duration;
+
+/**
+ * Propriedades de configuração da integração com o microserviço de Participantes.
+ * Prefixo: participantes.api
+ *
+ * @param batchEnabled   tenta o endpoint de busca em lote antes de recorrer a chamadas individuais
+ * @param batchPath      caminho do endpoint de lote (recebe ids separados por vírgula em ?ids=)
+ * @param batchSize      quantidade máxima de ids por requisição de lote
+ * @param batchRetryInterval espera até tentar de novo o endpoint de lote depois que ele respondeu como inexistente
+ * @param maxConcurrency limite de requisições simultâneas ao microserviço (lotes ou chamadas individuais)
+ * @param http           pool de conexões e timeouts do cliente HTTP
+ * @param resilience     circuit breaker e retentativas
+ * @param collapsing     agrupamento de buscas individuais concorrentes em uma única busca em lote
+ */
 @ConfigurationProperties(prefix = "participantes.api")
 public record ParticipantesApiProperties(
         String baseUrl,
-        @DefaultValue("true") boolean enabled
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("true") boolean batchEnabled,
+        @DefaultValue("/api/participantes/lote") String batchPath,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("5m") Duration batchRetryInterval,
+        @DefaultValue("8") int maxConcurrency,
+        @DefaultValue HttpClienteProperties http,
+        @DefaultValue ResilienciaProperties resilience,
+        @DefaultValue Agrupamento collapsing
 ) {
+
+    /**
+     * @param enabled      com false cada busca individual vira uma chamada própria
+     * @param window       tempo máximo de espera por outras buscas antes de disparar o lote
+     * @param maxBatchSize ids distintos que disparam o lote antes do fim da janela
+     */
+    public record Agrupamento(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("5ms") Duration window,
+            @DefaultValue("100") int maxBatchSize
+    ) {
+    }
 }
@@ -0,0 +1,27 @@
+package com.econome.pedidos.integration.participante.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Propriedades do cache local de participantes.
+ * Prefixo: participantes.cache
+ *
+ * @param enabled     habilita o cache; desabilitado, cada enriquecimento consulta o serviço de Participantes
+ * @param ttl         tempo de vida de um participante encontrado
+ * @param negativeTtl tempo de vida de um participante inexistente (404), menor para refletir cadastros novos
+ * @param refreshAfter idade a partir da qual o próximo acesso dispara recarga em segundo plano, servindo o valor
+ *                     antigo enquanto isso (stale-while-revalidate); zero ou valor não menor que o TTL desabilita
+ * @param maxEntries  quantidade máxima de ids mantidos em memória
+ */
+@ConfigurationProperties(prefix = "participantes.cache")
+public record ParticipantesCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10m") Duration ttl,
+        @DefaultValue("1m") Duration negativeTtl,
+        @DefaultValue("2m") Duration refreshAfter,
+        @DefaultValue("10000") long maxEntries
+) {
+}
@@ -1,9 +1,24 @@
 package com.econome.pedidos.integration.participante.config;
 
+import com.econome.pedidos.integration.http.HttpClienteFactory;
+import com.econome.pedidos.integration.resiliencia.ProtecaoChamadas;
+import com.econome.pedidos.integration.resiliencia.ProtecaoChamadasFactory;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
 
 @Configuration
-@EnableConfigurationProperties(ParticipantesApiProperties.class)
+@EnableConfigurationProperties({ParticipantesApiProperties.class, ParticipantesCacheProperties.class})
 public class ParticipantesIntegrationConfiguration {
+
+    @Bean(name = "participantesRestClient")
+    RestClient participantesRestClient(ParticipantesApiProperties props, HttpClienteFactory httpClienteFactory) {
+        return httpClienteFactory.criar("participantes", props.baseUrl(), props.http());
+    }
+
+    @Bean(name = "participantesProtecao")
+    ProtecaoChamadas participantesProtecao(ParticipantesApiProperties props, ProtecaoChamadasFactory factory) {
+        return factory.criar("participantes", props.resilience());
+    }
 }
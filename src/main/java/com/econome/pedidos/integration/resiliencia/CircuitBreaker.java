@@ -0,0 +1,122 @@
+package com.econome.pedidos.integration.resiliencia;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Circuit breaker com janela deslizante por contagem.
+ * <ul>
+ *     <li>FECHADO: chamadas liberadas; abre quando a taxa de falha da janela atinge o limite.</li>
+ *     <li>ABERTO: chamadas recusadas até passar {@code waitDurationInOpenState}.</li>
+ *     <li>SEMIABERTO: libera um número fixo de chamadas de teste; todas com sucesso fecham o circuito,
+ *     qualquer falha o reabre.</li>
+ * </ul>
+ * Estado protegido por {@code synchronized}: as seções críticas são curtas e não fazem I/O.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum Estado {FECHADO, ABERTO, SEMIABERTO}
+
+    private final String nome;
+    private final ResilienciaProperties properties;
+    private final Clock clock;
+
+    // Buffer circular dos resultados (true = falha) das últimas chamadas
+    private final boolean[] janela;
+    private int posicao;
+    private int registradas;
+    private int falhas;
+
+    private Estado estado = Estado.FECHADO;
+    private Instant abertoAte = Instant.MIN;
+    private int testesLiberados;
+    private int testesComSucesso;
+
+    public CircuitBreaker(String nome, ResilienciaProperties properties, Clock clock) {
+        this.nome = nome;
+        this.properties = properties;
+        this.clock = clock;
+        this.janela = new boolean[Math.max(1, properties.slidingWindowSize())];
+    }
+
+    /**
+     * Reserva permissão para uma chamada.
+     *
+     * @return false quando o circuito está aberto ou as chamadas de teste do semiaberto já foram liberadas
+     */
+    public synchronized boolean permitir() {
+        if (estado == Estado.ABERTO) {
+            if (clock.instant().isBefore(abertoAte)) return false;
+            transicionar(Estado.SEMIABERTO);
+        }
+        if (estado == Estado.SEMIABERTO) {
+            if (testesLiberados >= Math.max(1, properties.permittedCallsInHalfOpenState())) return false;
+            testesLiberados++;
+        }
+        return true;
+    }
+
+    /**
+     * Devolve a permissão de uma chamada que terminou sem registrar sucesso nem falha.
+     */
+    public synchronized void liberar() {
+        if (estado == Estado.SEMIABERTO && testesLiberados > testesComSucesso) testesLiberados--;
+    }
+
+    public synchronized void registrarSucesso() {
+        if (estado == Estado.SEMIABERTO) {
+            if (++testesComSucesso >= Math.max(1, properties.permittedCallsInHalfOpenState())) {
+                transicionar(Estado.FECHADO);
+            }
+            return;
+        }
+        registrar(false);
+    }
+
+    public synchronized void registrarFalha() {
+        if (estado == Estado.SEMIABERTO) {
+            transicionar(Estado.ABERTO);
+            return;
+        }
+        registrar(true);
+        if (estado == Estado.FECHADO && registradas >= Math.max(1, properties.minimumCalls())
+                && falhas * 100 >= properties.failureRateThreshold() * registradas) {
+            transicionar(Estado.ABERTO);
+        }
+    }
+
+    public synchronized Estado estado() {
+        // Reflete a expiração do aberto sem consumir permissão de teste
+        if (estado == Estado.ABERTO && !clock.instant().isBefore(abertoAte)) return Estado.SEMIABERTO;
+        return estado;
+    }
+
+    private void registrar(boolean falha) {
+        if (registradas == janela.length) {
+            if (janela[posicao]) falhas--;
+        } else {
+            registradas++;
+        }
+        janela[posicao] = falha;
+        if (falha) falhas++;
+        posicao = (posicao + 1) % janela.length;
+    }
+
+    private void transicionar(Estado novo) {
+        log.warn("[CircuitBreaker] Circuito '{}': {} -> {} (falhas {}/{})", nome, estado, novo, falhas, registradas);
+        estado = novo;
+        testesLiberados = 0;
+        testesComSucesso = 0;
+        if (novo == Estado.ABERTO) {
+            abertoAte = clock.instant().plus(properties.waitDurationInOpenState());
+        }
+        if (novo != Estado.SEMIABERTO) {
+            posicao = 0;
+            registradas = 0;
+            falhas = 0;
+        }
+    }
+}
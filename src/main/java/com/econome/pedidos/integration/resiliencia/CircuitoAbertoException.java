@@ -0,0 +1,11 @@
+package com.econome.pedidos.integration.resiliencia;
+
+/**
+ * Chamada recusada sem acessar o serviço remoto porque o circuit breaker está aberto.
+ */
+public class CircuitoAbertoException extends RuntimeException {
+
+    public CircuitoAbertoException(String nome) {
+        super("Circuito '" + nome + "' aberto: chamada ao serviço remoto não realizada");
+    }
+}
@@ -0,0 +1,175 @@
+package com.econome.pedidos.integration.resiliencia;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.ConnectException;
+import java.time.Clock;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker + retentativas com backoff exponencial (full jitter) em volta das chamadas a um serviço downstream.
+ * <ul>
+ *     <li>Circuito aberto: a chamada falha imediatamente com {@link CircuitoAbertoException}.</li>
+ *     <li>Respostas 4xx são consideradas sucesso para o breaker (o serviço respondeu) e não são repetidas.</li>
+ *     <li>Retentativas só para falhas transitórias (I/O, 502/503/504); chamadas não idempotentes só são repetidas
+ *     quando a conexão nem chegou a ser estabelecida. Se o circuito abrir antes de uma retentativa, a falha da
+ *     última tentativa é propagada.</li>
+ *     <li>Orçamento de retentativas: cada sucesso credita {@code retryBudgetRatio} e cada retentativa consome 1,
+ *     limitando a carga extra durante incidentes.</li>
+ * </ul>
+ * Métricas (tag {@code nome}): {@code resiliencia.circuito.estado} (0 fechado, 1 aberto, 2 semiaberto),
+ * {@code resiliencia.chamadas{resultado=sucesso|falha|rejeitada}} e {@code resiliencia.retentativas}.
+ */
+@Slf4j
+public class ProtecaoChamadas {
+
+    private static final double SALDO_MAXIMO_RETENTATIVAS = 10;
+
+    private final String nome;
+    private final ResilienciaProperties properties;
+    private final CircuitBreaker circuitBreaker;
+
+    private final Counter sucessos;
+    private final Counter falhas;
+    private final Counter rejeitadas;
+    private final Counter retentativas;
+
+    private double saldoRetentativas = SALDO_MAXIMO_RETENTATIVAS;
+
+    public ProtecaoChamadas(String nome, ResilienciaProperties properties, MeterRegistry meterRegistry) {
+        this(nome, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    ProtecaoChamadas(String nome, ResilienciaProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.nome = nome;
+        this.properties = properties;
+        this.circuitBreaker = new CircuitBreaker(nome, properties, clock);
+        this.sucessos = contador(meterRegistry, "sucesso");
+        this.falhas = contador(meterRegistry, "falha");
+        this.rejeitadas = contador(meterRegistry, "rejeitada");
+        this.retentativas = Counter.builder("resiliencia.retentativas")
+                .description("Retentativas de chamadas a serviços downstream")
+                .tag("nome", nome)
+                .register(meterRegistry);
+        Gauge.builder("resiliencia.circuito.estado", circuitBreaker, cb -> cb.estado().ordinal())
+                .description("Estado do circuit breaker (0 fechado, 1 aberto, 2 semiaberto)")
+                .tag("nome", nome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a chamada protegida.
+     *
+     * @param idempotente permite repetir a chamada após falhas de leitura/resposta
+     * @throws CircuitoAbertoException quando o circuito está aberto
+     */
+    public <T> T executar(boolean idempotente, Supplier<T> chamada) {
+        if (!properties.enabled()) return chamada.get();
+
+        int maxTentativas = Math.max(1, properties.maxAttempts());
+        RuntimeException ultimaFalha = null;
+        for (int tentativa = 1; ; tentativa++) {
+            if (!circuitBreaker.permitir()) {
+                // Circuito aberto durante a espera da retentativa: propaga a falha original
+                if (ultimaFalha != null) throw ultimaFalha;
+                rejeitadas.increment();
+                throw new CircuitoAbertoException(nome);
+            }
+            boolean registrada = false;
+            try {
+                T resultado = chamada.get();
+                registrada = true;
+                registrarSucesso();
+                return resultado;
+            } catch (HttpClientErrorException ex) {
+                registrada = true;
+                registrarSucesso();
+                throw ex;
+            } catch (RuntimeException ex) {
+                registrada = true;
+                circuitBreaker.registrarFalha();
+                falhas.increment();
+                if (tentativa >= maxTentativas || !retentavel(ex, idempotente) || !disponivel() || !consumirRetentativa()) {
+                    throw ex;
+                }
+                ultimaFalha = ex;
+                retentativas.increment();
+                log.debug("[ProtecaoChamadas] '{}' tentativa {} falhou ({}). Repetindo.", nome, tentativa, ex.getMessage());
+                aguardar(tentativa);
+            } finally {
+                // Saída sem resultado (Error): devolve a permissão, senão o semiaberto ficaria sem chamadas de teste
+                if (!registrada) circuitBreaker.liberar();
+            }
+        }
+    }
+
+    public void executar(boolean idempotente, Runnable chamada) {
+        executar(idempotente, () -> {
+            chamada.run();
+            return null;
+        });
+    }
+
+    /**
+     * Indica se uma chamada seria aceita agora (circuito fechado ou pronto para teste), sem consumir permissão.
+     */
+    public boolean disponivel() {
+        return !properties.enabled() || circuitBreaker.estado() != CircuitBreaker.Estado.ABERTO;
+    }
+
+    public CircuitBreaker.Estado estado() {
+        return circuitBreaker.estado();
+    }
+
+    private void registrarSucesso() {
+        circuitBreaker.registrarSucesso();
+        sucessos.increment();
+        synchronized (this) {
+            saldoRetentativas = Math.min(SALDO_MAXIMO_RETENTATIVAS, saldoRetentativas + properties.retryBudgetRatio());
+        }
+    }
+
+    private synchronized boolean consumirRetentativa() {
+        if (saldoRetentativas < 1) return false;
+        saldoRetentativas--;
+        return true;
+    }
+
+    private static boolean retentavel(RuntimeException ex, boolean idempotente) {
+        if (ex instanceof HttpServerErrorException servidor) {
+            int status = servidor.getStatusCode().value();
+            return idempotente && (status == 502 || status == 503 || status == 504);
+        }
+        if (ex instanceof ResourceAccessException) {
+            // Sem conexão a requisição não foi enviada: seguro repetir mesmo quando não idempotente
+            return idempotente || ex.getCause() instanceof ConnectException;
+        }
+        return false;
+    }
+
+    private void aguardar(int tentativa) {
+        long baseMs = properties.initialBackoff().toMillis();
+        long esperaMaximaMs = Math.min(properties.maxBackoff().toMillis(), baseMs << Math.min(tentativa - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(esperaMaximaMs + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Retentativa interrompida", ex);
+        }
+    }
+
+    private Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("resiliencia.chamadas")
+                .description("Chamadas a serviços downstream por resultado")
+                .tag("nome", nome)
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+}
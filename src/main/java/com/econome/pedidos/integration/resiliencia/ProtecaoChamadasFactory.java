@@ -0,0 +1,19 @@
+package com.econome.pedidos.integration.resiliencia;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cria a {@link ProtecaoChamadas} de cada serviço downstream com as métricas registradas no {@link MeterRegistry}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProtecaoChamadasFactory {
+
+    private final MeterRegistry meterRegistry;
+
+    public ProtecaoChamadas criar(String nome, ResilienciaProperties properties) {
+        return new ProtecaoChamadas(nome, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,34 @@
+package com.econome.pedidos.integration.resiliencia;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker e retentativas de um serviço downstream (usada como {@code <prefixo>.api.resilience}).
+ *
+ * @param enabled                       desliga breaker e retentativas (chamada direta)
+ * @param slidingWindowSize             quantidade das últimas chamadas consideradas na taxa de falha
+ * @param minimumCalls                  chamadas mínimas na janela antes de avaliar a taxa de falha
+ * @param failureRateThreshold          percentual de falhas (0-100) que abre o circuito
+ * @param waitDurationInOpenState       tempo em aberto antes de liberar chamadas de teste (semiaberto)
+ * @param permittedCallsInHalfOpenState chamadas de teste no estado semiaberto
+ * @param maxAttempts                   tentativas por chamada (1 = sem retentativa)
+ * @param initialBackoff                espera base antes da primeira retentativa (dobra a cada tentativa, com jitter)
+ * @param maxBackoff                    teto da espera entre tentativas
+ * @param retryBudgetRatio              fração das chamadas bem-sucedidas que pode ser gasta em retentativas,
+ *                                      evitando que retentativas multipliquem a carga durante incidentes
+ */
+public record ResilienciaProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") int slidingWindowSize,
+        @DefaultValue("10") int minimumCalls,
+        @DefaultValue("50") int failureRateThreshold,
+        @DefaultValue("30s") Duration waitDurationInOpenState,
+        @DefaultValue("3") int permittedCallsInHalfOpenState,
+        @DefaultValue("2") int maxAttempts,
+        @DefaultValue("100ms") Duration initialBackoff,
+        @DefaultValue("1s") Duration maxBackoff,
+        @DefaultValue("0.2") double retryBudgetRatio
+) {
+}
@@ -1,33 +1,45 @@
 package com.econome.pedidos.integration.transacao.client;
 
+import com.econome.pedidos.integration.resiliencia.ProtecaoChamadas;
 import com.econome.pedidos.integration.transacao.config.TransacoesApiProperties;
 import com.econome.pedidos.integration.transacao.dto.TransacaoCreateRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 
 /**
  * Cliente HTTP para o microserviço de Transações.
+ * Falhas de comunicação são propagadas como {@link TransacoesIntegracaoException} para que o
+ * relay do outbox possa reagendar a entrega. Chamadas passam pelo circuit breaker/retentativas
+ * de {@code transacoesProtecao}; com o circuito aberto falham imediatamente.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class TransacoesClient {
 
-    private RestClient transacoesRestClient;
+    @Qualifier("transacoesRestClient")
+    private final RestClient transacoesRestClient;
     private final TransacoesApiProperties properties;
+    @Qualifier("transacoesProtecao")
+    private final ProtecaoChamadas protecao;
 
-    private RestClient client() {
-        if (transacoesRestClient == null) {
-            String base = properties.baseUrl();
-            if (base.endsWith("/")) base = base.substring(0, base.length() - 1);
-            transacoesRestClient = RestClient.builder().baseUrl(base).build();
-        }
-        return transacoesRestClient;
+    /**
+     * Indica se o serviço pode ser chamado agora (integração desabilitada conta como disponível).
+     */
+    public boolean disponivel() {
+        return !properties.enabled() || protecao.disponivel();
     }
 
+    /**
+     * Cria a transação correspondente ao pedido.
+     *
+     * @throws TransacoesIntegracaoException em falha de comunicação ou status de erro
+     */
     public void criarTransacao(TransacaoCreateRequest request) {
         if (!properties.enabled()) {
             log.debug("[TransacoesClient] Integração desabilitada. Ignorando criação descricao='{}'",
@@ -35,19 +47,26 @@ public class TransacoesClient {
             return;
         }
         try {
-            client().post()
+            protecao.executar(false, () -> transacoesRestClient.post()
                     .uri("/transacao")
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(request)
                     .retrieve()
-                    .toBodilessEntity();
+                    .toBodilessEntity());
             log.info("[TransacoesClient] Criada transação descricao='{}'", request.descricao());
         } catch (Exception ex) {
             log.error("[TransacoesClient] Erro ao criar transação descricao='{}': {}", request.descricao(),
                     ex.getMessage());
+            throw new TransacoesIntegracaoException("Erro ao criar transação do pedido " + request.pedido_id(), ex);
         }
     }
 
+    /**
+     * Localiza a transação do pedido e aplica a atualização parcial.
+     *
+     * @return false quando não existe transação para o pedido (ou integração desabilitada)
+     * @throws TransacoesIntegracaoException em falha de comunicação ou status de erro
+     */
     public boolean atualizarTransacaoPorPedido(Long pedidoId, Object payloadParcial) {
         if (!properties.enabled()) {
             log.debug("[TransacoesClient] Integração desabilitada. Ignorando update pedidoId={}", pedidoId);
@@ -55,26 +74,29 @@ public class TransacoesClient {
         }
         try {
             // 1) Buscar a transação pelo pedido_id
-            TransacaoResponse transacao = client().get()
+            TransacaoResponse transacao = protecao.executar(true, () -> transacoesRestClient.get()
                     .uri("/transacoes/pedido/{pedidoId}", pedidoId)
                     .retrieve()
-                    .body(TransacaoResponse.class);
+                    .body(TransacaoResponse.class));
             if (transacao == null || transacao.id() == null) {
                 log.warn("[TransacoesClient] Nenhuma transação encontrada para pedidoId={}", pedidoId);
                 return false;
             }
             // 2) Atualizar usando endpoint de update por id
-            client().put()
+            protecao.executar(true, () -> transacoesRestClient.put()
                     .uri("/transacao/{id}", transacao.id())
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(payloadParcial)
                     .retrieve()
-                    .toBodilessEntity();
+                    .toBodilessEntity());
             log.info("[TransacoesClient] Atualizada transação id={} (pedidoId={})", transacao.id(), pedidoId);
             return true;
+        } catch (HttpClientErrorException.NotFound ex) {
+            log.warn("[TransacoesClient] Nenhuma transação encontrada para pedidoId={}", pedidoId);
+            return false;
         } catch (Exception ex) {
             log.error("[TransacoesClient] Erro ao atualizar transação pedidoId={}: {}", pedidoId, ex.getMessage());
-            return false;
+            throw new TransacoesIntegracaoException("Erro ao atualizar transação do pedido " + pedidoId, ex);
         }
     }
 
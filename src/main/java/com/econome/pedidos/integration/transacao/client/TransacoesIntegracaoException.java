@@ -0,0 +1,11 @@
+package com.econome.pedidos.integration.transacao.client;
+
+/**
+ * Falha de comunicação com o microserviço de Transações.
+ * Propagada para que o relay do outbox reagende a entrega do evento.
+ */
+public class TransacoesIntegracaoException extends RuntimeException {
+    public TransacoesIntegracaoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,6 +1,9 @@
 package com.econome.pedidos.integration.transacao.config;
 
+import com.econome.pedidos.integration.http.HttpClienteProperties;
+import com.econome.pedidos.integration.resiliencia.ResilienciaProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 /**
  * Propriedades de configuração da integração com o microserviço de Transações.
@@ -10,7 +13,11 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public record TransacoesApiProperties(
         String baseUrl,
         // Aceita valores problemáticos como "=true", "true", "false", "1", "0", etc.
-        String enabledRaw) {
+        String enabledRaw,
+        // Pool de conexões e timeouts do cliente HTTP
+        @DefaultValue HttpClienteProperties http,
+        // Circuit breaker e retentativas
+        @DefaultValue ResilienciaProperties resilience) {
 
     /**
      * Interpreta o valor de enabled com tolerância a formatos inválidos.
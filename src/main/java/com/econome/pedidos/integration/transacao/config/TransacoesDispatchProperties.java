@@ -0,0 +1,23 @@
+package com.econome.pedidos.integration.transacao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Propriedades do despacho assíncrono das entregas ao microserviço de Transações.
+ * Prefixo: transacoes.dispatch
+ *
+ * @param maxConcurrency  chamadas simultâneas ao serviço de Transações (bulkhead)
+ * @param queueCapacity   entregas aceitas aguardando permissão; acima disso a entrega é rejeitada
+ *                        e o evento volta para o outbox
+ * @param shutdownTimeout tempo máximo para concluir entregas em andamento no desligamento
+ */
+@ConfigurationProperties(prefix = "transacoes.dispatch")
+public record TransacoesDispatchProperties(
+        @DefaultValue("16") int maxConcurrency,
+        @DefaultValue("256") int queueCapacity,
+        @DefaultValue("30s") Duration shutdownTimeout
+) {
+}
@@ -1,21 +1,31 @@
 package com.econome.pedidos.integration.transacao.config;
 
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import com.econome.pedidos.integration.http.HttpClienteFactory;
+import com.econome.pedidos.integration.resiliencia.ProtecaoChamadas;
+import com.econome.pedidos.integration.resiliencia.ProtecaoChamadasFactory;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestClient;
 
 /**
  * Configuração de beans para integração com o microserviço de Transações.
+ * Habilita o agendamento usado pelo relay do outbox.
  */
 @Configuration
-@EnableConfigurationProperties(TransacoesApiProperties.class)
+@EnableScheduling
+@EnableConfigurationProperties({TransacoesApiProperties.class, TransacoesOutboxProperties.class,
+        TransacoesDispatchProperties.class})
 public class TransacoesIntegrationConfiguration {
 
     @Bean(name = "transacoesRestClient")
-    @ConditionalOnProperty(prefix = "transacoes.api", name = "enabled", havingValue = "true", matchIfMissing = true)
-    RestClient transacoesRestClient(TransacoesApiProperties props, RestClient.Builder builder) {
-        return builder.baseUrl(props.baseUrl()).build();
+    RestClient transacoesRestClient(TransacoesApiProperties props, HttpClienteFactory httpClienteFactory) {
+        return httpClienteFactory.criar("transacoes", props.baseUrl(), props.http());
+    }
+
+    @Bean(name = "transacoesProtecao")
+    ProtecaoChamadas transacoesProtecao(TransacoesApiProperties props, ProtecaoChamadasFactory factory) {
+        return factory.criar("transacoes", props.resilience());
     }
 }
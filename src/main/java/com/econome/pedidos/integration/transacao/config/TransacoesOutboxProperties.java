@@ -0,0 +1,35 @@
+package com.econome.pedidos.integration.transacao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Propriedades do outbox de integração com Transações.
+ * Prefixo: transacoes.outbox
+ *
+ * @param pollInterval   intervalo entre ciclos do relay (lido também pelo {@code @Scheduled})
+ * @param batchSize      eventos reservados por consulta
+ * @param maxAttempts    tentativas antes de marcar o evento como FALHA
+ * @param initialBackoff espera após a primeira falha (dobra a cada nova falha, com jitter)
+ * @param maxBackoff     teto da espera entre tentativas
+ * @param leaseTimeout   validade da reserva de um evento em processamento; renovada quando a entrega sai da fila
+ *                       de despacho
+ * @param retention      tempo que eventos processados permanecem na tabela
+ * @param coalesceWindow espera de um evento de atualização antes da entrega; atualizações seguintes do mesmo
+ *                       pedido nesse intervalo são agrupadas e só o estado mais recente é enviado ({@code 0}
+ *                       entrega sem esperar, agrupando apenas o que já estiver acumulado)
+ */
+@ConfigurationProperties(prefix = "transacoes.outbox")
+public record TransacoesOutboxProperties(
+        @DefaultValue("1s") Duration pollInterval,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("10") int maxAttempts,
+        @DefaultValue("1s") Duration initialBackoff,
+        @DefaultValue("5m") Duration maxBackoff,
+        @DefaultValue("2m") Duration leaseTimeout,
+        @DefaultValue("7d") Duration retention,
+        @DefaultValue("2s") Duration coalesceWindow
+) {
+}
@@ -0,0 +1,12 @@
+package com.econome.pedidos.integration.transacao.event;
+
+import java.util.List;
+
+/**
+ * Eventos de integração de um chunk do cadastro em lote, publicados de uma vez ao final do chunk
+ * (mesma transação) para que o outbox seja gravado com um único saveAll.
+ */
+public record PedidosLoteProcessadoEvent(
+        List<PedidoCriadoEvent> criados,
+        List<PedidoAtualizadoEvent> atualizados) {
+}
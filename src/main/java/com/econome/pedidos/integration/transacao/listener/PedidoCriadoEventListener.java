@@ -6,23 +6,23 @@ import com.econome.pedidos.integration.transacao.event.PedidoCriadoEvent;
 import com.econome.pedidos.enums.TipoPedido;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.event.TransactionPhase;
-import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.BigDecimal;
 import java.util.Objects;
 
+/**
+ * Reage ao evento de criação de Pedido criando/atualizando a transação correspondente.
+ * Invocado pelo {@link com.econome.pedidos.integration.transacao.outbox.OutboxRelay} a partir do outbox;
+ * exceções propagadas fazem o relay reagendar a entrega.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-@ConditionalOnBean(TransacoesClient.class)
 public class PedidoCriadoEventListener {
 
     private final TransacoesClient transacoesClient;
 
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void onPedidoCriado(PedidoCriadoEvent event) {
         if (!event.faturado()) {
             log.debug("[PedidoCriadoEventListener] Pedido {} não FATURADO. Nenhuma transação.", event.idPedido());
@@ -0,0 +1,123 @@
+package com.econome.pedidos.integration.transacao.outbox;
+
+import com.econome.pedidos.integration.transacao.config.TransacoesDispatchProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor das entregas ao serviço de Transações: uma virtual thread por entrega, com
+ * <ul>
+ *     <li>limite de chamadas simultâneas ({@code max-concurrency});</li>
+ *     <li>fila limitada ({@code queue-capacity}) — acima dela {@link #tentarExecutar} recusa a tarefa
+ *     e o chamador decide o que fazer (o relay devolve o evento ao outbox);</li>
+ *     <li>drenagem no desligamento: novas tarefas são recusadas e as aceitas têm até
+ *     {@code shutdown-timeout} para terminar.</li>
+ * </ul>
+ * Métricas: {@code pedidos.transacoes.despacho.ativos}, {@code pedidos.transacoes.despacho.fila}
+ * e {@code pedidos.transacoes.despacho.rejeitados}.
+ */
+@Slf4j
+@Component
+public class DespachoTransacoesExecutor {
+
+    private final TransacoesDispatchProperties properties;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("transacoes-despacho-", 0).factory());
+    // Vagas = execução + fila; permissões = chamadas simultâneas ao serviço remoto
+    private final Semaphore vagas;
+    private final Semaphore permissoes;
+    private final AtomicInteger ativos = new AtomicInteger();
+    private final Counter rejeitados;
+    private volatile boolean encerrando;
+
+    public DespachoTransacoesExecutor(TransacoesDispatchProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        int maxConcorrencia = Math.max(1, properties.maxConcurrency());
+        this.permissoes = new Semaphore(maxConcorrencia);
+        this.vagas = new Semaphore(maxConcorrencia + Math.max(0, properties.queueCapacity()));
+        this.rejeitados = Counter.builder("pedidos.transacoes.despacho.rejeitados")
+                .description("Entregas recusadas por fila cheia ou desligamento")
+                .register(meterRegistry);
+        Gauge.builder("pedidos.transacoes.despacho.ativos", ativos, AtomicInteger::get)
+                .description("Chamadas ao serviço de Transações em andamento")
+                .register(meterRegistry);
+        Gauge.builder("pedidos.transacoes.despacho.fila", this, DespachoTransacoesExecutor::aguardando)
+                .description("Entregas aceitas aguardando permissão de execução")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Agenda a tarefa se houver vaga.
+     *
+     * @return false quando a fila está cheia ou o executor está encerrando (a tarefa não será executada)
+     */
+    public boolean tentarExecutar(Runnable tarefa) {
+        if (encerrando || !vagas.tryAcquire()) {
+            rejeitados.increment();
+            return false;
+        }
+        try {
+            executor.execute(() -> executarComPermissao(tarefa));
+            return true;
+        } catch (RejectedExecutionException ex) {
+            vagas.release();
+            rejeitados.increment();
+            return false;
+        }
+    }
+
+    private void executarComPermissao(Runnable tarefa) {
+        try {
+            permissoes.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            vagas.release();
+            return;
+        }
+        ativos.incrementAndGet();
+        try {
+            tarefa.run();
+        } catch (RuntimeException ex) {
+            log.error("[DespachoTransacoesExecutor] Erro não tratado na entrega: {}", ex.getMessage(), ex);
+        } finally {
+            ativos.decrementAndGet();
+            permissoes.release();
+            vagas.release();
+        }
+    }
+
+    private double aguardando() {
+        int capacidade = Math.max(1, properties.maxConcurrency()) + Math.max(0, properties.queueCapacity());
+        return Math.max(0, capacidade - vagas.availablePermits() - ativos.get());
+    }
+
+    /**
+     * Para de aceitar tarefas e aguarda as aceitas. Entregas interrompidas ficam reservadas no outbox
+     * e voltam a ser elegíveis quando o lease expira.
+     */
+    @PreDestroy
+    public void encerrar() {
+        encerrando = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(properties.shutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("[DespachoTransacoesExecutor] Entregas não concluídas em {}. Interrompendo.", properties.shutdownTimeout());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.econome.pedidos.integration.transacao.outbox;
+
+import com.econome.domain.OutboxEvento;
+import com.econome.pedidos.enums.StatusOutbox;
+import com.econome.pedidos.enums.TipoEventoOutbox;
+import com.econome.pedidos.integration.transacao.config.TransacoesOutboxProperties;
+import com.econome.pedidos.integration.transacao.event.PedidoAtualizadoEvent;
+import com.econome.repository.OutboxEventoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Operações transacionais do outbox usadas pelo relay. Cada método é uma transação curta;
+ * a entrega HTTP acontece fora delas.
+ * <p>
+ * Métrica {@code pedidos.outbox.eventos{resultado=coalescido}}: atualizações agrupadas em outro evento,
+ * sem chamada própria ao serviço de Transações.
+ */
+@Slf4j
+@Service
+public class OutboxEventoService {
+
+    private static final int TAMANHO_MAXIMO_ERRO = 1000;
+
+    private final OutboxEventoRepository outboxEventoRepository;
+    private final TransacoesOutboxProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Counter eventosCoalescidos;
+
+    public OutboxEventoService(OutboxEventoRepository outboxEventoRepository,
+                               TransacoesOutboxProperties properties,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this.outboxEventoRepository = outboxEventoRepository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.eventosCoalescidos = Counter.builder("pedidos.outbox.eventos")
+                .description("Eventos do outbox processados pelo relay")
+                .tag("resultado", "coalescido")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserva até {@code tamanho} eventos prontos (no máximo um por pedido, o mais antigo),
+     * marcando-os como PROCESSANDO até o fim do lease.
+     * <p>
+     * Um PEDIDO_ATUALIZADO reservado absorve as atualizações pendentes seguintes do mesmo pedido: passa a
+     * carregar o estado da mais recente (mantendo o {@code faturadoAnterior} do primeiro, que decide entre
+     * criar e atualizar a transação) e as demais são marcadas como COALESCIDO sem entrega. A ordem por pedido
+     * se mantém, pois só a sequência de atualizações logo após o reservado é absorvida: um evento de outro tipo
+     * interrompe o agrupamento.
+     */
+    @Transactional
+    public List<OutboxEvento> reservarLote(int tamanho) {
+        Instant agora = Instant.now();
+        outboxEventoRepository.liberarReservasExpiradas(agora);
+        List<OutboxEvento> lote = outboxEventoRepository.reservarProntos(agora, Limit.of(tamanho));
+        Instant fimReserva = fimReserva(agora);
+        lote.forEach(evento -> {
+            evento.setStatus(StatusOutbox.PROCESSANDO);
+            evento.setProximaTentativaEm(fimReserva);
+        });
+        coalescerAtualizacoes(lote, agora);
+        return lote;
+    }
+
+    /**
+     * Renova o lease no momento em que a entrega sai da fila de despacho, já que a espera na fila pode passar
+     * do {@code lease-timeout}. Se a reserva já expirou e foi liberada, o evento pertence a outro ciclo e esta
+     * entrega não deve acontecer (evita enviar o mesmo evento duas vezes).
+     *
+     * @return true se a reserva continua deste ciclo e foi estendida
+     */
+    @Transactional
+    public boolean iniciarEntrega(OutboxEvento evento) {
+        Instant novoFim = fimReserva(Instant.now());
+        if (outboxEventoRepository.renovarReserva(evento.getId(), evento.getProximaTentativaEm(), novoFim) == 0) {
+            return false;
+        }
+        evento.setProximaTentativaEm(novoFim);
+        return true;
+    }
+
+    @Transactional
+    public void marcarProcessado(Long id) {
+        outboxEventoRepository.findById(id).ifPresent(evento -> {
+            evento.setStatus(StatusOutbox.PROCESSADO);
+            evento.setProcessadoEm(Instant.now());
+            evento.setUltimoErro(null);
+        });
+    }
+
+    /**
+     * Devolve um evento reservado ao outbox sem contar tentativa (entrega não chegou a ser feita).
+     */
+    @Transactional
+    public void liberarReserva(Long id) {
+        outboxEventoRepository.findById(id).ifPresent(evento -> {
+            evento.setStatus(StatusOutbox.PENDENTE);
+            evento.setProximaTentativaEm(Instant.now());
+        });
+    }
+
+    /**
+     * Registra falha de entrega e reagenda com backoff exponencial (com jitter).
+     *
+     * @return true se as tentativas se esgotaram e o evento foi marcado como FALHA
+     */
+    @Transactional
+    public boolean registrarFalha(Long id, String erro) {
+        return outboxEventoRepository.findById(id).map(evento -> {
+            evento.setTentativas(evento.getTentativas() + 1);
+            evento.setUltimoErro(truncar(erro));
+            boolean esgotado = evento.getTentativas() >= properties.maxAttempts();
+            evento.setStatus(esgotado ? StatusOutbox.FALHA : StatusOutbox.PENDENTE);
+            evento.setProximaTentativaEm(Instant.now().plus(backoff(evento.getTentativas())));
+            return esgotado;
+        }).orElse(false);
+    }
+
+    @Transactional
+    public int purgarProcessados() {
+        return outboxEventoRepository.excluirProcessadosAntesDe(List.of(StatusOutbox.PROCESSADO, StatusOutbox.COALESCIDO),
+                Instant.now().minus(properties.retention()));
+    }
+
+    @Transactional(readOnly = true)
+    public long contarPendentes() {
+        return outboxEventoRepository.countByStatus(StatusOutbox.PENDENTE);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Instant> criacaoPendenteMaisAntiga() {
+        return outboxEventoRepository.findFirstByStatusOrderByIdAsc(StatusOutbox.PENDENTE)
+                .map(OutboxEvento::getCriadoEm);
+    }
+
+    /**
+     * Fim do lease, na precisão da coluna (DATETIME(6)) para servir de identificador da reserva.
+     */
+    private Instant fimReserva(Instant agora) {
+        return agora.plus(properties.leaseTimeout()).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private void coalescerAtualizacoes(List<OutboxEvento> lote, Instant agora) {
+        Map<Long, OutboxEvento> reservados = new HashMap<>();
+        lote.stream()
+                .filter(evento -> evento.getTipoEvento() == TipoEventoOutbox.PEDIDO_ATUALIZADO)
+                .forEach(evento -> reservados.put(evento.getPedidoId(), evento));
+        if (reservados.isEmpty()) return;
+
+        // Apenas a sequência contínua de atualizações logo após o evento reservado
+        Map<Long, List<OutboxEvento>> seguintes = new HashMap<>();
+        Set<Long> interrompidos = new HashSet<>();
+        for (OutboxEvento pendente : outboxEventoRepository.findByPedidoIdInAndStatusOrderByIdAsc(
+                reservados.keySet(), StatusOutbox.PENDENTE)) {
+            Long pedidoId = pendente.getPedidoId();
+            if (interrompidos.contains(pedidoId) || pendente.getId() < reservados.get(pedidoId).getId()) continue;
+            if (pendente.getTipoEvento() != TipoEventoOutbox.PEDIDO_ATUALIZADO) {
+                interrompidos.add(pedidoId);
+                continue;
+            }
+            seguintes.computeIfAbsent(pedidoId, id -> new ArrayList<>()).add(pendente);
+        }
+
+        seguintes.forEach((pedidoId, agrupados) -> {
+            OutboxEvento reservado = reservados.get(pedidoId);
+            OutboxEvento maisRecente = agrupados.getLast();
+            try {
+                reservado.setPayload(mesclar(reservado.getPayload(), maisRecente.getPayload()));
+            } catch (JsonProcessingException ex) {
+                log.warn("[OutboxEventoService] Payload inválido no pedido {}; eventos entregues sem agrupamento: {}",
+                        pedidoId, ex.getMessage());
+                return;
+            }
+            agrupados.forEach(evento -> {
+                evento.setStatus(StatusOutbox.COALESCIDO);
+                evento.setProcessadoEm(agora);
+            });
+            eventosCoalescidos.increment(agrupados.size());
+            log.debug("[OutboxEventoService] {} atualizações do pedido {} agrupadas no evento {}",
+                    agrupados.size(), pedidoId, reservado.getId());
+        });
+    }
+
+    /**
+     * Estado mais recente com o {@code faturadoAnterior} da primeira atualização do grupo.
+     */
+    private String mesclar(String primeiro, String maisRecente) throws JsonProcessingException {
+        PedidoAtualizadoEvent inicial = objectMapper.readValue(primeiro, PedidoAtualizadoEvent.class);
+        PedidoAtualizadoEvent atual = objectMapper.readValue(maisRecente, PedidoAtualizadoEvent.class);
+        return objectMapper.writeValueAsString(new PedidoAtualizadoEvent(atual.idPedido(), atual.numeroPedido(),
+                atual.tipoPedido(), atual.valorTotal(), atual.faturadoAtual(), inicial.faturadoAnterior(),
+                atual.dataVencimento(), atual.pago(), atual.dataPagamento(), atual.participanteId()));
+    }
+
+    /**
+     * Backoff exponencial limitado ao máximo configurado, com "equal jitter" (metade fixa, metade aleatória)
+     * para evitar que eventos que falharam juntos sejam reprocessados juntos.
+     */
+    private Duration backoff(int tentativas) {
+        long inicialMs = properties.initialBackoff().toMillis();
+        long maximoMs = properties.maxBackoff().toMillis();
+        long exponencialMs = inicialMs << Math.min(tentativas - 1, 30);
+        long esperaMs = Math.min(maximoMs, exponencialMs > 0 ? exponencialMs : maximoMs);
+        long metade = esperaMs / 2;
+        return Duration.ofMillis(metade + ThreadLocalRandom.current().nextLong(metade + 1));
+    }
+
+    private String truncar(String erro) {
+        if (erro == null) return null;
+        return erro.length() <= TAMANHO_MAXIMO_ERRO ? erro : erro.substring(0, TAMANHO_MAXIMO_ERRO);
+    }
+}
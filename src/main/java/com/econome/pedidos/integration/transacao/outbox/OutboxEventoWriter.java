@@ -0,0 +1,113 @@
+package com.econome.pedidos.integration.transacao.outbox;
+
+import com.econome.domain.OutboxEvento;
+import com.econome.pedidos.enums.StatusOutbox;
+import com.econome.pedidos.enums.TipoEventoOutbox;
+import com.econome.pedidos.integration.transacao.config.TransacoesApiProperties;
+import com.econome.pedidos.integration.transacao.config.TransacoesOutboxProperties;
+import com.econome.pedidos.integration.transacao.event.PedidoAtualizadoEvent;
+import com.econome.pedidos.integration.transacao.event.PedidoCriadoEvent;
+import com.econome.pedidos.integration.transacao.event.PedidosLoteProcessadoEvent;
+import com.econome.repository.OutboxEventoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grava os eventos de Pedido relevantes para Transações no outbox, dentro da transação que
+ * persistiu o Pedido: o evento só existe se o Pedido for confirmado, e nenhuma chamada HTTP
+ * acontece na requisição. A entrega é responsabilidade do {@link OutboxRelay}.
+ * <p>
+ * Atualizações só ficam prontas após {@code transacoes.outbox.coalesce-window}, para que edições em sequência
+ * do mesmo pedido sejam agrupadas na reserva ({@link OutboxEventoService#reservarLote(int)}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxEventoWriter {
+
+    private final OutboxEventoRepository outboxEventoRepository;
+    private final ObjectMapper objectMapper;
+    private final TransacoesApiProperties transacoesApiProperties;
+    private final TransacoesOutboxProperties transacoesOutboxProperties;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onPedidoCriado(PedidoCriadoEvent event) {
+        if (!event.faturado()) {
+            log.debug("[OutboxEventoWriter] Pedido {} não FATURADO. Nenhum evento gravado.", event.idPedido());
+            return;
+        }
+        registrar(event.idPedido(), TipoEventoOutbox.PEDIDO_CRIADO, event);
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onPedidoAtualizado(PedidoAtualizadoEvent event) {
+        if (!event.faturadoAtual()) {
+            log.debug("[OutboxEventoWriter] Pedido {} não FATURADO após update. Nenhum evento gravado.", event.idPedido());
+            return;
+        }
+        registrar(event.idPedido(), TipoEventoOutbox.PEDIDO_ATUALIZADO, event);
+    }
+
+    /**
+     * Grava de uma vez os eventos FATURADO de um chunk do cadastro em lote.
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onLoteProcessado(PedidosLoteProcessadoEvent event) {
+        if (!transacoesApiProperties.enabled()) {
+            log.debug("[OutboxEventoWriter] Integração desabilitada. Ignorando eventos do lote");
+            return;
+        }
+        Instant agora = Instant.now();
+        List<OutboxEvento> eventos = new ArrayList<>();
+        event.criados().stream()
+                .filter(PedidoCriadoEvent::faturado)
+                .forEach(criado -> eventos.add(novoEvento(criado.idPedido(), TipoEventoOutbox.PEDIDO_CRIADO, criado, agora)));
+        event.atualizados().stream()
+                .filter(PedidoAtualizadoEvent::faturadoAtual)
+                .forEach(atualizado -> eventos.add(novoEvento(atualizado.idPedido(), TipoEventoOutbox.PEDIDO_ATUALIZADO, atualizado, agora)));
+        outboxEventoRepository.saveAll(eventos);
+        log.debug("[OutboxEventoWriter] {} eventos do lote gravados no outbox", eventos.size());
+    }
+
+    private void registrar(Long pedidoId, TipoEventoOutbox tipo, Object event) {
+        if (!transacoesApiProperties.enabled()) {
+            log.debug("[OutboxEventoWriter] Integração desabilitada. Ignorando {} pedidoId={}", tipo, pedidoId);
+            return;
+        }
+        outboxEventoRepository.save(novoEvento(pedidoId, tipo, event, Instant.now()));
+    }
+
+    private OutboxEvento novoEvento(Long pedidoId, TipoEventoOutbox tipo, Object event, Instant agora) {
+        OutboxEvento evento = new OutboxEvento();
+        evento.setPedidoId(pedidoId);
+        evento.setTipoEvento(tipo);
+        evento.setPayload(serializar(event));
+        evento.setStatus(StatusOutbox.PENDENTE);
+        evento.setCriadoEm(agora);
+        evento.setProximaTentativaEm(tipo == TipoEventoOutbox.PEDIDO_ATUALIZADO
+                ? agora.plus(transacoesOutboxProperties.coalesceWindow())
+                : agora);
+        return evento;
+    }
+
+    private String serializar(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Falha ao serializar evento de outbox " + event.getClass().getSimpleName(), ex);
+        }
+    }
+}
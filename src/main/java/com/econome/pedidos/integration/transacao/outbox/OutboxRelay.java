@@ -0,0 +1,175 @@
+package com.econome.pedidos.integration.transacao.outbox;
+
+import com.econome.domain.OutboxEvento;
+import com.econome.pedidos.integration.transacao.client.TransacoesClient;
+import com.econome.pedidos.integration.transacao.config.TransacoesOutboxProperties;
+import com.econome.pedidos.integration.transacao.event.PedidoAtualizadoEvent;
+import com.econome.pedidos.integration.transacao.event.PedidoCriadoEvent;
+import com.econome.pedidos.integration.transacao.listener.PedidoAtualizadoEventListener;
+import com.econome.pedidos.integration.transacao.listener.PedidoCriadoEventListener;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relay do outbox: drena eventos pendentes em lotes e os entrega aos listeners de integração
+ * (que chamam o microserviço de Transações). Falhas são reagendadas com backoff; a ordem por
+ * pedido é garantida pela reserva (só o evento mais antigo de cada pedido é elegível).
+ * <p>
+ * As entregas rodam em paralelo no {@link DespachoTransacoesExecutor}, então um serviço de Transações
+ * lento não serializa o relay. Quando o executor recusa (fila cheia), o evento volta ao outbox e o
+ * ciclo termina, retomando no próximo poll. O lease é renovado quando a entrega sai da fila; se expirou
+ * enquanto aguardava e o evento já voltou ao outbox, a entrega é abandonada para não duplicar a chamada. Com o circuito do serviço de Transações aberto o ciclo não
+ * reserva eventos, evitando consumir tentativas de entrega que falhariam imediatamente.
+ * <p>
+ * Métricas:
+ * <ul>
+ *     <li>{@code pedidos.outbox.eventos{resultado=entregue|falha|descartado|coalescido}} — throughput; {@code entregue}
+ *     corresponde às chamadas ao serviço de Transações e {@code coalescido} às atualizações agrupadas sem chamada</li>
+ *     <li>{@code pedidos.outbox.atraso} — tempo entre gravação e entrega de cada evento</li>
+ *     <li>{@code pedidos.outbox.lag} — idade (s) do evento pendente mais antigo</li>
+ *     <li>{@code pedidos.outbox.pendentes} — eventos aguardando entrega</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventoService outboxEventoService;
+    private final PedidoCriadoEventListener pedidoCriadoEventListener;
+    private final PedidoAtualizadoEventListener pedidoAtualizadoEventListener;
+    private final ObjectMapper objectMapper;
+    private final TransacoesOutboxProperties properties;
+    private final DespachoTransacoesExecutor despachoExecutor;
+    private final TransacoesClient transacoesClient;
+
+    private final Counter eventosEntregues;
+    private final Counter eventosComFalha;
+    private final Counter eventosDescartados;
+    private final Timer atrasoEntrega;
+    private final AtomicLong lagSegundos = new AtomicLong();
+    private final AtomicLong pendentes = new AtomicLong();
+
+    public OutboxRelay(OutboxEventoService outboxEventoService,
+                       PedidoCriadoEventListener pedidoCriadoEventListener,
+                       PedidoAtualizadoEventListener pedidoAtualizadoEventListener,
+                       ObjectMapper objectMapper,
+                       TransacoesOutboxProperties properties,
+                       DespachoTransacoesExecutor despachoExecutor,
+                       TransacoesClient transacoesClient,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventoService = outboxEventoService;
+        this.pedidoCriadoEventListener = pedidoCriadoEventListener;
+        this.pedidoAtualizadoEventListener = pedidoAtualizadoEventListener;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.despachoExecutor = despachoExecutor;
+        this.transacoesClient = transacoesClient;
+        this.eventosEntregues = contador(meterRegistry, "entregue");
+        this.eventosComFalha = contador(meterRegistry, "falha");
+        this.eventosDescartados = contador(meterRegistry, "descartado");
+        this.atrasoEntrega = Timer.builder("pedidos.outbox.atraso")
+                .description("Tempo entre a gravação do evento no outbox e a entrega ao serviço de Transações")
+                .register(meterRegistry);
+        Gauge.builder("pedidos.outbox.lag", lagSegundos, AtomicLong::get)
+                .description("Idade do evento pendente mais antigo")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("pedidos.outbox.pendentes", pendentes, AtomicLong::get)
+                .description("Eventos aguardando entrega")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserva e entrega lotes enquanto houver eventos prontos.
+     */
+    @Scheduled(fixedDelayString = "${transacoes.outbox.poll-interval:1s}")
+    public void drenar() {
+        if (!transacoesClient.disponivel()) {
+            log.debug("[OutboxRelay] Circuito de Transações aberto; ciclo ignorado");
+            atualizarIndicadores();
+            return;
+        }
+        int tamanhoLote = Math.max(1, properties.batchSize());
+        List<OutboxEvento> lote;
+        boolean saturado = false;
+        do {
+            lote = outboxEventoService.reservarLote(tamanhoLote);
+            for (OutboxEvento evento : lote) {
+                if (saturado || !despachoExecutor.tentarExecutar(() -> entregar(evento))) {
+                    saturado = true;
+                    outboxEventoService.liberarReserva(evento.getId());
+                }
+            }
+        } while (!saturado && lote.size() == tamanhoLote);
+        if (saturado) {
+            log.debug("[OutboxRelay] Despacho saturado; eventos restantes ficam para o próximo ciclo");
+        }
+        atualizarIndicadores();
+    }
+
+    @Scheduled(cron = "${transacoes.outbox.purge-cron:0 0 3 * * *}")
+    public void purgar() {
+        int removidos = outboxEventoService.purgarProcessados();
+        log.info("[OutboxRelay] {} eventos processados removidos do outbox", removidos);
+    }
+
+    private void entregar(OutboxEvento evento) {
+        if (!outboxEventoService.iniciarEntrega(evento)) {
+            log.warn("[OutboxRelay] Reserva do evento {} do pedido {} expirou na fila de despacho; entrega descartada neste ciclo",
+                    evento.getId(), evento.getPedidoId());
+            return;
+        }
+        try {
+            despachar(evento);
+            outboxEventoService.marcarProcessado(evento.getId());
+            eventosEntregues.increment();
+            atrasoEntrega.record(Duration.between(evento.getCriadoEm(), Instant.now()));
+        } catch (Exception ex) {
+            boolean descartado = outboxEventoService.registrarFalha(evento.getId(), ex.getMessage());
+            if (descartado) {
+                eventosDescartados.increment();
+                log.error("[OutboxRelay] Evento {} ({}) do pedido {} descartado após {} tentativas: {}",
+                        evento.getId(), evento.getTipoEvento(), evento.getPedidoId(), properties.maxAttempts(), ex.getMessage());
+            } else {
+                eventosComFalha.increment();
+                log.warn("[OutboxRelay] Falha ao entregar evento {} ({}) do pedido {}. Nova tentativa agendada: {}",
+                        evento.getId(), evento.getTipoEvento(), evento.getPedidoId(), ex.getMessage());
+            }
+        }
+    }
+
+    private void despachar(OutboxEvento evento) throws JsonProcessingException {
+        switch (evento.getTipoEvento()) {
+            case PEDIDO_CRIADO -> pedidoCriadoEventListener.onPedidoCriado(
+                    objectMapper.readValue(evento.getPayload(), PedidoCriadoEvent.class));
+            case PEDIDO_ATUALIZADO -> pedidoAtualizadoEventListener.onPedidoAtualizado(
+                    objectMapper.readValue(evento.getPayload(), PedidoAtualizadoEvent.class));
+        }
+    }
+
+    private void atualizarIndicadores() {
+        pendentes.set(outboxEventoService.contarPendentes());
+        lagSegundos.set(outboxEventoService.criacaoPendenteMaisAntiga()
+                .map(criadoEm -> Math.max(0, Duration.between(criadoEm, Instant.now()).toSeconds()))
+                .orElse(0L));
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("pedidos.outbox.eventos")
+                .description("Eventos do outbox processados pelo relay")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+}
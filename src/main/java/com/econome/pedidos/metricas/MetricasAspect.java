@@ -0,0 +1,64 @@
+package com.econome.pedidos.metricas;
+
+import com.econome.pedidos.exception.PedidoNaoEncontradoException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolationException;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timers dos pontos quentes da aplicação, com tags {@code operacao} e {@code resultado}
+ * ({@code sucesso}, {@code nao_encontrado}, {@code invalido}, {@code erro}).
+ * <ul>
+ *     <li>{@code pedidos.servico}: todos os métodos de {@link com.econome.pedidos.service.PedidoService}.</li>
+ *     <li>{@code pedidos.integracao.listener}: listeners de integração com Transações (entregas do outbox),
+ *     com tag {@code listener}.</li>
+ * </ul>
+ * A contagem por resultado vem do próprio timer ({@code _count} no Prometheus).
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MetricasAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.econome.pedidos.service.PedidoService+.*(..))")
+    public Object medirServico(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(joinPoint, Timer.builder("pedidos.servico")
+                .description("Execução das operações do serviço de Pedidos"));
+    }
+
+    @Around("execution(public * com.econome.pedidos.integration.transacao.listener..*(..))")
+    public Object medirListener(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(joinPoint, Timer.builder("pedidos.integracao.listener")
+                .description("Execução dos listeners de integração com Transações")
+                .tag("listener", joinPoint.getSignature().getDeclaringType().getSimpleName()));
+    }
+
+    private Object medir(ProceedingJoinPoint joinPoint, Timer.Builder timer) throws Throwable {
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        String resultado = "sucesso";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            resultado = classificar(ex);
+            throw ex;
+        } finally {
+            amostra.stop(timer
+                    .tag("operacao", joinPoint.getSignature().getName())
+                    .tag("resultado", resultado)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String classificar(Throwable ex) {
+        if (ex instanceof PedidoNaoEncontradoException) return "nao_encontrado";
+        if (ex instanceof ConstraintViolationException || ex instanceof IllegalArgumentException) return "invalido";
+        return "erro";
+    }
+}
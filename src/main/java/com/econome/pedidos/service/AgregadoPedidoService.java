@@ -0,0 +1,203 @@
+package com.econome.pedidos.service;
+
+import com.econome.domain.AgregadoPedido;
+import com.econome.domain.ChaveAgregadoPedido;
+import com.econome.pedidos.config.PedidosProperties;
+import com.econome.pedidos.dto.PedidoAgregadoFiltro;
+import com.econome.pedidos.dto.PedidoAgregadoResponse;
+import com.econome.pedidos.dto.ReconstrucaoAgregadosResponse;
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import com.econome.repository.AgregadoPedidoRepository;
+import com.econome.repository.PedidoAgregavel;
+import com.econome.repository.PedidoRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Mantém a tabela de agregados de pedidos (totais por participante, tipo, situação e mês de emissão).
+ * <p>
+ * Cada escrita em pedidos aplica um {@link DeltaAgregados} na mesma transação, com upserts que somam a variação
+ * ao grupo (sem recálculo). A reconstrução recalcula tudo a partir da tabela de pedidos: preenchimento inicial
+ * (tabela vazia na inicialização), correção após alterações feitas fora da aplicação ou cron opcional. Ela é
+ * feita mês a mês, sem bloquear escritas em pedidos de outras competências.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AgregadoPedidoService {
+
+    // Competência dos pedidos sem data de emissão (sentinela da chave)
+    private static final int SEM_EMISSAO = 0;
+
+    private final AgregadoPedidoRepository agregadoPedidoRepository;
+    private final PedidoRepository pedidoRepository;
+    private final PedidosProperties pedidosProperties;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public DeltaAgregados novoDelta() {
+        return new DeltaAgregados(pedidosProperties.agregados().zone());
+    }
+
+    /**
+     * Aplica a variação na transação corrente (a mesma da escrita em pedidos).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void aplicar(DeltaAgregados delta) {
+        delta.alteracoes().forEach((chave, totais) -> agregadoPedidoRepository.somar(chave.getParticipanteId(),
+                chave.getTipoPedido(), chave.getSituacaoPedido(), chave.getCompetencia(), totais.quantidade(), totais.valor()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<PedidoAgregadoResponse> consultar(PedidoAgregadoFiltro filtro) {
+        return agregadoPedidoRepository.filtrar(
+                        filtro.participanteId(),
+                        filtro.tipoPedido() == null ? null : filtro.tipoPedido().name(),
+                        filtro.situacaoPedido() == null ? null : filtro.situacaoPedido().name(),
+                        competencia(filtro.mesInicio()),
+                        competencia(filtro.mesFim()))
+                .stream()
+                .map(AgregadoPedidoService::toResponse)
+                .toList();
+    }
+
+    /**
+     * Recalcula os grupos uma competência (mês de emissão) por vez, cada uma em transação própria. A exclusão
+     * inicial de cada mês bloqueia apenas as linhas (e lacunas) daquela competência: escritas em pedidos de outros
+     * meses seguem normalmente e as do mês em reconstrução aguardam só o fim dele, aplicando seus deltas sobre o
+     * resultado, sem perda nem contagem em dobro.
+     * <p>
+     * Percorre as competências já presentes na tabela (remove grupos que deixaram de existir), todos os meses
+     * entre a primeira e a última emissão e a competência dos pedidos sem data de emissão.
+     */
+    public ReconstrucaoAgregadosResponse reconstruir() {
+        long inicio = System.nanoTime();
+        long pedidos = 0;
+        int grupos = 0;
+        for (int competencia : competenciasExistentes()) {
+            ReconstrucaoAgregadosResponse parcial = transactionTemplate.execute(status -> reconstruirCompetencia(competencia));
+            pedidos += parcial.pedidos();
+            grupos += parcial.grupos();
+        }
+        ReconstrucaoAgregadosResponse resultado = new ReconstrucaoAgregadosResponse(pedidos, grupos);
+        log.info("[AgregadoPedidoService] Agregados reconstruídos: {} pedidos, {} grupos em {} ms",
+                resultado.pedidos(), resultado.grupos(), (System.nanoTime() - inicio) / 1_000_000);
+        return resultado;
+    }
+
+    private SortedSet<Integer> competenciasExistentes() {
+        SortedSet<Integer> competencias = new TreeSet<>(agregadoPedidoRepository.listarCompetencias());
+        competencias.add(SEM_EMISSAO);
+        ZonedDateTime primeira = pedidoRepository.primeiraEmissao();
+        ZonedDateTime ultima = pedidoRepository.ultimaEmissao();
+        if (primeira != null && ultima != null) {
+            ZoneId zona = pedidosProperties.agregados().zone();
+            YearMonth fim = YearMonth.from(ultima.withZoneSameInstant(zona));
+            for (YearMonth mes = YearMonth.from(primeira.withZoneSameInstant(zona)); !mes.isAfter(fim); mes = mes.plusMonths(1)) {
+                competencias.add(competencia(mes));
+            }
+        }
+        return competencias;
+    }
+
+    private ReconstrucaoAgregadosResponse reconstruirCompetencia(int competencia) {
+        agregadoPedidoRepository.excluirCompetencia(competencia);
+        DeltaAgregados totais = novoDelta();
+        long lidos = competencia == SEM_EMISSAO
+                ? lerSemEmissao(totais)
+                : lerEmitidos(YearMonth.of(competencia / 100, competencia % 100), totais);
+
+        totais.alteracoes().forEach((chave, valores) -> {
+            AgregadoPedido agregado = new AgregadoPedido();
+            agregado.setChave(chave);
+            agregado.setQuantidade(valores.quantidade());
+            agregado.setValorTotal(valores.valor());
+            entityManager.persist(agregado);
+        });
+        return new ReconstrucaoAgregadosResponse(lidos, totais.alteracoes().size());
+    }
+
+    private long lerEmitidos(YearMonth mes, DeltaAgregados totais) {
+        ZoneId zona = pedidosProperties.agregados().zone();
+        ZonedDateTime inicio = mes.atDay(1).atStartOfDay(zona);
+        ZonedDateTime fim = mes.plusMonths(1).atDay(1).atStartOfDay(zona);
+        ZonedDateTime dataCursor = inicio;
+        long idCursor = Long.MIN_VALUE;
+        long lidos = 0;
+        List<PedidoAgregavel> bloco;
+        do {
+            bloco = pedidoRepository.buscarAgregaveisEmitidos(inicio, fim, dataCursor, idCursor, Limit.of(tamanhoBloco()));
+            bloco.forEach(totais::incluir);
+            lidos += bloco.size();
+            if (!bloco.isEmpty()) {
+                dataCursor = bloco.getLast().dataEmissaoPedido();
+                idCursor = bloco.getLast().id();
+            }
+        } while (bloco.size() == tamanhoBloco());
+        return lidos;
+    }
+
+    private long lerSemEmissao(DeltaAgregados totais) {
+        long cursor = Long.MIN_VALUE;
+        long lidos = 0;
+        List<PedidoAgregavel> bloco;
+        do {
+            bloco = pedidoRepository.buscarAgregaveisSemEmissao(cursor, Limit.of(tamanhoBloco()));
+            bloco.forEach(totais::incluir);
+            lidos += bloco.size();
+            if (!bloco.isEmpty()) cursor = bloco.getLast().id();
+        } while (bloco.size() == tamanhoBloco());
+        return lidos;
+    }
+
+    private int tamanhoBloco() {
+        return Math.max(1, pedidosProperties.agregados().rebuildBatchSize());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preencherSeVazia() {
+        if (!pedidosProperties.agregados().rebuildOnStartup() || agregadoPedidoRepository.count() > 0
+                || pedidoRepository.buscarAgregaveis(Long.MIN_VALUE, Limit.of(1)).isEmpty()) {
+            return;
+        }
+        log.info("[AgregadoPedidoService] Tabela de agregados vazia; preenchendo a partir dos pedidos");
+        reconstruir();
+    }
+
+    @Scheduled(cron = "${app.pedidos.agregados.rebuild-cron:-}")
+    public void reconstruirAgendado() {
+        reconstruir();
+    }
+
+    private static Integer competencia(YearMonth mes) {
+        return mes == null ? null : mes.getYear() * 100 + mes.getMonthValue();
+    }
+
+    private static PedidoAgregadoResponse toResponse(AgregadoPedido agregado) {
+        ChaveAgregadoPedido chave = agregado.getChave();
+        return new PedidoAgregadoResponse(
+                chave.getParticipanteId() == 0 ? null : chave.getParticipanteId(),
+                chave.getTipoPedido().isEmpty() ? null : TipoPedido.valueOf(chave.getTipoPedido()),
+                chave.getSituacaoPedido().isEmpty() ? null : SituacaoPedido.valueOf(chave.getSituacaoPedido()),
+                chave.getCompetencia() == 0 ? null : YearMonth.of(chave.getCompetencia() / 100, chave.getCompetencia() % 100),
+                agregado.getQuantidade(),
+                agregado.getValorTotal());
+    }
+}
@@ -0,0 +1,82 @@
+package com.econome.pedidos.service;
+
+import com.econome.domain.ChaveAgregadoPedido;
+import com.econome.domain.Pedido;
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import com.econome.repository.PedidoAgregavel;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Variação acumulada dos agregados de pedidos dentro de uma transação.
+ * A contribuição do pedido é calculada no momento da chamada: em atualizações, {@link #remover(Pedido)}
+ * deve ser chamado antes de alterar a entidade e {@link #incluir(Pedido)} depois.
+ * Grupos ficam ordenados pela chave para que transações concorrentes atualizem as linhas na mesma ordem.
+ */
+public final class DeltaAgregados {
+
+    private final ZoneId zona;
+    private final SortedMap<ChaveAgregadoPedido, Totais> totais = new TreeMap<>();
+
+    DeltaAgregados(ZoneId zona) {
+        this.zona = zona;
+    }
+
+    public void incluir(Pedido pedido) {
+        registrar(pedido.getParticipanteId(), pedido.getTipoPedido(), pedido.getSituacaoPedido(),
+                pedido.getDataEmissaoPedido(), pedido.getValorTotal(), 1);
+    }
+
+    public void remover(Pedido pedido) {
+        registrar(pedido.getParticipanteId(), pedido.getTipoPedido(), pedido.getSituacaoPedido(),
+                pedido.getDataEmissaoPedido(), pedido.getValorTotal(), -1);
+    }
+
+    void incluir(PedidoAgregavel pedido) {
+        registrar(pedido.participanteId(), pedido.tipoPedido(), pedido.situacaoPedido(),
+                pedido.dataEmissaoPedido(), pedido.valorTotal(), 1);
+    }
+
+    /**
+     * Grupos com variação diferente de zero, em ordem de chave.
+     */
+    Map<ChaveAgregadoPedido, Totais> alteracoes() {
+        totais.values().removeIf(Totais::nulo);
+        return Collections.unmodifiableMap(totais);
+    }
+
+    private void registrar(Long participanteId, TipoPedido tipo, SituacaoPedido situacao, ZonedDateTime dataEmissao,
+                           BigDecimal valor, int sinal) {
+        ChaveAgregadoPedido chave = new ChaveAgregadoPedido(
+                participanteId == null ? 0 : participanteId,
+                tipo == null ? "" : tipo.name(),
+                situacao == null ? "" : situacao.name(),
+                competencia(dataEmissao));
+        BigDecimal valorSinal = valor == null ? BigDecimal.ZERO : (sinal < 0 ? valor.negate() : valor);
+        totais.merge(chave, new Totais(sinal, valorSinal), Totais::somar);
+    }
+
+    private int competencia(ZonedDateTime dataEmissao) {
+        if (dataEmissao == null) return 0;
+        ZonedDateTime local = dataEmissao.withZoneSameInstant(zona);
+        return local.getYear() * 100 + local.getMonthValue();
+    }
+
+    record Totais(long quantidade, BigDecimal valor) {
+
+        Totais somar(Totais outro) {
+            return new Totais(quantidade + outro.quantidade, valor.add(outro.valor));
+        }
+
+        boolean nulo() {
+            return quantidade == 0 && valor.signum() == 0;
+        }
+    }
+}
@@ -1,26 +1,49 @@
 package com.econome.pedidos.service;
 
+import com.econome.pedidos.config.PedidosProperties;
 import com.econome.pedidos.dto.PedidoResponse;
-import com.econome.pedidos.integration.participante.client.ParticipantesClient;
-import com.econome.pedidos.integration.participante.dto.ParticipanteResumo;
+import com.econome.pedidos.integration.participante.cache.ParticipantesCache;
+import com.econome.pedidos.integration.participante.cache.ParticipantesResolvidos;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Serviço responsável por enriquecer pedidos com o participante embutido.
- * Implementação simples (N chamadas). Pode ser otimizada para batch quando endpoint existir.
+ * Listas são resolvidas com uma única busca em lote (número fixo de round trips por página).
+ * <p>
+ * Respostas da API aguardam no máximo {@code app.pedidos.enriquecimento.budget}; pedidos cujo participante
+ * não ficou pronto a tempo saem com {@code participantePendente=true}.
  */
 @Service
 @RequiredArgsConstructor
 public class EnriquecimentoPedidoService {
 
-    private final ParticipantesClient participantesClient;
+    private final ParticipantesCache participantesCache;
+    private final PedidosProperties pedidosProperties;
 
+    /**
+     * Enriquece respostas da API, limitado pelo orçamento de tempo.
+     */
     public List<PedidoResponse> enriquecer(List<PedidoResponse> pedidos) {
+        return enriquecer(pedidos, pedidosProperties.enriquecimento().budget());
+    }
+
+    public PedidoResponse enriquecer(PedidoResponse pedido) {
+        if (pedido.participanteId() == null) return pedido;
+        return enriquecer(List.of(pedido)).getFirst();
+    }
+
+    /**
+     * Enriquece aguardando todos os participantes (exportação, onde completude importa mais que latência).
+     */
+    public List<PedidoResponse> enriquecerCompleto(List<PedidoResponse> pedidos) {
+        return enriquecer(pedidos, Duration.ZERO);
+    }
+
+    private List<PedidoResponse> enriquecer(List<PedidoResponse> pedidos, Duration orcamento) {
         // Coleta IDs distintos
         List<Long> ids = pedidos.stream()
                 .map(PedidoResponse::participanteId)
@@ -28,22 +51,19 @@ public class EnriquecimentoPedidoService {
                 .distinct()
                 .toList();
 
-        Map<Long, ParticipanteResumo> participantes = ids.stream()
-                .map(id -> participantesClient.buscarPorId(id).orElse(null))
-                .filter(p -> p != null)
-                .collect(Collectors.toMap(ParticipanteResumo::id, p -> p));
+        ParticipantesResolvidos participantes = participantesCache.buscarPorIds(ids, orcamento);
 
         return pedidos.stream()
-                .map(p -> participantes.containsKey(p.participanteId())
-                        ? new PedidoResponse(p.id(), p.dataEmissaoPedido(), p.numeroPedido(), p.tipoPedido(), p.situacaoPedido(), p.valorTotal(), p.participanteId(), participantes.get(p.participanteId()))
-                        : p)
+                .map(p -> enriquecer(p, participantes))
                 .toList();
     }
 
-    public PedidoResponse enriquecer(PedidoResponse pedido) {
-        if (pedido.participanteId() == null) return pedido;
-        return participantesClient.buscarPorId(pedido.participanteId())
-                .map(participante -> new PedidoResponse(pedido.id(), pedido.dataEmissaoPedido(), pedido.numeroPedido(), pedido.tipoPedido(), pedido.situacaoPedido(), pedido.valorTotal(), pedido.participanteId(), participante))
-                .orElse(pedido);
+    private static PedidoResponse enriquecer(PedidoResponse pedido, ParticipantesResolvidos participantes) {
+        Long participanteId = pedido.participanteId();
+        if (participanteId == null) return pedido;
+        if (participantes.encontrados().containsKey(participanteId)) {
+            return pedido.comParticipante(participantes.encontrados().get(participanteId));
+        }
+        return participantes.pendentes().contains(participanteId) ? pedido.comParticipantePendente() : pedido;
     }
 }
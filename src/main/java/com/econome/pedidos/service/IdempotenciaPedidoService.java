@@ -0,0 +1,219 @@
+package com.econome.pedidos.service;
+
+import com.econome.domain.IdempotenciaPedido;
+import com.econome.pedidos.config.PedidosProperties;
+import com.econome.pedidos.dto.PedidoRequest;
+import com.econome.pedidos.dto.PedidoResponse;
+import com.econome.pedidos.exception.IdempotenciaConflitanteException;
+import com.econome.pedidos.exception.IdempotenciaEmAndamentoException;
+import com.econome.pedidos.exception.IdempotencyKeyInvalidaException;
+import com.econome.repository.IdempotenciaPedidoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Criação de pedidos com {@code Idempotency-Key}: a primeira requisição de uma chave cria o pedido e guarda a
+ * resposta; repetições com o mesmo corpo recebem a resposta guardada sem criar outro pedido (nem outra transação
+ * no serviço de Transações).
+ * <ul>
+ *     <li>Chaves recentes ficam em memória na frente da tabela {@code pedidos_idempotencia}.</li>
+ *     <li>Repetições concorrentes na mesma instância aguardam a primeira; entre instâncias, a reserva da chave
+ *     no banco bloqueia até o commit da transação que a criou; se a espera estourar o timeout de lock do banco
+ *     (ou a chave ainda não tiver resposta), responde 409 para o cliente repetir.</li>
+ *     <li>Reserva, pedido e resposta são gravados na mesma transação: uma falha libera a chave para nova tentativa.</li>
+ *     <li>Chaves com retenção vencida ({@code expira_em} no passado) valem como novas, mesmo antes da purga.</li>
+ * </ul>
+ * Métrica {@code pedidos.idempotencia.requisicoes} com tag {@code resultado} ({@code nova}, {@code repetida}).
+ */
+@Slf4j
+@Service
+public class IdempotenciaPedidoService {
+
+    private static final int TAMANHO_MAXIMO_CHAVE = 100;
+
+    private final PedidoService pedidoService;
+    private final IdempotenciaPedidoRepository idempotenciaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final PedidosProperties.Idempotencia properties;
+    private final Cache<String, Registro> recentes;
+    private final ConcurrentMap<String, CompletableFuture<Registro>> emAndamento = new ConcurrentHashMap<>();
+    private final Counter novas;
+    private final Counter repetidas;
+
+    public IdempotenciaPedidoService(PedidoService pedidoService,
+                                     IdempotenciaPedidoRepository idempotenciaRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     ObjectMapper objectMapper,
+                                     PedidosProperties pedidosProperties,
+                                     MeterRegistry meterRegistry) {
+        this.pedidoService = pedidoService;
+        this.idempotenciaRepository = idempotenciaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = pedidosProperties.idempotencia();
+        this.recentes = Caffeine.newBuilder()
+                .maximumSize(properties.hotMaxEntries())
+                .expireAfterWrite(properties.hotTtl().compareTo(properties.ttl()) < 0 ? properties.hotTtl() : properties.ttl())
+                .build();
+        this.novas = contador(meterRegistry, "nova");
+        this.repetidas = contador(meterRegistry, "repetida");
+    }
+
+    /**
+     * Cria o pedido ou, se a chave já foi utilizada com o mesmo corpo, devolve a resposta da primeira execução.
+     *
+     * @param chave   valor do cabeçalho {@code Idempotency-Key}; nulo cria sem idempotência
+     * @param request dados do pedido
+     * @throws IdempotencyKeyInvalidaException  se a chave estiver vazia ou exceder o tamanho máximo
+     * @throws IdempotenciaConflitanteException se a chave já foi usada com outro corpo
+     * @throws IdempotenciaEmAndamentoException  se a primeira requisição da chave, em outra instância, não concluiu a tempo
+     */
+    public Criacao criar(String chave, PedidoRequest request) {
+        if (chave == null) {
+            PedidoResponse criado = pedidoService.criar(request);
+            return new Criacao(criado, criado.versao(), false);
+        }
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new IdempotencyKeyInvalidaException(TAMANHO_MAXIMO_CHAVE);
+        }
+        byte[] hash = hash(request);
+
+        Registro recente = recentes.getIfPresent(chave);
+        if (recente != null) return repetir(chave, hash, recente);
+
+        CompletableFuture<Registro> execucao = new CompletableFuture<>();
+        CompletableFuture<Registro> anterior = emAndamento.putIfAbsent(chave, execucao);
+        if (anterior != null) {
+            // Mesma chave em andamento nesta instância: aguarda a primeira em vez de concorrer com ela
+            try {
+                return repetir(chave, hash, anterior.join());
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException causa ? causa : ex;
+            }
+        }
+
+        try {
+            Registro registro = transactionTemplate.execute(status -> executar(chave, hash, request));
+            recentes.put(chave, registro);
+            execucao.complete(registro);
+            if (!registro.repetido()) {
+                novas.increment();
+                return new Criacao(registro.pedido(), registro.versao(), false);
+            }
+            return repetir(chave, hash, registro);
+        } catch (RuntimeException ex) {
+            execucao.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            emAndamento.remove(chave, execucao);
+        }
+    }
+
+    /**
+     * Remove as chaves cuja retenção expirou.
+     */
+    @Transactional
+    @Scheduled(cron = "${app.pedidos.idempotencia.purge-cron:0 0 * * * *}")
+    public void purgar() {
+        int removidas = idempotenciaRepository.excluirExpiradas(Instant.now());
+        log.info("[IdempotenciaPedidoService] {} chaves de idempotência expiradas removidas", removidas);
+    }
+
+    private Registro executar(String chave, byte[] hash, PedidoRequest request) {
+        Instant agora = Instant.now();
+        if (reservar(chave, hash, agora) == 0) {
+            // Chave gravada por outra instância (ou antes de sair da memória): resposta já está no banco
+            IdempotenciaPedido existente = idempotenciaRepository.findById(chave)
+                    .orElseThrow(() -> new IdempotenciaEmAndamentoException(chave, null));
+            if (!existente.getExpiraEm().isBefore(agora)) {
+                if (existente.getResposta() == null) throw new IdempotenciaEmAndamentoException(chave, null);
+                return new Registro(existente.getHashRequisicao(), ler(existente.getResposta()), existente.getVersao(), true);
+            }
+            // Retenção vencida e ainda não purgada: a chave vale como nova e é reservada de novo nesta transação
+            idempotenciaRepository.excluirExpirada(chave, agora);
+            if (reservar(chave, hash, agora) == 0) throw new IdempotenciaEmAndamentoException(chave, null);
+        }
+        PedidoResponse criado = pedidoService.criar(request);
+        idempotenciaRepository.concluir(chave, criado.id(), criado.versao(), escrever(criado));
+        return new Registro(hash, criado, criado.versao(), false);
+    }
+
+    private int reservar(String chave, byte[] hash, Instant agora) {
+        try {
+            return idempotenciaRepository.reservar(chave, hash, agora.plus(properties.ttl()));
+        } catch (PessimisticLockingFailureException ex) {
+            // Outra instância segura a chave além do timeout de lock: a criação dela segue, esta desiste
+            throw new IdempotenciaEmAndamentoException(chave, ex);
+        }
+    }
+
+    private Criacao repetir(String chave, byte[] hash, Registro registro) {
+        if (!Arrays.equals(hash, registro.hash())) {
+            throw new IdempotenciaConflitanteException(chave);
+        }
+        repetidas.increment();
+        return new Criacao(registro.pedido(), registro.versao(), true);
+    }
+
+    private byte[] hash(PedidoRequest request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Falha ao calcular hash da requisição", ex);
+        }
+    }
+
+    private String escrever(PedidoResponse pedido) {
+        try {
+            return objectMapper.writeValueAsString(pedido);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Falha ao serializar resposta do pedido " + pedido.id(), ex);
+        }
+    }
+
+    private PedidoResponse ler(String resposta) {
+        try {
+            return objectMapper.readValue(resposta, PedidoResponse.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Falha ao ler resposta armazenada", ex);
+        }
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("pedidos.idempotencia.requisicoes")
+                .description("Criações com Idempotency-Key por resultado")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resultado da criação; {@code versao} acompanha a resposta para o ETag (não faz parte do corpo).
+     *
+     * @param repetida resposta de uma execução anterior com a mesma chave
+     */
+    public record Criacao(PedidoResponse pedido, Long versao, boolean repetida) {
+    }
+
+    private record Registro(byte[] hash, PedidoResponse pedido, Long versao, boolean repetido) {
+    }
+}
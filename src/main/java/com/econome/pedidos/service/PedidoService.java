@@ -1,9 +1,19 @@
 package com.econome.pedidos.service;
 
+import com.econome.pedidos.dto.PedidoAgregadoFiltro;
+import com.econome.pedidos.dto.PedidoAgregadoResponse;
+import com.econome.pedidos.dto.PedidoFiltro;
+import com.econome.pedidos.dto.PedidoLoteItemRequest;
+import com.econome.pedidos.dto.PedidoLoteResponse;
+import com.econome.pedidos.dto.PedidoPaginaResponse;
 import com.econome.pedidos.dto.PedidoRequest;
 import com.econome.pedidos.dto.PedidoResponse;
+import com.econome.pedidos.dto.ReconstrucaoAgregadosResponse;
+import com.econome.repository.MarcaVersaoPedidos;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Contrato de serviço para o contexto de Pedidos.
@@ -28,7 +38,32 @@ public interface PedidoService {
      * @return dados do pedido atualizado
      * @throws com.econome.pedidos.exception.PedidoNaoEncontradoException se o pedido não existir
      */
-    PedidoResponse atualizar(Long id, PedidoRequest request);
+    default PedidoResponse atualizar(Long id, PedidoRequest request) {
+        return atualizar(id, request, null);
+    }
+
+    /**
+     * Atualiza um pedido existente com concorrência otimista.
+     *
+     * @param id             identificador do pedido
+     * @param request        dados a atualizar
+     * @param versaoEsperada versão lida pelo cliente (If-Match); nula para não verificar
+     * @return dados do pedido atualizado
+     * @throws com.econome.pedidos.exception.PedidoNaoEncontradoException      se o pedido não existir
+     * @throws com.econome.pedidos.exception.PedidoVersaoConflitanteException se a versão atual for outra
+     */
+    PedidoResponse atualizar(Long id, PedidoRequest request, Long versaoEsperada);
+
+    /**
+     * Cria e/ou atualiza pedidos em lote. Cada item é validado individualmente; os válidos são
+     * persistidos em chunks (uma transação e INSERTs/UPDATEs agrupados por chunk) e os eventos de
+     * integração de cada chunk são publicados de uma vez. Falha de um chunk não afeta os demais.
+     * Não há enriquecimento com participante.
+     *
+     * @param itens itens do lote (sem id = criação, com id = atualização)
+     * @return resultado por item, na ordem recebida
+     */
+    PedidoLoteResponse processarLote(List<PedidoLoteItemRequest> itens);
 
     /**
      * Busca um pedido pelo identificador.
@@ -40,11 +75,67 @@ public interface PedidoService {
     PedidoResponse buscarPorId(Long id);
 
     /**
-     * Lista todos os pedidos.
+     * Resolve o id do pedido pelo número (único), sem carregar a entidade nem enriquecer.
+     *
+     * @param numeroPedido número do pedido
+     * @return identificador do pedido
+     * @throws com.econome.pedidos.exception.PedidoNaoEncontradoException se nenhum pedido tiver o número
+     */
+    Long buscarIdPorNumero(String numeroPedido);
+
+    /**
+     * Versão atual do pedido, consultada sem carregar a entidade nem enriquecer (validação de ETag).
+     *
+     * @param id identificador do pedido
+     * @return versão ou vazio se o pedido não existir
+     */
+    Optional<Long> buscarVersao(Long id);
+
+    /**
+     * Marca de versão da página de pedidos que atendem ao filtro a partir do cursor: muda sempre que um pedido
+     * da página (ou o primeiro da próxima) é criado, alterado ou excluído (ETag da listagem).
+     *
+     * @param filtro  filtros opcionais
+     * @param cursor  último id da página anterior; nulo para a primeira página
+     * @param tamanho quantidade de pedidos por página
+     */
+    MarcaVersaoPedidos marcaVersao(PedidoFiltro filtro, Long cursor, int tamanho);
+
+    /**
+     * Lista uma página de pedidos ordenada por id, paginada por cursor (keyset).
+     * Apenas os pedidos da página são carregados e enriquecidos.
+     *
+     * @param filtro  filtros opcionais
+     * @param cursor  último id da página anterior; nulo para a primeira página
+     * @param tamanho quantidade máxima de pedidos na página
+     * @return página de pedidos com o cursor da próxima página
+     */
+    PedidoPaginaResponse listar(PedidoFiltro filtro, Long cursor, int tamanho);
+
+    /**
+     * Percorre todos os pedidos em ordem de id sem materializar o resultado completo.
+     * Os pedidos são lidos por cursor e entregues ao consumidor em janelas já enriquecidas;
+     * a memória utilizada é proporcional ao tamanho da janela, não ao tamanho da tabela.
+     *
+     * @param consumidorJanela recebe cada janela de pedidos, na ordem de leitura
+     */
+    void exportar(Consumer<List<PedidoResponse>> consumidorJanela);
+
+    /**
+     * Totais pré-calculados por participante, tipo, situação e mês de emissão (custo proporcional ao número
+     * de grupos, não de pedidos).
+     *
+     * @param filtro filtros opcionais
+     * @return grupos em ordem de mês, participante, tipo e situação
+     */
+    List<PedidoAgregadoResponse> agregar(PedidoAgregadoFiltro filtro);
+
+    /**
+     * Recalcula a tabela de agregados a partir de todos os pedidos.
      *
-     * @return lista de pedidos
+     * @return quantidade de pedidos lidos e de grupos gravados
      */
-    List<PedidoResponse> listarTodos();
+    ReconstrucaoAgregadosResponse reconstruirAgregados();
 
     /**
      * Exclui um pedido pelo identificador.
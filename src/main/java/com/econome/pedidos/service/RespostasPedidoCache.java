@@ -0,0 +1,140 @@
+package com.econome.pedidos.service;
+
+import com.econome.pedidos.config.PedidosProperties;
+import com.econome.pedidos.dto.PedidoResponse;
+import com.econome.pedidos.integration.participante.cache.ParticipantesCache;
+import com.econome.pedidos.integration.participante.dto.ParticipanteResumo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Respostas de {@code GET /api/pedidos/{id}} já serializadas (JSON UTF-8), prontas para escrita direta no corpo.
+ * Um hit não passa por banco, mapeamento, enriquecimento nem Jackson: devolve o mesmo {@code byte[]} e a versão
+ * usada no ETag.
+ * <ul>
+ *     <li>Uma entrada por pedido, com a versão que originou o JSON; limitada pelo total de bytes
+ *     ({@code app.pedidos.respostas.max-size}) e por TTL, que cobre alterações feitas em outra instância
+ *     (mesma defasagem aceita pelo cache de segundo nível).</li>
+ *     <li>{@link #invalidar(Long)} nas escritas locais remove a entrada na hora e de novo após o commit. O
+ *     carregamento roda fora do cache (sem bloquear a chave nem o trecho do mapa durante banco e enriquecimento)
+ *     e só é guardado se nenhuma invalidação ocorreu desde o início: um JSON montado com a versão anterior não
+ *     sobrevive ao commit.</li>
+ *     <li>O participante embutido é conferido a cada hit com o {@link ParticipantesCache}: se expirou ou foi
+ *     recarregado com outro valor, o JSON é remontado. Com o cache de participantes desabilitado, apenas
+ *     pedidos sem participante são reaproveitados.</li>
+ *     <li>Respostas com enriquecimento parcial não são guardadas.</li>
+ * </ul>
+ * Métricas {@code cache.*} com tag {@code cache=pedidos-respostas}.
+ */
+@Component
+public class RespostasPedidoCache {
+
+    private static final String NOME_CACHE = "pedidos-respostas";
+    // Estimativa do custo fixo de uma entrada (nós do cache, Entrada e cabeçalho do array)
+    private static final int BYTES_POR_ENTRADA = 96;
+
+    private final ParticipantesCache participantesCache;
+    private final ObjectWriter writer;
+    private final boolean habilitado;
+    private final Cache<Long, Entrada> cache;
+    private final AtomicLong invalidacoes = new AtomicLong();
+
+    public RespostasPedidoCache(ParticipantesCache participantesCache,
+                                ObjectMapper objectMapper,
+                                PedidosProperties pedidosProperties,
+                                MeterRegistry meterRegistry) {
+        PedidosProperties.Respostas properties = pedidosProperties.respostas();
+        this.participantesCache = participantesCache;
+        this.writer = objectMapper.writerFor(PedidoResponse.class);
+        this.habilitado = properties.enabled() && properties.maxSize().toBytes() > 0;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.maxSize().toBytes())
+                .weigher((Long id, Entrada entrada) -> entrada.resposta().json().length + BYTES_POR_ENTRADA)
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOME_CACHE);
+    }
+
+    /**
+     * Resposta serializada do pedido; em miss (ou participante desatualizado) monta com {@code carregar}
+     * e guarda o resultado se o enriquecimento estiver completo.
+     *
+     * @param carregar busca e enriquece o pedido (ex.: {@link PedidoService#buscarPorId(Long)})
+     */
+    public RespostaSerializada obter(Long id, Supplier<PedidoResponse> carregar) {
+        if (!habilitado) return serializar(carregar.get());
+
+        Entrada entrada = cache.getIfPresent(id);
+        if (entrada != null) {
+            if (valida(entrada)) return entrada.resposta();
+            cache.asMap().remove(id, entrada);
+        }
+        long geracao = invalidacoes.get();
+        PedidoResponse pedido = carregar.get();
+        RespostaSerializada resposta = serializar(pedido);
+        if (resposta.parcial()) return resposta;
+        Entrada carregada = new Entrada(resposta, pedido.participanteId(), pedido.participanteResumo());
+        // Invalidação durante o carregamento: o pedido lido pode ser anterior à escrita, não guarda. Uma invalidação
+        // posterior a esta conferência aguarda o compute da chave e remove o que foi guardado.
+        cache.asMap().compute(id, (chave, atual) -> invalidacoes.get() == geracao ? carregada : atual);
+        return resposta;
+    }
+
+    /**
+     * Descarta a resposta do pedido agora e após o commit da transação corrente (se houver).
+     */
+    public void invalidar(Long id) {
+        if (!habilitado) return;
+        descartar(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descartar(id);
+                }
+            });
+        }
+    }
+
+    private void descartar(Long id) {
+        invalidacoes.incrementAndGet();
+        cache.invalidate(id);
+    }
+
+    private boolean valida(Entrada entrada) {
+        return entrada.participanteId() == null || participantesCache.atual(entrada.participanteId(), entrada.participante());
+    }
+
+    private RespostaSerializada serializar(PedidoResponse pedido) {
+        try {
+            return new RespostaSerializada(writer.writeValueAsBytes(pedido), pedido.versao(),
+                    Boolean.TRUE.equals(pedido.participantePendente()));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Falha ao serializar pedido " + pedido.id(), ex);
+        }
+    }
+
+    /**
+     * Corpo JSON de um pedido e a versão correspondente (ETag).
+     *
+     * @param json    não deve ser alterado: a mesma instância é devolvida a todos os hits
+     * @param parcial enriquecimento incompleto ({@code participantePendente})
+     */
+    public record RespostaSerializada(byte[] json, Long versao, boolean parcial) {
+    }
+
+    private record Entrada(RespostaSerializada resposta, Long participanteId, ParticipanteResumo participante) {
+    }
+}
@@ -1,95 +1,285 @@
 package com.econome.pedidos.service.impl;
 
 import com.econome.domain.Pedido;
+import com.econome.pedidos.config.PedidosProperties;
+import com.econome.pedidos.datasource.EscritasRecentesPedidos;
+import com.econome.pedidos.dto.PedidoAgregadoFiltro;
+import com.econome.pedidos.dto.PedidoAgregadoResponse;
+import com.econome.pedidos.dto.PedidoFiltro;
+import com.econome.pedidos.dto.PedidoLoteItemRequest;
+import com.econome.pedidos.dto.PedidoLoteItemResultado;
+import com.econome.pedidos.dto.PedidoLoteResponse;
 import com.econome.pedidos.dto.PedidoMapper;
+import com.econome.pedidos.dto.PedidoPaginaResponse;
 import com.econome.pedidos.dto.PedidoRequest;
 import com.econome.pedidos.dto.PedidoResponse;
+import com.econome.pedidos.dto.ReconstrucaoAgregadosResponse;
 import com.econome.pedidos.exception.PedidoNaoEncontradoException;
+import com.econome.pedidos.exception.PedidoVersaoConflitanteException;
 import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.StatusItemLote;
 import com.econome.pedidos.integration.transacao.event.PedidoCriadoEvent;
 import com.econome.pedidos.integration.transacao.event.PedidoAtualizadoEvent;
+import com.econome.pedidos.integration.transacao.event.PedidosLoteProcessadoEvent;
+import com.econome.pedidos.service.AgregadoPedidoService;
+import com.econome.pedidos.service.DeltaAgregados;
 import com.econome.pedidos.service.PedidoService;
 import com.econome.pedidos.service.EnriquecimentoPedidoService;
+import com.econome.pedidos.service.RespostasPedidoCache;
+import com.econome.repository.MarcaVersaoPedidos;
 import com.econome.repository.PedidoRepository;
+import com.econome.repository.PedidoSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementação do contrato de serviço de Pedidos.
  * Aplica regras transacionais no nível de serviço e delega persistência ao repositório.
  * Utiliza MapStruct para mapeamento entre DTOs e entidade, favorecendo legibilidade e testabilidade.
- * Publica evento de domínio após criação para integração assíncrona com o microserviço de transações
- * (promovendo baixo acoplamento e evitando chamadas HTTP dentro da transação JPA).
+ * Publica eventos de domínio na criação/atualização; eles são gravados no outbox na mesma transação
+ * e entregues ao microserviço de transações em background (sem chamadas HTTP na requisição).
+ * Toda escrita também aplica, na mesma transação, a variação correspondente nos agregados de pedidos.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class PedidoServiceImpl implements PedidoService {
 
+    private static final String MENSAGEM_NUMERO_REPETIDO = "numeroPedido já utilizado por outro pedido";
+
     private final PedidoRepository pedidoRepository;
     private final PedidoMapper pedidoMapper;
     private final ApplicationEventPublisher eventPublisher;
     private final EnriquecimentoPedidoService enriquecimentoPedidoService;
+    private final PedidosProperties pedidosProperties;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final AgregadoPedidoService agregadoPedidoService;
+    private final RespostasPedidoCache respostasPedidoCache;
+    private final ObjectProvider<EscritasRecentesPedidos> escritasRecentes;
 
     @Override
     @Transactional
     public PedidoResponse criar(PedidoRequest request) {
         Pedido entity = pedidoMapper.toEntity(request);
         Pedido salvo = pedidoRepository.save(entity);
-        eventPublisher.publishEvent(new PedidoCriadoEvent(
-                salvo.getId(),
-                salvo.getNumeroPedido(),
-                salvo.getTipoPedido(),
-                salvo.getValorTotal(),
-                request.situacaoPedido() == SituacaoPedido.FATURADO,
-                request.dataVencimentoTransacao(),
-                request.pagoTransacao(),
-                request.dataPagamentoTransacao(),
-                request.participanteId()
-        ));
+        DeltaAgregados delta = agregadoPedidoService.novoDelta();
+        delta.incluir(salvo);
+        agregadoPedidoService.aplicar(delta);
+        eventPublisher.publishEvent(eventoCriacao(salvo, request));
         // Enriquecimento para já retornar participante embutido no POST
         return enriquecimentoPedidoService.enriquecer(pedidoMapper.toResponse(salvo));
     }
 
     @Override
     @Transactional
-    public PedidoResponse atualizar(Long id, PedidoRequest request) {
+    public PedidoResponse atualizar(Long id, PedidoRequest request, Long versaoEsperada) {
         Pedido existente = pedidoRepository.findById(id)
                 .orElseThrow(() -> new PedidoNaoEncontradoException(id));
+        if (versaoEsperada != null && !versaoEsperada.equals(existente.getVersao())) {
+            throw new PedidoVersaoConflitanteException(id, existente.getVersao());
+        }
 
         boolean faturadoAnterior = existente.getSituacaoPedido() == SituacaoPedido.FATURADO;
+        DeltaAgregados delta = agregadoPedidoService.novoDelta();
+        delta.remover(existente);
 
         pedidoMapper.updateEntityFromRequest(request, existente);
-        Pedido atualizado = pedidoRepository.save(existente);
-
-        boolean faturadoAtual = request.situacaoPedido() == SituacaoPedido.FATURADO;
-
-        // Publica evento para integração (após commit) se existir qualquer
-        // possibilidade de criação/atualização
-        if (faturadoAtual || faturadoAnterior) {
-            eventPublisher.publishEvent(new PedidoAtualizadoEvent(
-                    atualizado.getId(),
-                    atualizado.getNumeroPedido(),
-                    atualizado.getTipoPedido(),
-                    atualizado.getValorTotal(),
-                    faturadoAtual,
-                    faturadoAnterior,
-                    request.dataVencimentoTransacao(),
-                    request.pagoTransacao(),
-                    request.dataPagamentoTransacao(),
-                    request.participanteId()));
+        respostasPedidoCache.invalidar(id);
+        // Entidade gerenciada: sem save/merge, o dirty checking gera um único UPDATE só com as colunas alteradas
+        // (nenhum se nada mudou). Flush para que a versão incrementada já conste na resposta (ETag)
+        pedidoRepository.flush();
+        delta.incluir(existente);
+        agregadoPedidoService.aplicar(delta);
+
+        // Publica evento para integração se existir qualquer possibilidade de criação/atualização
+        if (geraEventoAtualizacao(request, faturadoAnterior)) {
+            eventPublisher.publishEvent(eventoAtualizacao(existente, request, faturadoAnterior));
         }
 
         // Enriquecer resposta para manter consistência com GET
-        return enriquecimentoPedidoService.enriquecer(pedidoMapper.toResponse(atualizado));
+        return enriquecimentoPedidoService.enriquecer(pedidoMapper.toResponse(existente));
+    }
+
+    @Override
+    public PedidoLoteResponse processarLote(List<PedidoLoteItemRequest> itens) {
+        PedidoLoteItemResultado[] resultados = new PedidoLoteItemResultado[itens.size()];
+        List<Integer> validos = new ArrayList<>(itens.size());
+        Set<String> numeros = new HashSet<>();
+        for (int indice = 0; indice < itens.size(); indice++) {
+            List<String> erros = validar(itens.get(indice));
+            if (erros.isEmpty() && !numeros.add(itens.get(indice).pedido().numeroPedido())) {
+                erros = List.of("numeroPedido repetido no lote");
+            }
+            if (erros.isEmpty()) {
+                validos.add(indice);
+            } else {
+                resultados[indice] = PedidoLoteItemResultado.falha(indice, StatusItemLote.INVALIDO, itens.get(indice).id(), erros);
+            }
+        }
+
+        int tamanhoChunk = Math.max(1, pedidosProperties.lote().chunk());
+        for (int inicio = 0; inicio < validos.size(); inicio += tamanhoChunk) {
+            List<Integer> chunk = validos.subList(inicio, Math.min(inicio + tamanhoChunk, validos.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> persistirChunk(itens, chunk, resultados));
+            } catch (RuntimeException ex) {
+                log.error("[PedidoServiceImpl] Falha ao persistir chunk de {} pedidos do lote: {}", chunk.size(), ex.getMessage());
+                // Rollback do chunk inteiro: nenhum item dele foi gravado
+                chunk.stream()
+                        .filter(indice -> resultados[indice] == null || resultados[indice].status() == StatusItemLote.CRIADO
+                                || resultados[indice].status() == StatusItemLote.ATUALIZADO)
+                        .forEach(indice -> resultados[indice] = PedidoLoteItemResultado.falha(indice, StatusItemLote.ERRO,
+                                itens.get(indice).id(), List.of("Falha ao persistir o lote: " + ex.getMessage())));
+            }
+        }
+
+        List<PedidoLoteItemResultado> lista = List.of(resultados);
+        int processados = (int) lista.stream()
+                .filter(r -> r.status() == StatusItemLote.CRIADO || r.status() == StatusItemLote.ATUALIZADO)
+                .count();
+        return new PedidoLoteResponse(itens.size(), processados, itens.size() - processados, lista);
+    }
+
+    /**
+     * Persiste um chunk na transação corrente: uma consulta para os pedidos a atualizar, INSERTs/UPDATEs
+     * agrupados pelo batching do Hibernate no flush e um único evento agregado para o outbox.
+     */
+    private void persistirChunk(List<PedidoLoteItemRequest> itens, List<Integer> chunk, PedidoLoteItemResultado[] resultados) {
+        List<Long> idsAtualizacao = chunk.stream().map(indice -> itens.get(indice).id()).filter(Objects::nonNull).distinct().toList();
+        Map<Long, Pedido> existentes = idsAtualizacao.isEmpty() ? Map.of() : pedidoRepository.findAllById(idsAtualizacao).stream()
+                .collect(Collectors.toMap(Pedido::getId, Function.identity()));
+        // Números já usados por outros pedidos: o item é recusado em vez de derrubar o chunk no índice único
+        Map<String, Long> idsPorNumero = pedidoRepository.findByNumeroPedidoIn(chunk.stream()
+                        .map(indice -> itens.get(indice).pedido().numeroPedido()).toList()).stream()
+                .collect(Collectors.toMap(Pedido::getNumeroPedido, Pedido::getId));
+
+        List<Integer> indicesPersistidos = new ArrayList<>(chunk.size());
+        List<Pedido> entidades = new ArrayList<>(chunk.size());
+        List<Boolean> faturadoAnterior = new ArrayList<>(chunk.size());
+        DeltaAgregados delta = agregadoPedidoService.novoDelta();
+        for (Integer indice : chunk) {
+            PedidoLoteItemRequest item = itens.get(indice);
+            Long donoNumero = idsPorNumero.get(item.pedido().numeroPedido());
+            if (donoNumero != null && !donoNumero.equals(item.id())) {
+                resultados[indice] = PedidoLoteItemResultado.falha(indice, StatusItemLote.INVALIDO, item.id(),
+                        List.of(MENSAGEM_NUMERO_REPETIDO));
+                continue;
+            }
+            if (item.id() == null) {
+                entidades.add(pedidoMapper.toEntity(item.pedido()));
+                faturadoAnterior.add(false);
+            } else {
+                Pedido existente = existentes.get(item.id());
+                if (existente == null) {
+                    resultados[indice] = PedidoLoteItemResultado.falha(indice, StatusItemLote.NAO_ENCONTRADO, item.id(),
+                            List.of("Pedido " + item.id() + " não encontrado"));
+                    continue;
+                }
+                faturadoAnterior.add(existente.getSituacaoPedido() == SituacaoPedido.FATURADO);
+                delta.remover(existente);
+                pedidoMapper.updateEntityFromRequest(item.pedido(), existente);
+                respostasPedidoCache.invalidar(existente.getId());
+                entidades.add(existente);
+            }
+            indicesPersistidos.add(indice);
+        }
+        pedidoRepository.saveAll(entidades);
+        entidades.forEach(delta::incluir);
+        // Um upsert por grupo afetado no chunk, não por pedido
+        agregadoPedidoService.aplicar(delta);
+
+        List<PedidoCriadoEvent> criados = new ArrayList<>();
+        List<PedidoAtualizadoEvent> atualizados = new ArrayList<>();
+        for (int posicao = 0; posicao < indicesPersistidos.size(); posicao++) {
+            int indice = indicesPersistidos.get(posicao);
+            PedidoLoteItemRequest item = itens.get(indice);
+            Pedido pedido = entidades.get(posicao);
+            if (item.id() == null) {
+                criados.add(eventoCriacao(pedido, item.pedido()));
+                resultados[indice] = PedidoLoteItemResultado.sucesso(indice, StatusItemLote.CRIADO, pedido.getId());
+            } else {
+                if (geraEventoAtualizacao(item.pedido(), faturadoAnterior.get(posicao))) {
+                    atualizados.add(eventoAtualizacao(pedido, item.pedido(), faturadoAnterior.get(posicao)));
+                }
+                resultados[indice] = PedidoLoteItemResultado.sucesso(indice, StatusItemLote.ATUALIZADO, pedido.getId());
+            }
+        }
+        eventPublisher.publishEvent(new PedidosLoteProcessadoEvent(criados, atualizados));
+
+        // Envia os lotes de INSERT/UPDATE e libera o contexto de persistência antes do próximo chunk
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private List<String> validar(PedidoLoteItemRequest item) {
+        if (item == null || item.pedido() == null) {
+            return List.of("pedido é obrigatório");
+        }
+        return validator.validate(item.pedido()).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
+    }
+
+    private PedidoCriadoEvent eventoCriacao(Pedido salvo, PedidoRequest request) {
+        return new PedidoCriadoEvent(
+                salvo.getId(),
+                salvo.getNumeroPedido(),
+                salvo.getTipoPedido(),
+                salvo.getValorTotal(),
+                request.situacaoPedido() == SituacaoPedido.FATURADO,
+                request.dataVencimentoTransacao(),
+                request.pagoTransacao(),
+                request.dataPagamentoTransacao(),
+                request.participanteId());
+    }
+
+    private boolean geraEventoAtualizacao(PedidoRequest request, boolean faturadoAnterior) {
+        return faturadoAnterior || request.situacaoPedido() == SituacaoPedido.FATURADO;
+    }
+
+    private PedidoAtualizadoEvent eventoAtualizacao(Pedido atualizado, PedidoRequest request, boolean faturadoAnterior) {
+        return new PedidoAtualizadoEvent(
+                atualizado.getId(),
+                atualizado.getNumeroPedido(),
+                atualizado.getTipoPedido(),
+                atualizado.getValorTotal(),
+                request.situacaoPedido() == SituacaoPedido.FATURADO,
+                faturadoAnterior,
+                request.dataVencimentoTransacao(),
+                request.pagoTransacao(),
+                request.dataPagamentoTransacao(),
+                request.participanteId());
     }
 
     @Override
     @Transactional(readOnly = true)
     public PedidoResponse buscarPorId(Long id) {
+        lerDoPrimarioSeEscrito(id);
         return pedidoRepository.findById(id)
                 .map(pedidoMapper::toResponse)
                 .map(enriquecimentoPedidoService::enriquecer)
@@ -98,16 +288,96 @@ public class PedidoServiceImpl implements PedidoService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<PedidoResponse> listarTodos() {
-        return enriquecimentoPedidoService.enriquecer(pedidoMapper.toResponseList(pedidoRepository.findAll()));
+    public Long buscarIdPorNumero(String numeroPedido) {
+        return pedidoRepository.buscarIdPorNumero(numeroPedido)
+                .orElseThrow(() -> new PedidoNaoEncontradoException(numeroPedido));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> buscarVersao(Long id) {
+        lerDoPrimarioSeEscrito(id);
+        return pedidoRepository.buscarVersao(id);
+    }
+
+    /**
+     * Com réplicas de leitura, um pedido escrito há pouco nesta instância é lido do primário.
+     */
+    private void lerDoPrimarioSeEscrito(Long id) {
+        escritasRecentes.ifAvailable(escritas -> escritas.lerDoPrimarioSeEscrito(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MarcaVersaoPedidos marcaVersao(PedidoFiltro filtro, Long cursor, int tamanho) {
+        // Mesmo recorte de listar(): a página e um registro além dela (existência da próxima página)
+        return pedidoRepository.marcaVersao(PedidoSpecifications.filtrar(filtro, cursor), tamanho + 1);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PedidoPaginaResponse listar(PedidoFiltro filtro, Long cursor, int tamanho) {
+        // Busca um registro além do tamanho para saber se existe próxima página sem executar count
+        List<Pedido> encontrados = pedidoRepository.findBy(PedidoSpecifications.filtrar(filtro, cursor),
+                q -> q.sortBy(Sort.by("id")).limit(tamanho + 1).all());
+        boolean possuiProxima = encontrados.size() > tamanho;
+        List<Pedido> pagina = possuiProxima ? encontrados.subList(0, tamanho) : encontrados;
+        Long proximoCursor = possuiProxima ? pagina.getLast().getId() : null;
+        return new PedidoPaginaResponse(
+                enriquecimentoPedidoService.enriquecer(pedidoMapper.toResponseList(pagina)),
+                proximoCursor,
+                possuiProxima,
+                tamanho);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportar(Consumer<List<PedidoResponse>> consumidorJanela) {
+        int tamanhoJanela = Math.max(1, pedidosProperties.exportacao().janela());
+        List<Pedido> janela = new ArrayList<>(tamanhoJanela);
+        try (Stream<Pedido> pedidos = pedidoRepository.streamTodos()) {
+            Iterator<Pedido> iterator = pedidos.iterator();
+            while (iterator.hasNext()) {
+                janela.add(iterator.next());
+                if (janela.size() == tamanhoJanela) {
+                    emitirJanela(janela, consumidorJanela);
+                }
+            }
+        }
+        if (!janela.isEmpty()) {
+            emitirJanela(janela, consumidorJanela);
+        }
+    }
+
+    private void emitirJanela(List<Pedido> janela, Consumer<List<PedidoResponse>> consumidorJanela) {
+        List<PedidoResponse> respostas = enriquecimentoPedidoService.enriquecerCompleto(pedidoMapper.toResponseList(janela));
+        // Desanexa para o contexto de persistência não acumular todas as entidades lidas
+        janela.forEach(entityManager::detach);
+        janela.clear();
+        consumidorJanela.accept(respostas);
+    }
+
+    @Override
+    public List<PedidoAgregadoResponse> agregar(PedidoAgregadoFiltro filtro) {
+        return agregadoPedidoService.consultar(filtro);
+    }
+
+    @Override
+    public ReconstrucaoAgregadosResponse reconstruirAgregados() {
+        return agregadoPedidoService.reconstruir();
     }
 
     @Override
     @Transactional
     public void excluir(Long id) {
-        if (!pedidoRepository.existsById(id)) {
-            throw new PedidoNaoEncontradoException(id);
-        }
-        pedidoRepository.deleteById(id);
+        // Carrega a entidade (cache de segundo nível) para descontar sua contribuição dos agregados; a exclusão é um
+        // único DELETE por id e versão, com contagem de linhas verificada pelo Hibernate (exclusão concorrente = 409)
+        Pedido existente = pedidoRepository.findById(id)
+                .orElseThrow(() -> new PedidoNaoEncontradoException(id));
+        DeltaAgregados delta = agregadoPedidoService.novoDelta();
+        delta.remover(existente);
+        pedidoRepository.delete(existente);
+        agregadoPedidoService.aplicar(delta);
+        respostasPedidoCache.invalidar(id);
     }
 }
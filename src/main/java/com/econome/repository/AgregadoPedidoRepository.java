@@ -0,0 +1,66 @@
+package com.econome.repository;
+
+import com.econome.domain.AgregadoPedido;
+import com.econome.domain.ChaveAgregadoPedido;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Repositório da tabela de agregados de pedidos.
+ */
+public interface AgregadoPedidoRepository extends JpaRepository<AgregadoPedido, ChaveAgregadoPedido> {
+
+    /**
+     * Soma um delta ao grupo, criando-o se ainda não existir (upsert atômico: escritas concorrentes no
+     * mesmo grupo não se sobrescrevem). O hint restringe a invalidação do cache de segundo nível à
+     * tabela de agregados; sem ele o Hibernate descartaria todas as regiões a cada escrita nativa.
+     */
+    @Modifying
+    @Query(value = """
+            insert into pedidos_agregados (participante_id, tipo_pedido, situacao_pedido, competencia, quantidade, valor_total)
+            values (:participanteId, :tipoPedido, :situacaoPedido, :competencia, :quantidade, :valor)
+            on duplicate key update quantidade = quantidade + :quantidade, valor_total = valor_total + :valor
+            """, nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "pedidos_agregados"))
+    void somar(@Param("participanteId") long participanteId, @Param("tipoPedido") String tipoPedido,
+               @Param("situacaoPedido") String situacaoPedido, @Param("competencia") int competencia,
+               @Param("quantidade") long quantidade, @Param("valor") BigDecimal valor);
+
+    /**
+     * Grupos com pedidos que atendem aos filtros (parâmetros nulos não restringem), em ordem de chave.
+     */
+    @Query("""
+            select a from AgregadoPedido a
+            where a.quantidade <> 0
+              and (:participanteId is null or a.chave.participanteId = :participanteId)
+              and (:tipoPedido is null or a.chave.tipoPedido = :tipoPedido)
+              and (:situacaoPedido is null or a.chave.situacaoPedido = :situacaoPedido)
+              and (:competenciaInicio is null or a.chave.competencia >= :competenciaInicio)
+              and (:competenciaFim is null or a.chave.competencia <= :competenciaFim)
+            order by a.chave.competencia, a.chave.participanteId, a.chave.tipoPedido, a.chave.situacaoPedido
+            """)
+    List<AgregadoPedido> filtrar(@Param("participanteId") Long participanteId,
+                                 @Param("tipoPedido") String tipoPedido,
+                                 @Param("situacaoPedido") String situacaoPedido,
+                                 @Param("competenciaInicio") Integer competenciaInicio,
+                                 @Param("competenciaFim") Integer competenciaFim);
+
+    @Query("select distinct a.chave.competencia from AgregadoPedido a")
+    List<Integer> listarCompetencias();
+
+    /**
+     * Remove os grupos de uma competência. Pelo índice de competência, bloqueia apenas as linhas (e lacunas)
+     * desse mês: deltas de escritas concorrentes no mesmo mês aguardam o commit da reconstrução.
+     */
+    @Modifying
+    @Query("delete from AgregadoPedido a where a.chave.competencia = :competencia")
+    int excluirCompetencia(@Param("competencia") int competencia);
+}
@@ -0,0 +1,50 @@
+package com.econome.repository;
+
+import com.econome.domain.IdempotenciaPedido;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+/**
+ * Repositório das chaves de idempotência (tabela pedidos_idempotencia).
+ */
+public interface IdempotenciaPedidoRepository extends JpaRepository<IdempotenciaPedido, String> {
+
+    /**
+     * Reserva a chave; retorna 0 se ela já existir. Com outra transação segurando a mesma chave, o insert
+     * aguarda o commit (ou rollback) dela em vez de concorrer com a criação em andamento.
+     */
+    @Modifying
+    @Query(value = """
+            insert ignore into pedidos_idempotencia (chave, hash_requisicao, expira_em)
+            values (:chave, :hashRequisicao, :expiraEm)
+            """, nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "pedidos_idempotencia"))
+    int reservar(@Param("chave") String chave, @Param("hashRequisicao") byte[] hashRequisicao,
+                 @Param("expiraEm") Instant expiraEm);
+
+    @Modifying
+    @Query("""
+            update IdempotenciaPedido i set i.pedidoId = :pedidoId, i.versao = :versao, i.resposta = :resposta
+            where i.chave = :chave
+            """)
+    int concluir(@Param("chave") String chave, @Param("pedidoId") Long pedidoId, @Param("versao") Long versao,
+                 @Param("resposta") String resposta);
+
+    /**
+     * Remove a chave se a retenção dela tiver vencido; retorna 0 se ela ainda valer (ou não existir).
+     */
+    @Modifying
+    @Query("delete from IdempotenciaPedido i where i.chave = :chave and i.expiraEm < :agora")
+    int excluirExpirada(@Param("chave") String chave, @Param("agora") Instant agora);
+
+    @Modifying
+    @Query("delete from IdempotenciaPedido i where i.expiraEm < :agora")
+    int excluirExpiradas(@Param("agora") Instant agora);
+}
@@ -0,0 +1,9 @@
+package com.econome.repository;
+
+/**
+ * Resumo de um conjunto de pedidos que muda sempre que algum pedido do conjunto é criado, alterado ou excluído:
+ * a quantidade e o maior id detectam inclusões/exclusões e a soma das versões detecta atualizações.
+ * Base do ETag de coleção, calculado sobre a página (e o registro seguinte, que define se há próxima página).
+ */
+public record MarcaVersaoPedidos(long quantidade, Long maiorId, Long somaVersoes) {
+}
@@ -0,0 +1,83 @@
+package com.econome.repository;
+
+import com.econome.domain.OutboxEvento;
+import com.econome.pedidos.enums.StatusOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositório do outbox de integração (tabela pedidos_outbox).
+ */
+public interface OutboxEventoRepository extends JpaRepository<OutboxEvento, Long> {
+
+    /**
+     * Seleciona e bloqueia eventos prontos para entrega, respeitando a ordem por pedido:
+     * um evento só é elegível quando não há evento anterior do mesmo pedido ainda pendente ou em processamento.
+     * Linhas já bloqueadas por outra instância são ignoradas (SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select o from OutboxEvento o
+            where o.status = com.econome.pedidos.enums.StatusOutbox.PENDENTE
+              and o.proximaTentativaEm <= :agora
+              and not exists (
+                  select 1 from OutboxEvento anterior
+                  where anterior.pedidoId = o.pedidoId
+                    and anterior.id < o.id
+                    and anterior.status in (com.econome.pedidos.enums.StatusOutbox.PENDENTE,
+                                            com.econome.pedidos.enums.StatusOutbox.PROCESSANDO))
+            order by o.id
+            """)
+    List<OutboxEvento> reservarProntos(@Param("agora") Instant agora, Limit limite);
+
+    /**
+     * Devolve para PENDENTE eventos cuja reserva expirou (relay interrompido durante o processamento).
+     */
+    @Modifying
+    @Query("""
+            update OutboxEvento o set o.status = com.econome.pedidos.enums.StatusOutbox.PENDENTE
+            where o.status = com.econome.pedidos.enums.StatusOutbox.PROCESSANDO and o.proximaTentativaEm < :agora
+            """)
+    int liberarReservasExpiradas(@Param("agora") Instant agora);
+
+    /**
+     * Renova a reserva de um evento em processamento, desde que ainda seja a mesma reserva
+     * ({@code reserva} = fim do lease atribuído quando o evento foi reservado).
+     *
+     * @return 0 se a reserva foi liberada por expiração (e talvez refeita por outro ciclo)
+     */
+    @Modifying
+    @Query("""
+            update OutboxEvento o set o.proximaTentativaEm = :novoFim
+            where o.id = :id
+              and o.status = com.econome.pedidos.enums.StatusOutbox.PROCESSANDO
+              and o.proximaTentativaEm = :reserva
+            """)
+    int renovarReserva(@Param("id") Long id, @Param("reserva") Instant reserva, @Param("novoFim") Instant novoFim);
+
+    /**
+     * Eventos pendentes dos pedidos informados, na ordem de gravação (candidatos a agrupamento).
+     */
+    List<OutboxEvento> findByPedidoIdInAndStatusOrderByIdAsc(Collection<Long> pedidoIds, StatusOutbox status);
+
+    @Modifying
+    @Query("delete from OutboxEvento o where o.status in :status and o.processadoEm < :limite")
+    int excluirProcessadosAntesDe(@Param("status") Collection<StatusOutbox> status, @Param("limite") Instant limite);
+
+    long countByStatus(StatusOutbox status);
+
+    Optional<OutboxEvento> findFirstByStatusOrderByIdAsc(StatusOutbox status);
+}
@@ -0,0 +1,15 @@
+package com.econome.repository;
+
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+/**
+ * Campos de um pedido que compõem os agregados ({@link com.econome.domain.AgregadoPedido}),
+ * lidos por projeção na reconstrução (sem carregar entidades nem popular o cache de segundo nível).
+ */
+public record PedidoAgregavel(Long id, Long participanteId, TipoPedido tipoPedido, SituacaoPedido situacaoPedido,
+                              ZonedDateTime dataEmissaoPedido, BigDecimal valorTotal) {
+}
@@ -1,11 +1,105 @@
 package com.econome.repository;
 
 import com.econome.domain.Pedido;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositório Spring Data JPA para a entidade Pedido.
  * Mantém o acesso a dados desacoplado da camada de serviço e evita código boilerplate de persistência.
+ * Consultas filtradas usam {@link PedidoSpecifications}.
  */
-public interface PedidoRepository extends JpaRepository<Pedido, Long> {
+public interface PedidoRepository extends JpaRepository<Pedido, Long>, JpaSpecificationExecutor<Pedido>,
+        PedidoRepositoryCustom {
+
+    /**
+     * Versão atual do pedido, sem carregar a entidade (validação de ETag).
+     * Resultado guardado no cache de consultas, invalidado a cada escrita na tabela de pedidos.
+     */
+    @Query("select p.versao from Pedido p where p.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Long> buscarVersao(@Param("id") Long id);
+
+    /**
+     * Id do pedido pelo número (índice único {@code uk_pedidos_numero_pedido}), sem carregar a entidade.
+     * Resultado guardado no cache de consultas, invalidado a cada escrita na tabela de pedidos.
+     */
+    @Query("select p.id from Pedido p where p.numeroPedido = :numeroPedido")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Long> buscarIdPorNumero(@Param("numeroPedido") String numeroPedido);
+
+    /**
+     * Pedidos que já usam algum dos números informados (conferência de unicidade no cadastro em lote).
+     */
+    List<Pedido> findByNumeroPedidoIn(Collection<String> numerosPedido);
+
+    /**
+     * Próximos pedidos após o cursor (keyset por id), apenas com os campos dos agregados.
+     */
+    @Query("""
+            select new com.econome.repository.PedidoAgregavel(p.id, p.participanteId, p.tipoPedido, p.situacaoPedido,
+                   p.dataEmissaoPedido, p.valorTotal)
+            from Pedido p where p.id > :cursor order by p.id
+            """)
+    List<PedidoAgregavel> buscarAgregaveis(@Param("cursor") long cursor, Limit limite);
+
+    /**
+     * Pedidos emitidos em [{@code inicio}, {@code fim}) após a posição ({@code dataCursor}, {@code idCursor}),
+     * na ordem do índice de data de emissão (keyset), apenas com os campos dos agregados.
+     */
+    @Query("""
+            select new com.econome.repository.PedidoAgregavel(p.id, p.participanteId, p.tipoPedido, p.situacaoPedido,
+                   p.dataEmissaoPedido, p.valorTotal)
+            from Pedido p
+            where p.dataEmissaoPedido >= :inicio and p.dataEmissaoPedido < :fim
+              and (p.dataEmissaoPedido > :dataCursor or (p.dataEmissaoPedido = :dataCursor and p.id > :idCursor))
+            order by p.dataEmissaoPedido, p.id
+            """)
+    List<PedidoAgregavel> buscarAgregaveisEmitidos(@Param("inicio") ZonedDateTime inicio, @Param("fim") ZonedDateTime fim,
+                                                   @Param("dataCursor") ZonedDateTime dataCursor,
+                                                   @Param("idCursor") long idCursor, Limit limite);
+
+    /**
+     * Próximos pedidos sem data de emissão após o cursor (keyset por id), apenas com os campos dos agregados.
+     */
+    @Query("""
+            select new com.econome.repository.PedidoAgregavel(p.id, p.participanteId, p.tipoPedido, p.situacaoPedido,
+                   p.dataEmissaoPedido, p.valorTotal)
+            from Pedido p where p.dataEmissaoPedido is null and p.id > :cursor order by p.id
+            """)
+    List<PedidoAgregavel> buscarAgregaveisSemEmissao(@Param("cursor") long cursor, Limit limite);
+
+    @Query("select min(p.dataEmissaoPedido) from Pedido p")
+    ZonedDateTime primeiraEmissao();
+
+    @Query("select max(p.dataEmissaoPedido) from Pedido p")
+    ZonedDateTime ultimaEmissao();
+
+    /**
+     * Percorre todos os pedidos em ordem de id através de um cursor forward-only.
+     * Fetch size {@code Integer.MIN_VALUE} faz o driver MySQL entregar linha a linha em vez de
+     * carregar o result set inteiro em memória. Deve ser consumido dentro de uma transação
+     * e fechado ao final (try-with-resources); entidades lidas devem ser desanexadas pelo chamador.
+     * Não popula o cache de segundo nível (uma exportação descartaria os pedidos realmente quentes).
+     */
+    @Query("select p from Pedido p order by p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS")
+    })
+    Stream<Pedido> streamTodos();
 }
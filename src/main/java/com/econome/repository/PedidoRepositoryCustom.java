@@ -0,0 +1,16 @@
+package com.econome.repository;
+
+import com.econome.domain.Pedido;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Consultas de {@link PedidoRepository} que não se expressam por métodos derivados.
+ */
+public interface PedidoRepositoryCustom {
+
+    /**
+     * Calcula a marca de versão dos primeiros {@code limite} pedidos (em ordem de id) que atendem à especificação,
+     * lendo apenas id e versão: o custo é proporcional à página, não à tabela.
+     */
+    MarcaVersaoPedidos marcaVersao(Specification<Pedido> especificacao, int limite);
+}
@@ -0,0 +1,46 @@
+package com.econome.repository;
+
+import com.econome.domain.Pedido;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Implementação (fragmento Spring Data) de {@link PedidoRepositoryCustom}.
+ */
+@RequiredArgsConstructor
+class PedidoRepositoryCustomImpl implements PedidoRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public MarcaVersaoPedidos marcaVersao(Specification<Pedido> especificacao, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Pedido> root = query.from(Pedido.class);
+        query.multiselect(root.<Long>get("id"), root.<Long>get("versao"));
+        Predicate predicado = especificacao.toPredicate(root, query, cb);
+        if (predicado != null) query.where(predicado);
+        query.orderBy(cb.asc(root.get("id")));
+        // Cache de consultas: 304 repetidos na listagem não chegam ao banco enquanto a tabela não muda
+        List<Tuple> linhas = entityManager.createQuery(query)
+                .setMaxResults(limite)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList();
+        if (linhas.isEmpty()) return new MarcaVersaoPedidos(0, null, null);
+        long somaVersoes = 0;
+        for (Tuple linha : linhas) {
+            Long versao = linha.get(1, Long.class);
+            if (versao != null) somaVersoes += versao;
+        }
+        return new MarcaVersaoPedidos(linhas.size(), linhas.getLast().get(0, Long.class), somaVersoes);
+    }
+}
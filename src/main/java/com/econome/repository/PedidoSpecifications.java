@@ -0,0 +1,43 @@
+package com.econome.repository;
+
+import com.econome.domain.Pedido;
+import com.econome.pedidos.dto.PedidoFiltro;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Specifications de consulta da entidade Pedido.
+ * Cada filtro corresponde a um índice da tabela pedidos (ver changelog 0003).
+ */
+public final class PedidoSpecifications {
+
+    private PedidoSpecifications() {
+    }
+
+    /**
+     * Combina os filtros informados e a condição de keyset {@code id > cursor}.
+     *
+     * @param filtro filtros opcionais (campos nulos são ignorados)
+     * @param cursor último id da página anterior; nulo para a primeira página
+     */
+    public static Specification<Pedido> filtrar(PedidoFiltro filtro, Long cursor) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+            if (cursor != null) predicados.add(cb.greaterThan(root.<Long>get("id"), cursor));
+            if (filtro != null) {
+                if (filtro.tipoPedido() != null) predicados.add(cb.equal(root.get("tipoPedido"), filtro.tipoPedido()));
+                if (filtro.situacaoPedido() != null) predicados.add(cb.equal(root.get("situacaoPedido"), filtro.situacaoPedido()));
+                if (filtro.participanteId() != null) predicados.add(cb.equal(root.get("participanteId"), filtro.participanteId()));
+                if (filtro.dataEmissaoInicio() != null)
+                    predicados.add(cb.greaterThanOrEqualTo(root.<ZonedDateTime>get("dataEmissaoPedido"), filtro.dataEmissaoInicio()));
+                if (filtro.dataEmissaoFim() != null)
+                    predicados.add(cb.lessThan(root.<ZonedDateTime>get("dataEmissaoPedido"), filtro.dataEmissaoFim()));
+            }
+            return cb.and(predicados.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -0,0 +1,235 @@
+package com.econome.pedidos.compressao;
+
+import com.econome.pedidos.dto.PedidoRequest;
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import com.econome.pedidos.service.PedidoService;
+import com.econome.repository.PedidoRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * {@link CompressaoRespostaFilter} no servidor real (porta aleatória, H2): limiar, endpoints sem compressão,
+ * negociação por {@code Accept-Encoding}, ETag fraco e exportação comprimida em chunks.
+ * <p>
+ * O {@link HttpClient} do JDK não descomprime respostas, então os cabeçalhos e o corpo chegam como o servidor
+ * enviou; a exportação é lida por socket para contar os chunks. O H2 não aceita o fetch size de streaming do
+ * MySQL ({@code Integer.MIN_VALUE}), então o cursor da exportação é trocado por uma leitura ordenada por id.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.compression.endpoints[0].path=/api/pedidos",
+        "app.compression.endpoints[0].buffer-size=16KB",
+        "app.compression.endpoints[1].path=/api/pedidos/exportacao",
+        "app.compression.endpoints[1].min-response-size=0",
+        "app.compression.endpoints[1].buffer-size=1KB",
+        "app.compression.endpoints[2].path=/api/pedidos/agregados",
+        "app.compression.endpoints[2].compress=false",
+        "app.pedidos.exportacao.janela=10"
+})
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CompressaoRespostaFilterTest {
+
+    private static final int PEDIDOS = 60;
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @MockitoSpyBean
+    private PedidoRepository pedidoRepository;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    private final long participante = ThreadLocalRandom.current().nextLong(1_000_000, 2_000_000);
+
+    @BeforeEach
+    void exportarSemCursorDoMysql() {
+        doAnswer(invocacao -> pedidoRepository.findAll(Sort.by("id")).stream()).when(pedidoRepository).streamTodos();
+    }
+
+    @BeforeAll
+    void criarPedidos() {
+        for (int i = 0; i < PEDIDOS; i++) {
+            pedidoService.criar(new PedidoRequest(ZonedDateTime.parse("2025-09-10T10:00:00-03:00"),
+                    "CMP-" + participante + "-" + i, TipoPedido.SAIDA, SituacaoPedido.PENDENTE,
+                    new BigDecimal("150.00"), null, null, null, participante));
+        }
+        // Um grupo de agregado por participante, para que a resposta passe do limiar
+        for (int i = 1; i <= 40; i++) {
+            pedidoService.criar(new PedidoRequest(ZonedDateTime.parse("2025-09-10T10:00:00-03:00"),
+                    "CMP-" + participante + "-agr-" + i, TipoPedido.ENTRADA, SituacaoPedido.PENDENTE,
+                    new BigDecimal("10.00"), null, null, null, participante + i));
+        }
+    }
+
+    @Test
+    void respostaAbaixoDoLimiarSaiSemCompressaoEComContentLength() throws Exception {
+        HttpResponse<byte[]> resposta = get(listagem(1), "gzip");
+
+        assertThat(resposta.statusCode()).isEqualTo(200);
+        assertThat(resposta.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(resposta.headers().firstValueAsLong("Content-Length")).hasValue(resposta.body().length);
+        assertThat(resposta.headers().firstValue("Vary")).hasValueSatisfying(v -> assertThat(v).contains("Accept-Encoding"));
+        assertThat(texto(resposta.body())).contains("CMP-" + participante);
+    }
+
+    @Test
+    void respostaAcimaDoLimiarSaiComGzipEEtagFraco() throws Exception {
+        HttpResponse<byte[]> resposta = get(listagem(PEDIDOS), "gzip");
+
+        assertThat(resposta.statusCode()).isEqualTo(200);
+        assertThat(resposta.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        String descomprimido = texto(descomprimir(resposta.body()));
+        assertThat(descomprimido.length()).isGreaterThan(2048);
+        assertThat(descomprimido).contains("CMP-" + participante + "-59");
+        assertThat(resposta.headers().firstValue("ETag")).hasValueSatisfying(etag -> assertThat(etag).startsWith("W/\""));
+    }
+
+    @Test
+    void ifNoneMatchCorrespondeAoEtagFracoEAoForte() throws Exception {
+        String fraco = get(listagem(PEDIDOS), "gzip").headers().firstValue("ETag").orElseThrow();
+        String forte = fraco.substring(2);
+
+        assertThat(get(listagem(PEDIDOS), "gzip", "If-None-Match", fraco).statusCode()).isEqualTo(304);
+        assertThat(get(listagem(PEDIDOS), "gzip", "If-None-Match", forte).statusCode()).isEqualTo(304);
+        HttpResponse<byte[]> semCompressao = get(listagem(PEDIDOS), null, "If-None-Match", fraco);
+        assertThat(semCompressao.statusCode()).isEqualTo(304);
+        assertThat(semCompressao.headers().firstValue("ETag")).hasValue(forte);
+    }
+
+    @Test
+    void semAcceptEncodingOuComIdentitySaiSemCompressao() throws Exception {
+        for (String acceptEncoding : new String[]{null, "identity", "gzip;q=0"}) {
+            HttpResponse<byte[]> resposta = get(listagem(PEDIDOS), acceptEncoding);
+
+            assertThat(resposta.statusCode()).isEqualTo(200);
+            assertThat(resposta.headers().firstValue("Content-Encoding")).as(acceptEncoding).isEmpty();
+            assertThat(resposta.headers().firstValue("ETag")).hasValueSatisfying(etag -> assertThat(etag).startsWith("\""));
+            assertThat(texto(resposta.body())).contains("CMP-" + participante + "-59");
+        }
+    }
+
+    @Test
+    void endpointComCompressDesligadoSaiSemCompressao() throws Exception {
+        HttpResponse<byte[]> resposta = get("/api/pedidos/agregados?mesInicio=2025-09&mesFim=2025-09", "gzip");
+
+        assertThat(resposta.statusCode()).isEqualTo(200);
+        assertThat(resposta.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(resposta.body().length).isGreaterThan(2048);
+        assertThat(texto(resposta.body())).startsWith("[");
+    }
+
+    @Test
+    void exportacaoChegaComprimidaEmVariosChunks() throws Exception {
+        RespostaBruta resposta = getBruto("/api/pedidos/exportacao", "gzip");
+
+        assertThat(resposta.status()).isEqualTo(200);
+        assertThat(resposta.cabecalhos()).containsEntry("content-encoding", "gzip")
+                .containsEntry("transfer-encoding", "chunked")
+                .doesNotContainKey("content-length");
+        // Uma janela de 10 pedidos por flush: bem mais de um chunk para os 100 pedidos desta classe
+        assertThat(resposta.chunks().size()).isGreaterThan(PEDIDOS / 10);
+
+        ByteArrayOutputStream corpo = new ByteArrayOutputStream();
+        resposta.chunks().forEach(corpo::writeBytes);
+        List<String> linhas = texto(descomprimir(corpo.toByteArray())).lines().toList();
+        assertThat(linhas).hasSizeGreaterThanOrEqualTo(PEDIDOS + 40)
+                .allSatisfy(linha -> assertThat(linha).startsWith("{").endsWith("}"));
+        assertThat(linhas).anySatisfy(linha -> assertThat(linha).contains("CMP-" + participante + "-agr-40"));
+    }
+
+    private String listagem(int tamanho) {
+        return "/api/pedidos?participanteId=" + participante + "&tamanho=" + tamanho;
+    }
+
+    private HttpResponse<byte[]> get(String caminho, String acceptEncoding, String... cabecalhos) throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho)).GET();
+        if (acceptEncoding != null) requisicao.header("Accept-Encoding", acceptEncoding);
+        if (cabecalhos.length > 0) requisicao.headers(cabecalhos);
+        return http.send(requisicao.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * GET em HTTP/1.1 direto no socket, mantendo a divisão em chunks do {@code Transfer-Encoding: chunked}.
+     */
+    private RespostaBruta getBruto(String caminho, String acceptEncoding) throws IOException {
+        try (Socket socket = new Socket("localhost", porta)) {
+            OutputStream saida = socket.getOutputStream();
+            saida.write(("GET " + caminho + " HTTP/1.1\r\nHost: localhost\r\nAccept-Encoding: " + acceptEncoding
+                    + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            saida.flush();
+            InputStream entrada = socket.getInputStream();
+
+            int status = Integer.parseInt(linha(entrada).split(" ")[1]);
+            Map<String, String> cabecalhos = new HashMap<>();
+            for (String linha = linha(entrada); !linha.isEmpty(); linha = linha(entrada)) {
+                int separador = linha.indexOf(':');
+                cabecalhos.put(linha.substring(0, separador).trim().toLowerCase(Locale.ROOT), linha.substring(separador + 1).trim());
+            }
+            List<byte[]> chunks = new ArrayList<>();
+            for (int tamanho = Integer.parseInt(linha(entrada).trim(), 16); tamanho > 0;
+                 tamanho = Integer.parseInt(linha(entrada).trim(), 16)) {
+                chunks.add(entrada.readNBytes(tamanho));
+                linha(entrada);
+            }
+            return new RespostaBruta(status, cabecalhos, chunks);
+        }
+    }
+
+    private static String linha(InputStream entrada) throws IOException {
+        ByteArrayOutputStream linha = new ByteArrayOutputStream();
+        for (int b = entrada.read(); b != '\n'; b = entrada.read()) {
+            if (b < 0) throw new IOException("Conexão encerrada no meio da resposta");
+            if (b != '\r') linha.write(b);
+        }
+        return linha.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] descomprimir(byte[] gzip) throws IOException {
+        try (InputStream entrada = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return entrada.readAllBytes();
+        }
+    }
+
+    private static String texto(byte[] corpo) {
+        return new String(corpo, StandardCharsets.UTF_8);
+    }
+
+    private record RespostaBruta(int status, Map<String, String> cabecalhos, List<byte[]> chunks) {
+    }
+}
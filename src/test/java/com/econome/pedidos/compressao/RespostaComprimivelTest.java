@@ -0,0 +1,107 @@
+package com.econome.pedidos.compressao;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@code reset}/{@code resetBuffer} de {@link RespostaComprimivel}: o corpo seguinte não pode sair como gzip sem
+ * {@code Content-Encoding} (nem o contrário).
+ */
+class RespostaComprimivelTest {
+
+    private static final int MINIMO = 1024;
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final RespostaComprimivel resposta =
+            new RespostaComprimivel(response, MINIMO, 5, List.of(MediaType.APPLICATION_JSON));
+
+    @Test
+    void resetDepoisDoLimiarVoltaADecidirEEnviaSemCompressao() throws IOException {
+        escrever(json(MINIMO * 2));
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+
+        resposta.reset();
+        escrever("{\"erro\":true}");
+        resposta.concluir();
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo("{\"erro\":true}");
+        assertThat(response.getContentLength()).isEqualTo(13);
+    }
+
+    @Test
+    void resetDepoisDoLimiarComprimeDeNovoSeONovoCorpoForGrande() throws IOException {
+        escrever(json(MINIMO * 2));
+        resposta.reset();
+        String corpo = json(MINIMO * 3);
+        escrever(corpo);
+        resposta.concluir();
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(descomprimir(response.getContentAsByteArray())).isEqualTo(corpo);
+    }
+
+    @Test
+    void resetAntesDoLimiarDescartaOCorpoRetido() throws IOException {
+        escrever("{\"a\":1}");
+        resposta.reset();
+        escrever("{\"b\":2}");
+        resposta.concluir();
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo("{\"b\":2}");
+    }
+
+    @Test
+    void resetBufferMantemOGzipERecomecaOCorpo() throws IOException {
+        escrever(json(MINIMO * 2));
+        resposta.resetBuffer();
+        String corpo = "{\"recomecado\":true}";
+        resposta.getOutputStream().write(corpo.getBytes(StandardCharsets.UTF_8));
+        resposta.concluir();
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(descomprimir(response.getContentAsByteArray())).isEqualTo(corpo);
+    }
+
+    @Test
+    void resetDepoisDoCommitLancaIllegalStateException() throws IOException {
+        escrever(json(MINIMO * 2));
+        resposta.flushBuffer();
+        assertThat(response.isCommitted()).isTrue();
+
+        assertThatThrownBy(resposta::reset).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(resposta::resetBuffer).isInstanceOf(IllegalStateException.class);
+    }
+
+    private void escrever(String corpo) throws IOException {
+        resposta.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        resposta.getOutputStream().write(corpo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String json(int tamanho) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; json.length() < tamanho; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    private static String descomprimir(byte[] gzip) throws IOException {
+        try (InputStream entrada = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.econome.pedidos.controller;
+
+import com.econome.pedidos.dto.PedidoRequest;
+import com.econome.pedidos.dto.PedidoResponse;
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import com.econome.pedidos.service.PedidoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pré-condições HTTP do {@link PedidoController} (H2): ETag {@code "<id>-<versao>"}, {@code If-None-Match}
+ * (comparação fraca, listas e {@code *}), {@code If-Match} (412 e 409) e o ETag de marca d'água da listagem.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class PedidoControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoSpyBean
+    private PedidoService pedidoService;
+
+    @Test
+    void criacaoELeituraDevolvemEtagComIdEVersao() throws Exception {
+        PedidoResponse criado = criar(request("ETG", null));
+
+        mockMvc.perform(get("/api/pedidos/{id}", criado.id()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag(criado.id(), 0)))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.numeroPedido").value(criado.numeroPedido()));
+        mockMvc.perform(get("/api/pedidos/numero/{numero}", criado.numeroPedido()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag(criado.id(), 0)));
+    }
+
+    @Test
+    void ifNoneMatchUsaComparacaoFracaListasEAsterisco() throws Exception {
+        PedidoResponse criado = criar(request("INM", null));
+        String atual = etag(criado.id(), 0);
+
+        for (String ifNoneMatch : new String[]{atual, "W/" + atual, "\"outro\", " + atual, "W/\"outro\",W/" + atual, "*"}) {
+            mockMvc.perform(get("/api/pedidos/{id}", criado.id()).header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, atual));
+        }
+        for (String ifNoneMatch : new String[]{etag(criado.id(), 1), etag(criado.id() + 1, 0), "\"" + criado.id() + "\"", "lixo"}) {
+            mockMvc.perform(get("/api/pedidos/{id}", criado.id()).header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, atual));
+        }
+        mockMvc.perform(get("/api/pedidos/numero/{numero}", criado.numeroPedido()).header(HttpHeaders.IF_NONE_MATCH, atual))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void ifMatchDaVersaoAtualAtualizaEDevolveONovoEtag() throws Exception {
+        PedidoResponse criado = criar(request("IFM", null));
+
+        atualizar(criado.id(), etag(criado.id(), 0))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag(criado.id(), 1)));
+        // Lista: basta um dos valores corresponder à versão atual
+        atualizar(criado.id(), etag(criado.id(), 0) + ", " + etag(criado.id(), 1))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag(criado.id(), 2)));
+        // "*" e ausente: basta o pedido existir
+        atualizar(criado.id(), "*").andExpect(status().isOk());
+        atualizar(criado.id(), null).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag(criado.id(), 4)));
+    }
+
+    @Test
+    void ifMatchDivergenteResponde412SemAlterarOPedido() throws Exception {
+        PedidoResponse criado = criar(request("412", null));
+        atualizar(criado.id(), null).andExpect(status().isOk());
+
+        for (String ifMatch : new String[]{etag(criado.id(), 0), "W/" + etag(criado.id(), 1), etag(criado.id() + 1, 1),
+                etag(criado.id(), 0) + ", " + etag(criado.id(), 5), "\"" + criado.id() + "-\"", "\"" + criado.id() + "-x\"", "lixo"}) {
+            atualizar(criado.id(), ifMatch).andExpect(status().isPreconditionFailed());
+        }
+        mockMvc.perform(get("/api/pedidos/{id}", criado.id()))
+                .andExpect(header().string(HttpHeaders.ETAG, etag(criado.id(), 1)));
+    }
+
+    @Test
+    void conflitoDeConcorrenciaNoCommitResponde409() throws Exception {
+        PedidoResponse criado = criar(request("409", null));
+        doThrow(new ObjectOptimisticLockingFailureException(com.econome.domain.Pedido.class, criado.id()))
+                .when(pedidoService).atualizar(eq(criado.id()), any(), any());
+
+        atualizar(criado.id(), etag(criado.id(), 0))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+    }
+
+    @Test
+    void etagDaListagemAcompanhaQuantidadeMaiorIdESomaDasVersoes() throws Exception {
+        long participante = ThreadLocalRandom.current().nextLong(1_000_000, 2_000_000);
+        PedidoResponse primeiro = criar(request("LST", participante));
+        PedidoResponse segundo = criar(request("LST", participante));
+        String listagem = "/api/pedidos?participanteId=" + participante;
+
+        String etag = mockMvc.perform(get(listagem))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"l-50-2-" + segundo.id() + "-0\""))
+                .andExpect(jsonPath("$.itens.length()").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(listagem).header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        // Tamanho da página faz parte do recorte
+        mockMvc.perform(get(listagem + "&tamanho=1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"l-1-2-" + segundo.id() + "-0\""));
+
+        atualizar(primeiro.id(), null, participante).andExpect(status().isOk());
+        mockMvc.perform(get(listagem).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"l-50-2-" + segundo.id() + "-1\""));
+
+        PedidoResponse terceiro = criar(request("LST", participante));
+        mockMvc.perform(get(listagem))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"l-50-3-" + terceiro.id() + "-1\""));
+    }
+
+    private PedidoResponse criar(PedidoRequest request) throws Exception {
+        String corpo = mockMvc.perform(post("/api/pedidos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        PedidoResponse criado = objectMapper.readValue(corpo, PedidoResponse.class);
+        assertThat(criado.id()).isNotNull();
+        return criado;
+    }
+
+    private ResultActions atualizar(Long id, String ifMatch) throws Exception {
+        return atualizar(id, ifMatch, null);
+    }
+
+    private ResultActions atualizar(Long id, String ifMatch, Long participanteId) throws Exception {
+        var requisicao = put("/api/pedidos/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request("ALT", participanteId)));
+        if (ifMatch != null) requisicao.header(HttpHeaders.IF_MATCH, ifMatch);
+        return mockMvc.perform(requisicao);
+    }
+
+    private static String etag(Long id, long versao) {
+        return "\"" + id + "-" + versao + "\"";
+    }
+
+    private static PedidoRequest request(String prefixo, Long participanteId) {
+        return new PedidoRequest(ZonedDateTime.parse("2025-09-10T10:00:00-03:00"), prefixo + "-" + UUID.randomUUID(),
+                TipoPedido.SAIDA, SituacaoPedido.PENDENTE, new BigDecimal("10.00"), null, null, null, participanteId);
+    }
+}
@@ -0,0 +1,95 @@
+package com.econome.pedidos.datasource;
+
+import com.econome.domain.Pedido;
+import com.econome.pedidos.dto.PedidoRequest;
+import com.econome.pedidos.dto.PedidoResponse;
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import com.econome.pedidos.service.PedidoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Leituras logo após uma escrita com as réplicas habilitadas (a "réplica" é o próprio banco H2, lido por outro
+ * pool): o pedido escrito é lido do primário; os demais seguem na réplica sem alimentar o cache de segundo nível
+ * até o fim da janela ({@code max-lag + health-check-interval}).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + LeituraAposEscritaTest.URL,
+        "app.datasource.read-replicas.enabled=true",
+        "app.datasource.read-replicas.check-lag=false",
+        "app.datasource.read-replicas.max-lag=1s",
+        "app.datasource.read-replicas.health-check-interval=1s",
+        "app.datasource.read-replicas.nodes[0].url=" + LeituraAposEscritaTest.URL
+})
+@ActiveProfiles("h2")
+class LeituraAposEscritaTest {
+
+    static final String URL = "jdbc:h2:mem:pedidos-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final long JANELA_MILLIS = 2_000;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void pedidoEscritoVaiAoPrimarioEOsDemaisSeguemNaReplicaSemAlimentarOCache() throws Exception {
+        PedidoResponse escrito = pedidoService.criar(request("ESC"));
+        PedidoResponse outro = pedidoService.criar(request("OUT"));
+        Thread.sleep(JANELA_MILLIS + 200);
+        entityManagerFactory.getCache().evictAll();
+
+        pedidoService.atualizar(escrito.id(), request("ESC-ALTERADO"), null);
+        double replica = leiturasNaReplica();
+        double aposEscrita = contador("pedidos.datasource.replica.apos-escrita");
+        double semCache = contador("pedidos.datasource.replica.sem-cache");
+
+        assertThat(pedidoService.buscarPorId(outro.id()).numeroPedido()).isEqualTo(outro.numeroPedido());
+        assertThat(leiturasNaReplica()).isGreaterThan(replica);
+        assertThat(contador("pedidos.datasource.replica.apos-escrita")).isEqualTo(aposEscrita);
+        assertThat(contador("pedidos.datasource.replica.sem-cache")).isGreaterThan(semCache);
+        assertThat(entityManagerFactory.getCache().contains(Pedido.class, outro.id())).isFalse();
+
+        entityManagerFactory.getCache().evict(Pedido.class, escrito.id());
+        PedidoResponse lido = pedidoService.buscarPorId(escrito.id());
+        assertThat(lido.numeroPedido()).startsWith("ESC-ALTERADO");
+        assertThat(contador("pedidos.datasource.replica.apos-escrita")).isEqualTo(aposEscrita + 1);
+
+        // Fim da janela: leituras voltam a alimentar o cache
+        Thread.sleep(JANELA_MILLIS + 200);
+        semCache = contador("pedidos.datasource.replica.sem-cache");
+        pedidoService.buscarPorId(outro.id());
+        assertThat(entityManagerFactory.getCache().contains(Pedido.class, outro.id())).isTrue();
+        assertThat(contador("pedidos.datasource.replica.sem-cache")).isEqualTo(semCache);
+    }
+
+    private double leiturasNaReplica() {
+        Timer aquisicoes = meterRegistry.find("hikaricp.connections.acquire").tag("pool", "replica-1").timer();
+        return aquisicoes == null ? 0 : aquisicoes.count();
+    }
+
+    private double contador(String nome) {
+        return meterRegistry.counter(nome).count();
+    }
+
+    private static PedidoRequest request(String prefixo) {
+        return new PedidoRequest(ZonedDateTime.parse("2025-09-10T10:00:00-03:00"), prefixo + "-" + UUID.randomUUID(),
+                TipoPedido.SAIDA, SituacaoPedido.PENDENTE, new BigDecimal("10.00"), null, null, null, null);
+    }
+}
@@ -0,0 +1,195 @@
+package com.econome.pedidos.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Roteamento do {@link ReplicasLeituraDataSource} com bancos H2 em memória no lugar do primário e das réplicas
+ * (cada banco é identificado pela URL da conexão devolvida).
+ */
+class ReplicasLeituraDataSourceTest {
+
+    private static final String PRIMARIO = "jdbc:h2:mem:primario";
+    private static final String REPLICA_1 = "jdbc:h2:mem:replica1";
+    private static final String REPLICA_2 = "jdbc:h2:mem:replica2";
+    private static final String REPLICA_FORA_DO_AR = "jdbc:h2:tcp://localhost:1/replica";
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    /** max-lag + health-check-interval das propriedades de {@link #criar(String...)}. */
+    private final EscritasRecentesPedidos escritasRecentes = new EscritasRecentesPedidos(Duration.ofMillis(200));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void fecharPools() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void alternaEntreAsReplicas() throws SQLException {
+        ReplicasLeituraDataSource dataSource = criar(REPLICA_1, REPLICA_2);
+
+        assertThat(List.of(conectarEm(dataSource), conectarEm(dataSource), conectarEm(dataSource), conectarEm(dataSource)))
+                .containsExactly(REPLICA_1, REPLICA_2, REPLICA_1, REPLICA_2);
+    }
+
+    @Test
+    void recorreAoPrimarioQuandoNenhumaReplicaConecta() throws SQLException {
+        ReplicasLeituraDataSource dataSource = criar(REPLICA_FORA_DO_AR);
+
+        assertThat(conectarEm(dataSource)).isEqualTo(PRIMARIO);
+        assertThat(meterRegistry.counter("pedidos.datasource.replica.fallback").count()).isEqualTo(1);
+    }
+
+    @Test
+    void pulaReplicaQueFalhaENaoVoltaAelaAteAVerificacao() throws SQLException {
+        ReplicasLeituraDataSource dataSource = criar(REPLICA_FORA_DO_AR, REPLICA_1);
+
+        assertThat(List.of(conectarEm(dataSource), conectarEm(dataSource))).containsExactly(REPLICA_1, REPLICA_1);
+        assertThat(meterRegistry.counter("pedidos.datasource.replica.fallback").count()).isZero();
+    }
+
+    @Test
+    void leituraDePedidoEscritoNaJanelaVaiAoPrimario() throws Exception {
+        ReplicasLeituraDataSource dataSource = criar(REPLICA_1);
+
+        escritasRecentes.registrar(5L);
+        assertThat(lerPedidoEm(dataSource, 5L)).isEqualTo(PRIMARIO);
+        assertThat(meterRegistry.counter("pedidos.datasource.replica.apos-escrita").count()).isEqualTo(1);
+        // Fora da transação marcada, mesmo logo após a escrita
+        assertThat(conectarEm(dataSource)).isEqualTo(REPLICA_1);
+
+        Thread.sleep(300);
+        assertThat(lerPedidoEm(dataSource, 5L)).isEqualTo(REPLICA_1);
+    }
+
+    @Test
+    void escritaMarcaOPedidoDeNovoAoFimDaTransacao() throws Exception {
+        ReplicasLeituraDataSource dataSource = criar(REPLICA_1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            escritasRecentes.registrar(7L);
+            Thread.sleep(300);
+        } finally {
+            concluirTransacao();
+        }
+        // A janela conta a partir do commit, não da gravação da entidade
+        assertThat(escritasRecentes.escritoNaJanela(7L)).isTrue();
+        assertThat(lerPedidoEm(dataSource, 7L)).isEqualTo(PRIMARIO);
+    }
+
+    @Test
+    void leiturasDeOutrosPedidosSeguemNasReplicasDuranteEscritas() throws Exception {
+        ReplicasLeituraDataSource dataSource = criar(REPLICA_1, REPLICA_2);
+        AtomicBoolean escrevendo = new AtomicBoolean(true);
+        AtomicLong proximoId = new AtomicLong(1_000);
+        CompletableFuture<Void> escritas = CompletableFuture.runAsync(() -> {
+            while (escrevendo.get()) escritasRecentes.registrar(proximoId.getAndIncrement());
+        });
+        try {
+            while (proximoId.get() == 1_000) Thread.onSpinWait();
+            List<String> leituras = new ArrayList<>();
+            for (long id = 1; id <= 50; id++) {
+                assertThat(escritasRecentes.ocorreuNaJanela()).isTrue();
+                leituras.add(lerPedidoEm(dataSource, id));
+            }
+            assertThat(leituras).containsOnly(REPLICA_1, REPLICA_2).contains(REPLICA_1, REPLICA_2);
+        } finally {
+            escrevendo.set(false);
+            escritas.join();
+        }
+        assertThat(meterRegistry.counter("pedidos.datasource.replica.apos-escrita").count()).isZero();
+        assertThat(meterRegistry.counter("pedidos.datasource.replica.fallback").count()).isZero();
+    }
+
+    @Test
+    void conexaoComCredenciaisSegueOMesmoRoteamento() throws SQLException {
+        ReplicasLeituraDataSource dataSource = criar(REPLICA_1, REPLICA_2);
+
+        try (Connection conexao = dataSource.getConnection("sa", "")) {
+            assertThat(conexao.getMetaData().getURL()).isEqualTo(REPLICA_1);
+            assertThat(conexao.getMetaData().getUserName()).isEqualToIgnoringCase("sa");
+        }
+        assertThat(conectarEm(dataSource)).isEqualTo(REPLICA_2);
+
+        escritasRecentes.registrar(5L);
+        TransactionSynchronizationManager.initSynchronization();
+        try (Connection conexao = marcar(dataSource, 5L).getConnection("sa", "")) {
+            assertThat(conexao.getMetaData().getURL()).isEqualTo(PRIMARIO);
+        } finally {
+            concluirTransacao();
+        }
+    }
+
+    private ReplicasLeituraDataSource criar(String... urlsReplicas) {
+        ReplicasLeituraProperties properties = new ReplicasLeituraProperties(true,
+                ReplicasLeituraProperties.EstrategiaSelecaoReplica.ROUND_ROBIN, Duration.ofMillis(100), false,
+                Duration.ofMillis(100), 2, Duration.ofMillis(250), List.of());
+        List<ReplicaLeitura> replicas = new ArrayList<>();
+        for (int i = 0; i < urlsReplicas.length; i++) {
+            HikariDataSource pool = pool("replica-" + (i + 1), urlsReplicas[i]);
+            pool.setReadOnly(true);
+            replicas.add(new ReplicaLeitura(pool.getPoolName(), pool));
+        }
+        return new ReplicasLeituraDataSource(pool("primario", PRIMARIO), replicas, properties, escritasRecentes, meterRegistry);
+    }
+
+    private HikariDataSource pool(String nome, String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(nome);
+        boolean emMemoria = url.startsWith("jdbc:h2:mem:");
+        pool.setJdbcUrl(emMemoria ? url + ";DB_CLOSE_DELAY=-1" : url);
+        pool.setUsername("sa");
+        pool.setPassword("");
+        pool.setMaximumPoolSize(2);
+        // Pools começam vazios (como os das réplicas): a primeira conexão em memória pode demorar na JVM fria
+        pool.setConnectionTimeout(emMemoria ? 5000 : 250);
+        pool.setInitializationFailTimeout(-1);
+        pools.add(pool);
+        return pool;
+    }
+
+    /**
+     * Conexão de uma transação somente leitura que lê o pedido informado.
+     */
+    private String lerPedidoEm(ReplicasLeituraDataSource dataSource, Long pedidoId) throws SQLException {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            return conectarEm(marcar(dataSource, pedidoId));
+        } finally {
+            concluirTransacao();
+        }
+    }
+
+    private ReplicasLeituraDataSource marcar(ReplicasLeituraDataSource dataSource, Long pedidoId) {
+        escritasRecentes.lerDoPrimarioSeEscrito(pedidoId);
+        return dataSource;
+    }
+
+    private static void concluirTransacao() {
+        List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        sincronizacoes.forEach(sincronizacao -> sincronizacao.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private static String conectarEm(ReplicasLeituraDataSource dataSource) throws SQLException {
+        try (Connection conexao = dataSource.getConnection()) {
+            return conexao.getMetaData().getURL();
+        }
+    }
+}
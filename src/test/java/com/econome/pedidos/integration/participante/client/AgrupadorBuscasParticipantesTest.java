@@ -0,0 +1,171 @@
+package com.econome.pedidos.integration.participante.client;
+
+import com.econome.pedidos.integration.participante.config.ParticipantesApiProperties;
+import com.econome.pedidos.integration.participante.dto.ParticipanteResumo;
+import com.econome.pedidos.integration.resiliencia.CircuitoAbertoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link AgrupadorBuscasParticipantes} com client simulado: agrupamento na janela, disparo ao atingir o tamanho
+ * máximo, ids sem resposta, falha do lote, agrupamento desabilitado, circuito aberto e buscas após o encerramento.
+ */
+class AgrupadorBuscasParticipantesTest {
+
+    private final ParticipantesClient client = mock(ParticipantesClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AgrupadorBuscasParticipantes agrupador;
+
+    @BeforeEach
+    void configurar() {
+        when(client.disponivel()).thenReturn(true);
+        when(client.buscarPorIds(anyCollection())).thenAnswer(invocacao -> resultados(invocacao.getArgument(0)));
+        when(client.buscarPorId(anyLong())).thenAnswer(invocacao -> Optional.of(participante(invocacao.getArgument(0))));
+    }
+
+    @AfterEach
+    void encerrar() {
+        if (agrupador != null) agrupador.encerrar();
+    }
+
+    @Test
+    void buscasDentroDaJanelaViramUmUnicoLote() throws Exception {
+        agrupador = agrupador(true, Duration.ofMillis(200), 100);
+
+        CompletableFuture<Optional<ParticipanteResumo>> primeiro = agrupador.buscar(1L);
+        CompletableFuture<Optional<ParticipanteResumo>> segundo = agrupador.buscar(2L);
+        CompletableFuture<Optional<ParticipanteResumo>> repetido = agrupador.buscar(1L);
+        assertThat(primeiro).isSameAs(repetido);
+        assertThat(primeiro).isNotDone();
+
+        assertThat(primeiro.get(5, TimeUnit.SECONDS)).contains(participante(1L));
+        assertThat(segundo.get(5, TimeUnit.SECONDS)).contains(participante(2L));
+        verify(client).buscarPorIds(List.of(1L, 2L));
+        assertThat(meterRegistry.counter("participantes.agrupamento.buscas").count()).isEqualTo(3);
+        assertThat(meterRegistry.summary("participantes.agrupamento.lotes").count()).isEqualTo(1);
+        assertThat(meterRegistry.summary("participantes.agrupamento.lotes").totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void loteCheioDisparaAntesDoFimDaJanela() throws Exception {
+        agrupador = agrupador(true, Duration.ofMinutes(1), 3);
+
+        CompletableFuture<Optional<ParticipanteResumo>> primeiro = agrupador.buscar(1L);
+        agrupador.buscar(2L);
+        CompletableFuture<Optional<ParticipanteResumo>> terceiro = agrupador.buscar(3L);
+        CompletableFuture<Optional<ParticipanteResumo>> quarto = agrupador.buscar(4L);
+
+        assertThat(primeiro.get(5, TimeUnit.SECONDS)).contains(participante(1L));
+        assertThat(terceiro.get(5, TimeUnit.SECONDS)).contains(participante(3L));
+        verify(client).buscarPorIds(List.of(1L, 2L, 3L));
+        // O quarto id abre um novo lote, que aguarda a janela
+        assertThat(quarto).isNotDone();
+
+        agrupador.encerrar();
+        assertThat(quarto).isCompletedWithValue(Optional.of(participante(4L)));
+        verify(client).buscarPorIds(List.of(4L));
+    }
+
+    @Test
+    void idSemRespostaCompletaComErroEOsDemaisComResultado() throws Exception {
+        when(client.buscarPorIds(anyCollection())).thenReturn(Map.of(1L, Optional.of(participante(1L)), 2L, Optional.empty()));
+        agrupador = agrupador(true, Duration.ofMillis(20), 100);
+
+        CompletableFuture<Optional<ParticipanteResumo>> encontrado = agrupador.buscar(1L);
+        CompletableFuture<Optional<ParticipanteResumo>> inexistente = agrupador.buscar(2L);
+        CompletableFuture<Optional<ParticipanteResumo>> semResposta = agrupador.buscar(3L);
+
+        assertThat(encontrado.get(5, TimeUnit.SECONDS)).contains(participante(1L));
+        assertThat(inexistente.get(5, TimeUnit.SECONDS)).isEmpty();
+        assertThatThrownBy(() -> semResposta.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void falhaDoLoteCompletaTodasAsBuscasComErro() {
+        ResourceAccessException falha = new ResourceAccessException("sem conexão");
+        when(client.buscarPorIds(anyCollection())).thenThrow(falha);
+        agrupador = agrupador(true, Duration.ofMillis(20), 100);
+
+        CompletableFuture<Optional<ParticipanteResumo>> primeiro = agrupador.buscar(1L);
+        CompletableFuture<Optional<ParticipanteResumo>> segundo = agrupador.buscar(2L);
+
+        assertThatThrownBy(() -> primeiro.get(5, TimeUnit.SECONDS)).hasCause(falha);
+        assertThatThrownBy(() -> segundo.get(5, TimeUnit.SECONDS)).hasCause(falha);
+    }
+
+    @Test
+    void agrupamentoDesabilitadoFazUmaBuscaPorId() throws Exception {
+        agrupador = agrupador(false, Duration.ofMillis(200), 100);
+
+        assertThat(agrupador.buscar(1L).get(5, TimeUnit.SECONDS)).contains(participante(1L));
+
+        verify(client).buscarPorId(1L);
+        verify(client, never()).buscarPorIds(anyCollection());
+    }
+
+    @Test
+    void circuitoAbertoFalhaSemAgendarBusca() {
+        when(client.disponivel()).thenReturn(false);
+        agrupador = agrupador(true, Duration.ofMillis(20), 100);
+
+        assertThat(agrupador.buscar(1L)).isCompletedExceptionally();
+        assertThatThrownBy(() -> agrupador.buscar(1L).join()).hasCauseInstanceOf(CircuitoAbertoException.class);
+        verify(client, never()).buscarPorIds(anyCollection());
+    }
+
+    @Test
+    void aposEncerrarBuscaDiretamenteNaThreadChamadora() {
+        for (boolean agrupamento : new boolean[]{true, false}) {
+            AgrupadorBuscasParticipantes encerrado = agrupador(agrupamento, Duration.ofMinutes(1), 100);
+            encerrado.encerrar();
+
+            CompletableFuture<Optional<ParticipanteResumo>> futuro = encerrado.buscar(5L);
+
+            assertThat(futuro).isCompletedWithValue(Optional.of(participante(5L)));
+        }
+        verify(client, times(2)).buscarPorIds(List.of(5L));
+        verify(client, never()).buscarPorId(anyLong());
+    }
+
+    private AgrupadorBuscasParticipantes agrupador(boolean agrupamento, Duration janela, int tamanhoMaximo) {
+        ParticipantesApiProperties properties = new ParticipantesApiProperties("http://participantes", true, true,
+                "/api/participantes/lote", 100, Duration.ofMinutes(5), 8, null, null,
+                new ParticipantesApiProperties.Agrupamento(agrupamento, janela, tamanhoMaximo));
+        return new AgrupadorBuscasParticipantes(client, properties, meterRegistry);
+    }
+
+    private static Map<Long, Optional<ParticipanteResumo>> resultados(Collection<Long> ids) {
+        Map<Long, Optional<ParticipanteResumo>> resultados = new LinkedHashMap<>();
+        ids.forEach(id -> resultados.put(id, Optional.of(participante(id))));
+        return resultados;
+    }
+
+    private static ParticipanteResumo participante(Long id) {
+        return new ParticipanteResumo(id, "P" + id, "Participante " + id, null, null, null);
+    }
+}
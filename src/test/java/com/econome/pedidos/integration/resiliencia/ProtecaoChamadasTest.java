@@ -0,0 +1,240 @@
+package com.econome.pedidos.integration.resiliencia;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link ProtecaoChamadas} e {@link CircuitBreaker} com relógio controlado: abertura ao atingir a taxa de falha,
+ * chamadas de teste do semiaberto, 4xx como sucesso, retentativas (orçamento, circuito aberto durante a espera,
+ * chamadas não idempotentes) e devolução da permissão de teste.
+ */
+class ProtecaoChamadasTest {
+
+    private static final Duration ESPERA_ABERTO = Duration.ofSeconds(30);
+
+    private final RelogioControlado relogio = new RelogioControlado();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void circuitoAbreQuandoATaxaDeFalhaAtingeOLimite() {
+        ProtecaoChamadas protecao = protecao(propriedades(4, 4, 50, 2, 1, 0));
+        AtomicInteger chamadas = new AtomicInteger();
+
+        protecao.executar(true, () -> chamadas.incrementAndGet());
+        protecao.executar(true, () -> chamadas.incrementAndGet());
+        assertThatThrownBy(() -> protecao.executar(true, falha(chamadas, 503))).isInstanceOf(HttpServerErrorException.class);
+        // 1 falha em 3 chamadas: abaixo do mínimo de chamadas da janela
+        assertThat(protecao.estado()).isEqualTo(CircuitBreaker.Estado.FECHADO);
+
+        assertThatThrownBy(() -> protecao.executar(true, falha(chamadas, 503))).isInstanceOf(HttpServerErrorException.class);
+        assertThat(protecao.estado()).isEqualTo(CircuitBreaker.Estado.ABERTO);
+        assertThat(protecao.disponivel()).isFalse();
+
+        assertThatThrownBy(() -> protecao.executar(true, () -> chamadas.incrementAndGet())).isInstanceOf(CircuitoAbertoException.class);
+        assertThat(chamadas).hasValue(4);
+        assertThat(meterRegistry.counter("resiliencia.chamadas", "nome", "teste", "resultado", "rejeitada").count()).isEqualTo(1);
+    }
+
+    @Test
+    void semiabertoLiberaApenasAsChamadasDeTesteEFechaComTodasBemSucedidas() {
+        ResilienciaProperties properties = propriedades(2, 2, 50, 2, 1, 0);
+        CircuitBreaker circuitBreaker = new CircuitBreaker("teste", properties, relogio);
+        circuitBreaker.registrarFalha();
+        circuitBreaker.registrarFalha();
+        assertThat(circuitBreaker.permitir()).isFalse();
+
+        relogio.avancar(ESPERA_ABERTO);
+        assertThat(circuitBreaker.estado()).isEqualTo(CircuitBreaker.Estado.SEMIABERTO);
+        assertThat(circuitBreaker.permitir()).isTrue();
+        assertThat(circuitBreaker.permitir()).isTrue();
+        assertThat(circuitBreaker.permitir()).isFalse();
+
+        circuitBreaker.registrarSucesso();
+        assertThat(circuitBreaker.estado()).isEqualTo(CircuitBreaker.Estado.SEMIABERTO);
+        circuitBreaker.registrarSucesso();
+        assertThat(circuitBreaker.estado()).isEqualTo(CircuitBreaker.Estado.FECHADO);
+        assertThat(circuitBreaker.permitir()).isTrue();
+    }
+
+    @Test
+    void falhaNoSemiabertoReabreOCircuito() {
+        ProtecaoChamadas protecao = protecao(propriedades(2, 2, 50, 2, 1, 0));
+        AtomicInteger chamadas = new AtomicInteger();
+        abrir(protecao, chamadas);
+
+        relogio.avancar(ESPERA_ABERTO.minusSeconds(1));
+        assertThatThrownBy(() -> protecao.executar(true, () -> chamadas.incrementAndGet())).isInstanceOf(CircuitoAbertoException.class);
+        relogio.avancar(Duration.ofSeconds(1));
+        assertThat(protecao.disponivel()).isTrue();
+
+        assertThatThrownBy(() -> protecao.executar(true, falha(chamadas, 503))).isInstanceOf(HttpServerErrorException.class);
+        assertThat(protecao.estado()).isEqualTo(CircuitBreaker.Estado.ABERTO);
+        relogio.avancar(ESPERA_ABERTO);
+        protecao.executar(true, () -> chamadas.incrementAndGet());
+        protecao.executar(true, () -> chamadas.incrementAndGet());
+        assertThat(protecao.estado()).isEqualTo(CircuitBreaker.Estado.FECHADO);
+    }
+
+    @Test
+    void chamadaDeTesteSemResultadoDevolveAPermissao() {
+        ProtecaoChamadas protecao = protecao(propriedades(2, 2, 50, 1, 1, 0));
+        AtomicInteger chamadas = new AtomicInteger();
+        abrir(protecao, chamadas);
+        relogio.avancar(ESPERA_ABERTO);
+
+        assertThatThrownBy(() -> protecao.executar(true, () -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+
+        assertThat(protecao.estado()).isEqualTo(CircuitBreaker.Estado.SEMIABERTO);
+        protecao.executar(true, () -> chamadas.incrementAndGet());
+        assertThat(protecao.estado()).isEqualTo(CircuitBreaker.Estado.FECHADO);
+    }
+
+    @Test
+    void respostas4xxContamComoSucessoENaoSaoRepetidas() {
+        ProtecaoChamadas protecao = protecao(propriedades(4, 4, 50, 2, 3, 0));
+        AtomicInteger chamadas = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> protecao.executar(true, () -> {
+                chamadas.incrementAndGet();
+                throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+            })).isInstanceOf(HttpClientErrorException.class);
+        }
+
+        assertThat(chamadas).hasValue(10);
+        assertThat(protecao.estado()).isEqualTo(CircuitBreaker.Estado.FECHADO);
+        assertThat(meterRegistry.counter("resiliencia.chamadas", "nome", "teste", "resultado", "sucesso").count()).isEqualTo(10);
+        assertThat(meterRegistry.counter("resiliencia.retentativas", "nome", "teste").count()).isZero();
+    }
+
+    @Test
+    void orcamentoDeRetentativasLimitaACargaExtra() {
+        // Janela menor que o mínimo de chamadas: o circuito nunca abre
+        ProtecaoChamadas protecao = protecao(propriedades(2, 100, 50, 1, 3, 0.5));
+        AtomicInteger chamadas = new AtomicInteger();
+
+        // Saldo inicial de 10 retentativas: 5 chamadas com 3 tentativas cada
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> protecao.executar(true, falha(chamadas, 503))).isInstanceOf(HttpServerErrorException.class);
+        }
+        assertThat(chamadas).hasValue(15);
+        assertThatThrownBy(() -> protecao.executar(true, falha(chamadas, 503))).isInstanceOf(HttpServerErrorException.class);
+        assertThat(chamadas).hasValue(16);
+
+        // Cada sucesso credita 0,5 retentativa
+        protecao.executar(true, () -> 1);
+        protecao.executar(true, () -> 1);
+        chamadas.set(0);
+        assertThatThrownBy(() -> protecao.executar(true, falha(chamadas, 503))).isInstanceOf(HttpServerErrorException.class);
+        assertThat(chamadas).hasValue(2);
+        assertThat(meterRegistry.counter("resiliencia.retentativas", "nome", "teste").count()).isEqualTo(11);
+    }
+
+    @Test
+    void circuitoAbertoAntesDaRetentativaPropagaAFalhaOriginal() {
+        ProtecaoChamadas protecao = protecao(propriedades(2, 2, 50, 1, 3, 0));
+        AtomicInteger chamadas = new AtomicInteger();
+        protecao.executar(true, () -> chamadas.incrementAndGet());
+
+        assertThatThrownBy(() -> protecao.executar(true, falha(chamadas, 503)))
+                .isInstanceOf(HttpServerErrorException.class);
+
+        assertThat(chamadas).hasValue(2);
+        assertThat(protecao.estado()).isEqualTo(CircuitBreaker.Estado.ABERTO);
+        assertThat(meterRegistry.counter("resiliencia.retentativas", "nome", "teste").count()).isZero();
+        assertThat(meterRegistry.counter("resiliencia.chamadas", "nome", "teste", "resultado", "rejeitada").count()).isZero();
+    }
+
+    @Test
+    void chamadaNaoIdempotenteSoEhRepetidaSemConexao() {
+        ProtecaoChamadas protecao = protecao(propriedades(10, 100, 50, 1, 2, 0));
+        AtomicInteger chamadas = new AtomicInteger();
+
+        assertThatThrownBy(() -> protecao.executar(false, falha(chamadas, 503))).isInstanceOf(HttpServerErrorException.class);
+        assertThat(chamadas).hasValue(1);
+        assertThatThrownBy(() -> protecao.executar(false, falhaDeIo(chamadas, new SocketTimeoutException("leitura"))))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(chamadas).hasValue(2);
+        assertThatThrownBy(() -> protecao.executar(false, falhaDeIo(chamadas, new ConnectException("recusada"))))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(chamadas).hasValue(4);
+    }
+
+    private void abrir(ProtecaoChamadas protecao, AtomicInteger chamadas) {
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> protecao.executar(true, falha(chamadas, 503))).isInstanceOf(HttpServerErrorException.class);
+        }
+        assertThat(protecao.estado()).isEqualTo(CircuitBreaker.Estado.ABERTO);
+    }
+
+    private ProtecaoChamadas protecao(ResilienciaProperties properties) {
+        return new ProtecaoChamadas("teste", properties, meterRegistry, relogio);
+    }
+
+    private static ResilienciaProperties propriedades(int janela, int minimoChamadas, int limiteFalha, int chamadasTeste,
+                                                      int tentativas, double orcamento) {
+        return new ResilienciaProperties(true, janela, minimoChamadas, limiteFalha, ESPERA_ABERTO, chamadasTeste,
+                tentativas, Duration.ZERO, Duration.ZERO, orcamento);
+    }
+
+    private static Supplier<Object> falha(AtomicInteger chamadas, int status) {
+        return () -> {
+            chamadas.incrementAndGet();
+            throw new HttpServerErrorException(HttpStatus.valueOf(status));
+        };
+    }
+
+    private static Supplier<Object> falhaDeIo(AtomicInteger chamadas, IOException causa) {
+        return () -> {
+            chamadas.incrementAndGet();
+            throw new ResourceAccessException(causa.getMessage(), causa);
+        };
+    }
+
+    /**
+     * Relógio avançado manualmente pelos testes.
+     */
+    private static class RelogioControlado extends Clock {
+
+        private Instant agora = Instant.parse("2025-09-10T10:00:00Z");
+
+        void avancar(Duration duracao) {
+            agora = agora.plus(duracao);
+        }
+
+        @Override
+        public Instant instant() {
+            return agora;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
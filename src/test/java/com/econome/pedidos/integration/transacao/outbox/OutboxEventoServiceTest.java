@@ -0,0 +1,175 @@
+package com.econome.pedidos.integration.transacao.outbox;
+
+import com.econome.domain.OutboxEvento;
+import com.econome.pedidos.enums.StatusOutbox;
+import com.econome.pedidos.enums.TipoEventoOutbox;
+import com.econome.pedidos.enums.TipoPedido;
+import com.econome.pedidos.integration.transacao.config.TransacoesOutboxProperties;
+import com.econome.pedidos.integration.transacao.event.PedidoAtualizadoEvent;
+import com.econome.repository.OutboxEventoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Agrupamento de atualizações em {@link OutboxEventoService#reservarLote(int)}, com o repositório simulado: os
+ * eventos pendentes devolvidos pela consulta de candidatos são os mesmos objetos que o serviço altera.
+ */
+class OutboxEventoServiceTest {
+
+    private static final long PEDIDO = 100L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final OutboxEventoRepository repository = mock(OutboxEventoRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OutboxEventoService service = new OutboxEventoService(repository,
+            new TransacoesOutboxProperties(Duration.ofSeconds(1), 100, 10, Duration.ofSeconds(1), Duration.ofMinutes(5),
+                    Duration.ofMinutes(2), Duration.ofDays(7), Duration.ofSeconds(2)),
+            objectMapper, meterRegistry);
+
+    @Test
+    void sequenciaDeAtualizacoesViraUmaEntregaComOEstadoMaisRecente() throws Exception {
+        OutboxEvento reservado = atualizacao(1L, PEDIDO, "10.00", true, false);
+        List<OutboxEvento> seguintes = List.of(
+                atualizacao(2L, PEDIDO, "20.00", true, true),
+                atualizacao(3L, PEDIDO, "30.00", false, true),
+                atualizacao(4L, PEDIDO, "40.00", true, false));
+        prontos(reservado);
+        pendentes(seguintes);
+
+        List<OutboxEvento> lote = service.reservarLote(10);
+
+        assertThat(lote).containsExactly(reservado);
+        assertThat(reservado.getStatus()).isEqualTo(StatusOutbox.PROCESSANDO);
+        PedidoAtualizadoEvent enviado = objectMapper.readValue(reservado.getPayload(), PedidoAtualizadoEvent.class);
+        assertThat(enviado.valorTotal()).isEqualByComparingTo("40.00");
+        assertThat(enviado.faturadoAtual()).isTrue();
+        // Estado antes da primeira edição: decide entre criar e atualizar a transação
+        assertThat(enviado.faturadoAnterior()).isFalse();
+        assertThat(seguintes).allSatisfy(evento -> {
+            assertThat(evento.getStatus()).isEqualTo(StatusOutbox.COALESCIDO);
+            assertThat(evento.getProcessadoEm()).isNotNull();
+        });
+        assertThat(coalescidos()).isEqualTo(3);
+    }
+
+    @Test
+    void eventoDeCriacaoInterrompeOAgrupamento() throws Exception {
+        OutboxEvento reservado = atualizacao(1L, PEDIDO, "10.00", false, false);
+        OutboxEvento absorvida = atualizacao(2L, PEDIDO, "20.00", false, false);
+        OutboxEvento criacao = evento(3L, PEDIDO, TipoEventoOutbox.PEDIDO_CRIADO, "{}");
+        OutboxEvento posterior = atualizacao(4L, PEDIDO, "40.00", false, false);
+        prontos(reservado);
+        pendentes(List.of(absorvida, criacao, posterior));
+
+        service.reservarLote(10);
+
+        PedidoAtualizadoEvent enviado = objectMapper.readValue(reservado.getPayload(), PedidoAtualizadoEvent.class);
+        assertThat(enviado.valorTotal()).isEqualByComparingTo("20.00");
+        assertThat(absorvida.getStatus()).isEqualTo(StatusOutbox.COALESCIDO);
+        assertThat(criacao.getStatus()).isEqualTo(StatusOutbox.PENDENTE);
+        assertThat(posterior.getStatus()).isEqualTo(StatusOutbox.PENDENTE);
+        assertThat(coalescidos()).isEqualTo(1);
+    }
+
+    @Test
+    void criacaoReservadaNaoAbsorveAtualizacoes() {
+        OutboxEvento criacao = evento(1L, PEDIDO, TipoEventoOutbox.PEDIDO_CRIADO, "{}");
+        prontos(criacao);
+
+        service.reservarLote(10);
+
+        assertThat(criacao.getPayload()).isEqualTo("{}");
+        verify(repository, never()).findByPedidoIdInAndStatusOrderByIdAsc(anyCollection(), any());
+        assertThat(coalescidos()).isZero();
+    }
+
+    @Test
+    void atualizacoesDeOutrosPedidosNaoSeMisturam() throws Exception {
+        OutboxEvento reservadoA = atualizacao(1L, PEDIDO, "10.00", false, false);
+        OutboxEvento reservadoB = atualizacao(2L, 200L, "11.00", false, false);
+        OutboxEvento seguinteA = atualizacao(3L, PEDIDO, "30.00", false, false);
+        OutboxEvento seguinteB = atualizacao(4L, 200L, "44.00", false, false);
+        prontos(reservadoA, reservadoB);
+        pendentes(List.of(seguinteA, seguinteB));
+
+        service.reservarLote(10);
+
+        assertThat(objectMapper.readValue(reservadoA.getPayload(), PedidoAtualizadoEvent.class).valorTotal()).isEqualByComparingTo("30.00");
+        assertThat(objectMapper.readValue(reservadoB.getPayload(), PedidoAtualizadoEvent.class).valorTotal()).isEqualByComparingTo("44.00");
+        assertThat(objectMapper.readValue(reservadoB.getPayload(), PedidoAtualizadoEvent.class).idPedido()).isEqualTo(200L);
+        assertThat(coalescidos()).isEqualTo(2);
+    }
+
+    @Test
+    void payloadInvalidoEntregaSemAgrupar() {
+        OutboxEvento reservado = evento(1L, PEDIDO, TipoEventoOutbox.PEDIDO_ATUALIZADO, "não é json");
+        OutboxEvento seguinte = atualizacao(2L, PEDIDO, "20.00", false, false);
+        prontos(reservado);
+        pendentes(List.of(seguinte));
+
+        service.reservarLote(10);
+
+        assertThat(reservado.getPayload()).isEqualTo("não é json");
+        assertThat(seguinte.getStatus()).isEqualTo(StatusOutbox.PENDENTE);
+        assertThat(coalescidos()).isZero();
+    }
+
+    @Test
+    void expurgoRemoveProcessadosECoalescidos() {
+        service.purgarProcessados();
+
+        verify(repository).excluirProcessadosAntesDe(
+                eq(List.of(StatusOutbox.PROCESSADO, StatusOutbox.COALESCIDO)), any(Instant.class));
+    }
+
+    private void prontos(OutboxEvento... eventos) {
+        when(repository.reservarProntos(any(), any())).thenReturn(new ArrayList<>(List.of(eventos)));
+    }
+
+    private void pendentes(List<OutboxEvento> eventos) {
+        when(repository.findByPedidoIdInAndStatusOrderByIdAsc(anyCollection(), eq(StatusOutbox.PENDENTE))).thenReturn(eventos);
+    }
+
+    private double coalescidos() {
+        return meterRegistry.counter("pedidos.outbox.eventos", "resultado", "coalescido").count();
+    }
+
+    private OutboxEvento atualizacao(Long id, Long pedidoId, String valor, boolean faturadoAtual, boolean faturadoAnterior) {
+        try {
+            return evento(id, pedidoId, TipoEventoOutbox.PEDIDO_ATUALIZADO, objectMapper.writeValueAsString(
+                    new PedidoAtualizadoEvent(pedidoId, "PED-" + pedidoId, TipoPedido.SAIDA, new BigDecimal(valor),
+                            faturadoAtual, faturadoAnterior, null, null, null, null)));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static OutboxEvento evento(Long id, Long pedidoId, TipoEventoOutbox tipo, String payload) {
+        OutboxEvento evento = new OutboxEvento();
+        evento.setId(id);
+        evento.setPedidoId(pedidoId);
+        evento.setTipoEvento(tipo);
+        evento.setPayload(payload);
+        evento.setStatus(StatusOutbox.PENDENTE);
+        evento.setCriadoEm(Instant.now());
+        evento.setProximaTentativaEm(Instant.now());
+        return evento;
+    }
+}
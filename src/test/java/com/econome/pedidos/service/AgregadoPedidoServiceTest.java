@@ -0,0 +1,175 @@
+package com.econome.pedidos.service;
+
+import com.econome.domain.AgregadoPedido;
+import com.econome.domain.ChaveAgregadoPedido;
+import com.econome.pedidos.dto.PedidoAgregadoFiltro;
+import com.econome.pedidos.dto.PedidoAgregadoResponse;
+import com.econome.pedidos.dto.PedidoRequest;
+import com.econome.pedidos.dto.PedidoResponse;
+import com.econome.pedidos.dto.ReconstrucaoAgregadosResponse;
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import com.econome.repository.AgregadoPedidoRepository;
+import com.econome.repository.PedidoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Agregados de pedidos sobre H2: deltas de inclusão, alteração (mudança de mês, participante e situação) e
+ * exclusão, sentinelas de valores ausentes e reconstrução mês a mês idêntica ao resultado dos deltas. Blocos de
+ * reconstrução pequenos para percorrer o cursor (emissão, id) com emissões repetidas.
+ */
+@SpringBootTest(properties = "app.pedidos.agregados.rebuild-batch-size=2")
+@ActiveProfiles("h2")
+class AgregadoPedidoServiceTest {
+
+    private static final ZonedDateTime SETEMBRO = ZonedDateTime.parse("2025-09-10T10:00:00-03:00");
+    private static final ZonedDateTime OUTUBRO = ZonedDateTime.parse("2025-10-05T10:00:00-03:00");
+
+    @Autowired
+    private AgregadoPedidoService agregadoPedidoService;
+
+    @Autowired
+    private AgregadoPedidoRepository agregadoPedidoRepository;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void alteracoesMovemOPedidoEntreGruposEExclusaoODesconta() {
+        long participante = novoParticipante();
+        long outroParticipante = novoParticipante();
+        PedidoResponse primeiro = pedidoService.criar(request(SETEMBRO, participante, SituacaoPedido.PENDENTE, "10.00"));
+        PedidoResponse segundo = pedidoService.criar(request(SETEMBRO.plusDays(10), participante, SituacaoPedido.PENDENTE, "5.50"));
+        assertThat(agregados(participante)).containsExactly(
+                grupo(participante, SituacaoPedido.PENDENTE, YearMonth.of(2025, 9), 2, "15.50"));
+
+        // Mês de emissão no fuso configurado (America/Sao_Paulo): 01/10 02:00 UTC ainda é setembro
+        pedidoService.atualizar(segundo.id(), request(ZonedDateTime.parse("2025-10-01T02:00:00Z"), participante,
+                SituacaoPedido.PENDENTE, "5.50"), null);
+        assertThat(agregados(participante)).containsExactly(
+                grupo(participante, SituacaoPedido.PENDENTE, YearMonth.of(2025, 9), 2, "15.50"));
+        pedidoService.atualizar(segundo.id(), request(OUTUBRO, participante, SituacaoPedido.PENDENTE, "5.50"), null);
+        assertThat(agregados(participante)).containsExactly(
+                grupo(participante, SituacaoPedido.PENDENTE, YearMonth.of(2025, 9), 1, "10.00"),
+                grupo(participante, SituacaoPedido.PENDENTE, YearMonth.of(2025, 10), 1, "5.50"));
+
+        pedidoService.atualizar(primeiro.id(), request(SETEMBRO, outroParticipante, SituacaoPedido.CANCELADO, "12.00"), null);
+        assertThat(agregados(participante)).containsExactly(
+                grupo(participante, SituacaoPedido.PENDENTE, YearMonth.of(2025, 10), 1, "5.50"));
+        assertThat(agregados(outroParticipante)).containsExactly(
+                grupo(outroParticipante, SituacaoPedido.CANCELADO, YearMonth.of(2025, 9), 1, "12.00"));
+
+        pedidoService.excluir(segundo.id());
+        assertThat(agregados(participante)).isEmpty();
+        pedidoService.excluir(primeiro.id());
+        assertThat(agregados(outroParticipante)).isEmpty();
+    }
+
+    @Test
+    void pedidoSemParticipanteOuEmissaoUsaAsSentinelas() {
+        PedidoAgregadoResponse antes = semParticipanteNemEmissao();
+        PedidoResponse pedido = pedidoService.criar(request(null, null, SituacaoPedido.PENDENTE, "7.25"));
+
+        PedidoAgregadoResponse depois = semParticipanteNemEmissao();
+        assertThat(depois.quantidade()).isEqualTo(antes.quantidade() + 1);
+        assertThat(depois.valorTotal()).isEqualByComparingTo(antes.valorTotal().add(new BigDecimal("7.25")));
+        assertThat(agregadoPedidoRepository.findById(new ChaveAgregadoPedido(0, TipoPedido.SAIDA.name(),
+                SituacaoPedido.PENDENTE.name(), 0))).isPresent();
+
+        // Passa a ter participante e emissão: sai do grupo das sentinelas
+        long participante = novoParticipante();
+        pedidoService.atualizar(pedido.id(), request(SETEMBRO, participante, SituacaoPedido.PENDENTE, "7.25"), null);
+        assertThat(semParticipanteNemEmissao().quantidade()).isEqualTo(antes.quantidade());
+        assertThat(agregados(participante)).containsExactly(
+                grupo(participante, SituacaoPedido.PENDENTE, YearMonth.of(2025, 9), 1, "7.25"));
+    }
+
+    @Test
+    void reconstrucaoPorCompetenciaReproduzOsDeltasECorrigeDivergencias() {
+        long participante = novoParticipante();
+        // Emissões repetidas em blocos de 2: o cursor da reconstrução desempata pelo id
+        for (int i = 0; i < 5; i++) {
+            pedidoService.criar(request(SETEMBRO, participante, SituacaoPedido.PENDENTE, "1.10"));
+            pedidoService.criar(request(OUTUBRO, participante, SituacaoPedido.FATURADO, "2.20"));
+            pedidoService.criar(request(null, i % 2 == 0 ? null : participante, SituacaoPedido.CANCELADO, "3.30"));
+        }
+        PedidoResponse alterado = pedidoService.criar(request(SETEMBRO, participante, SituacaoPedido.PENDENTE, "4.40"));
+        pedidoService.atualizar(alterado.id(), request(OUTUBRO.plusMonths(2), novoParticipante(), SituacaoPedido.CANCELADO, "4.50"), null);
+        PedidoResponse excluido = pedidoService.criar(request(SETEMBRO.minusMonths(3), participante, SituacaoPedido.PENDENTE, "9.90"));
+        pedidoService.excluir(excluido.id());
+
+        Map<ChaveAgregadoPedido, Totais> pelosDeltas = tabela();
+        // Divergência (ex.: alteração feita fora da aplicação): a reconstrução corrige
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> agregadoPedidoRepository.somar(
+                participante, TipoPedido.SAIDA.name(), SituacaoPedido.PENDENTE.name(), 202509, 3, new BigDecimal("100.00")));
+        assertThat(tabela()).isNotEqualTo(pelosDeltas);
+
+        ReconstrucaoAgregadosResponse resultado = agregadoPedidoService.reconstruir();
+
+        assertThat(tabela()).isEqualTo(pelosDeltas);
+        assertThat(resultado.pedidos()).isEqualTo(pedidoRepository.count());
+        assertThat(resultado.grupos()).isEqualTo(pelosDeltas.size());
+        // Grupos zerados pelos deltas (mês do pedido excluído) são removidos
+        assertThat(agregadoPedidoRepository.findAll()).allSatisfy(agregado -> assertThat(agregado.getQuantidade()).isNotZero());
+    }
+
+    private Map<ChaveAgregadoPedido, Totais> tabela() {
+        return agregadoPedidoRepository.findAll().stream()
+                .filter(agregado -> agregado.getQuantidade() != 0)
+                .collect(Collectors.toMap(AgregadoPedido::getChave,
+                        agregado -> new Totais(agregado.getQuantidade(), agregado.getValorTotal().stripTrailingZeros())));
+    }
+
+    private List<PedidoAgregadoResponse> agregados(long participante) {
+        return agregadoPedidoService.consultar(new PedidoAgregadoFiltro(participante, null, null, null, null)).stream()
+                .map(agregado -> new PedidoAgregadoResponse(agregado.participanteId(), agregado.tipoPedido(),
+                        agregado.situacaoPedido(), agregado.mes(), agregado.quantidade(), agregado.valorTotal().stripTrailingZeros()))
+                .toList();
+    }
+
+    private PedidoAgregadoResponse semParticipanteNemEmissao() {
+        return agregadoPedidoService.consultar(new PedidoAgregadoFiltro(null, TipoPedido.SAIDA, SituacaoPedido.PENDENTE, null, null))
+                .stream()
+                .filter(agregado -> agregado.participanteId() == null && agregado.mes() == null)
+                .findFirst()
+                .orElse(new PedidoAgregadoResponse(null, TipoPedido.SAIDA, SituacaoPedido.PENDENTE, null, 0, BigDecimal.ZERO));
+    }
+
+    private static PedidoAgregadoResponse grupo(long participante, SituacaoPedido situacao, YearMonth mes, long quantidade, String valor) {
+        return new PedidoAgregadoResponse(participante, TipoPedido.SAIDA, situacao, mes, quantidade, new BigDecimal(valor).stripTrailingZeros());
+    }
+
+    private static long novoParticipante() {
+        return ThreadLocalRandom.current().nextLong(1_000_000, 2_000_000);
+    }
+
+    private static PedidoRequest request(ZonedDateTime emissao, Long participanteId, SituacaoPedido situacao, String valor) {
+        return new PedidoRequest(emissao, "AGR-" + UUID.randomUUID(), TipoPedido.SAIDA, situacao, new BigDecimal(valor),
+                null, null, null, participanteId);
+    }
+
+    private record Totais(long quantidade, BigDecimal valor) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.econome.pedidos.service;
+
+import com.econome.domain.ChaveAgregadoPedido;
+import com.econome.domain.Pedido;
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regras de {@link DeltaAgregados}: grupo por participante, tipo, situação e mês de emissão no fuso configurado,
+ * sentinelas de valores ausentes, compensação entre remoção e inclusão e ordem das chaves.
+ */
+class DeltaAgregadosTest {
+
+    private static final ZoneId SAO_PAULO = ZoneId.of("America/Sao_Paulo");
+
+    @Test
+    void alteracaoSemMudancaDeGrupoNemValorNaoGeraVariacao() {
+        DeltaAgregados delta = new DeltaAgregados(SAO_PAULO);
+        Pedido pedido = pedido(10L, SituacaoPedido.PENDENTE, "2025-09-10T10:00:00-03:00", "10.00");
+
+        delta.remover(pedido);
+        delta.incluir(pedido);
+
+        assertThat(delta.alteracoes()).isEmpty();
+    }
+
+    @Test
+    void alteracaoDeMesEParticipanteMoveOPedidoEntreGrupos() {
+        DeltaAgregados delta = new DeltaAgregados(SAO_PAULO);
+        Pedido pedido = pedido(10L, SituacaoPedido.PENDENTE, "2025-09-10T10:00:00-03:00", "10.00");
+
+        delta.remover(pedido);
+        pedido.setParticipanteId(20L);
+        pedido.setDataEmissaoPedido(ZonedDateTime.parse("2025-10-02T10:00:00-03:00"));
+        pedido.setValorTotal(new BigDecimal("12.00"));
+        delta.incluir(pedido);
+
+        assertThat(delta.alteracoes()).containsExactly(
+                entry(chave(10, "PENDENTE", 202509), -1, "-10.00"),
+                entry(chave(20, "PENDENTE", 202510), 1, "12.00"));
+    }
+
+    @Test
+    void alteracaoSoDeValorMantemAQuantidade() {
+        DeltaAgregados delta = new DeltaAgregados(SAO_PAULO);
+        Pedido pedido = pedido(10L, SituacaoPedido.FATURADO, "2025-09-10T10:00:00-03:00", "10.00");
+
+        delta.remover(pedido);
+        pedido.setValorTotal(new BigDecimal("15.00"));
+        delta.incluir(pedido);
+
+        assertThat(delta.alteracoes()).containsExactly(entry(chave(10, "FATURADO", 202509), 0, "5.00"));
+    }
+
+    @Test
+    void competenciaUsaOFusoConfigurado() {
+        Pedido pedido = pedido(10L, SituacaoPedido.PENDENTE, "2025-10-01T02:00:00Z", "1.00");
+        DeltaAgregados saoPaulo = new DeltaAgregados(SAO_PAULO);
+        DeltaAgregados utc = new DeltaAgregados(ZoneId.of("UTC"));
+
+        saoPaulo.incluir(pedido);
+        utc.incluir(pedido);
+
+        assertThat(saoPaulo.alteracoes()).containsOnlyKeys(chave(10, "PENDENTE", 202509));
+        assertThat(utc.alteracoes()).containsOnlyKeys(chave(10, "PENDENTE", 202510));
+    }
+
+    @Test
+    void valoresAusentesUsamSentinelas() {
+        DeltaAgregados delta = new DeltaAgregados(SAO_PAULO);
+        Pedido pedido = new Pedido();
+
+        delta.incluir(pedido);
+
+        assertThat(delta.alteracoes()).containsExactly(
+                Map.entry(new ChaveAgregadoPedido(0, "", "", 0), new DeltaAgregados.Totais(1, BigDecimal.ZERO)));
+    }
+
+    @Test
+    void exclusaoDescontaOPedidoEGruposSaoOrdenadosPelaChave() {
+        DeltaAgregados delta = new DeltaAgregados(SAO_PAULO);
+
+        delta.remover(pedido(30L, SituacaoPedido.CANCELADO, "2025-09-10T10:00:00-03:00", "3.00"));
+        delta.remover(pedido(10L, SituacaoPedido.PENDENTE, "2025-11-10T10:00:00-03:00", "1.00"));
+        delta.remover(pedido(10L, SituacaoPedido.PENDENTE, "2025-08-10T10:00:00-03:00", "2.00"));
+
+        List<ChaveAgregadoPedido> chaves = List.copyOf(delta.alteracoes().keySet());
+        assertThat(chaves).containsExactly(chave(10, "PENDENTE", 202508), chave(10, "PENDENTE", 202511),
+                chave(30, "CANCELADO", 202509));
+        assertThat(delta.alteracoes().get(chave(30, "CANCELADO", 202509)))
+                .isEqualTo(new DeltaAgregados.Totais(-1, new BigDecimal("-3.00")));
+    }
+
+    private static Map.Entry<ChaveAgregadoPedido, DeltaAgregados.Totais> entry(ChaveAgregadoPedido chave,
+                                                                             long quantidade, String valor) {
+        return Map.entry(chave, new DeltaAgregados.Totais(quantidade, new BigDecimal(valor)));
+    }
+
+    private static ChaveAgregadoPedido chave(long participante, String situacao, int competencia) {
+        return new ChaveAgregadoPedido(participante, TipoPedido.SAIDA.name(), situacao, competencia);
+    }
+
+    private static Pedido pedido(Long participante, SituacaoPedido situacao, String emissao, String valor) {
+        Pedido pedido = new Pedido();
+        pedido.setParticipanteId(participante);
+        pedido.setTipoPedido(TipoPedido.SAIDA);
+        pedido.setSituacaoPedido(situacao);
+        pedido.setDataEmissaoPedido(ZonedDateTime.parse(emissao));
+        pedido.setValorTotal(new BigDecimal(valor));
+        return pedido;
+    }
+}
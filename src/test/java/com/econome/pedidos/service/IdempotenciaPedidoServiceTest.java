@@ -0,0 +1,317 @@
+package com.econome.pedidos.service;
+
+import com.econome.domain.IdempotenciaPedido;
+import com.econome.pedidos.config.PedidosProperties;
+import com.econome.pedidos.dto.PedidoRequest;
+import com.econome.pedidos.dto.PedidoResponse;
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import com.econome.pedidos.exception.IdempotenciaConflitanteException;
+import com.econome.pedidos.exception.IdempotenciaEmAndamentoException;
+import com.econome.pedidos.exception.IdempotencyKeyInvalidaException;
+import com.econome.repository.IdempotenciaPedidoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link IdempotenciaPedidoService} com serviço de pedidos e repositório simulados: repetição da chave (memória e
+ * banco), corpo divergente, requisições concorrentes com a mesma chave, chave inválida, retenção vencida, expiração
+ * e expurgo.
+ */
+class IdempotenciaPedidoServiceTest {
+
+    private static final String CHAVE = "chave-1";
+    private static final Duration TTL = Duration.ofHours(24);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final PedidoService pedidoService = mock(PedidoService.class);
+    private final IdempotenciaPedidoRepository repository = mock(IdempotenciaPedidoRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void configurar() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        when(repository.reservar(anyString(), any(), any())).thenReturn(1);
+        when(pedidoService.criar(any())).thenReturn(pedido(10L));
+    }
+
+    @Test
+    void repeticaoComMesmoCorpoDevolveARespostaDaPrimeiraSemCriarOutroPedido() {
+        IdempotenciaPedidoService service = servico(Duration.ofMinutes(10));
+
+        IdempotenciaPedidoService.Criacao primeira = service.criar(CHAVE, request("PED-1"));
+        IdempotenciaPedidoService.Criacao repetida = service.criar(CHAVE, request("PED-1"));
+
+        assertThat(primeira.repetida()).isFalse();
+        assertThat(repetida.repetida()).isTrue();
+        assertThat(repetida.pedido()).isEqualTo(primeira.pedido());
+        assertThat(repetida.versao()).isEqualTo(primeira.versao());
+        verify(pedidoService, times(1)).criar(any());
+        verify(repository, times(1)).reservar(anyString(), any(), any());
+        verify(repository).concluir(eq(CHAVE), eq(10L), eq(0L), anyString());
+        assertThat(contador("nova")).isEqualTo(1);
+        assertThat(contador("repetida")).isEqualTo(1);
+    }
+
+    @Test
+    void mesmaChaveComOutroCorpoEhRecusada() {
+        IdempotenciaPedidoService service = servico(Duration.ofMinutes(10));
+        service.criar(CHAVE, request("PED-1"));
+
+        assertThatThrownBy(() -> service.criar(CHAVE, request("PED-2")))
+                .isInstanceOf(IdempotenciaConflitanteException.class);
+        verify(pedidoService, times(1)).criar(any());
+    }
+
+    @Test
+    void repeticaoConcorrenteNaMesmaInstanciaAguardaAPrimeira() throws Exception {
+        IdempotenciaPedidoService service = servico(Duration.ofMinutes(10));
+        CountDownLatch criando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(pedidoService.criar(any())).thenAnswer(invocacao -> {
+            criando.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return pedido(10L);
+        });
+
+        CompletableFuture<IdempotenciaPedidoService.Criacao> primeira =
+                CompletableFuture.supplyAsync(() -> service.criar(CHAVE, request("PED-1")));
+        assertThat(criando.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<IdempotenciaPedidoService.Criacao> repetida =
+                CompletableFuture.supplyAsync(() -> service.criar(CHAVE, request("PED-1")));
+        CompletableFuture<IdempotenciaPedidoService.Criacao> divergente =
+                CompletableFuture.supplyAsync(() -> service.criar(CHAVE, request("PED-2")));
+        Thread.sleep(100);
+        assertThat(repetida).isNotDone();
+        liberar.countDown();
+
+        assertThat(primeira.get(5, TimeUnit.SECONDS).repetida()).isFalse();
+        assertThat(repetida.get(5, TimeUnit.SECONDS).repetida()).isTrue();
+        assertThat(repetida.get().pedido().id()).isEqualTo(10L);
+        assertThatThrownBy(() -> divergente.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IdempotenciaConflitanteException.class);
+        verify(pedidoService, times(1)).criar(any());
+        verify(repository, times(1)).reservar(anyString(), any(), any());
+    }
+
+    @Test
+    void falhaNaPrimeiraEhRepassadaAQuemAguardavaELiberaAChave() throws Exception {
+        IdempotenciaPedidoService service = servico(Duration.ofMinutes(10));
+        CountDownLatch criando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(pedidoService.criar(any())).thenAnswer(invocacao -> {
+            criando.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("falha na criação");
+        });
+
+        CompletableFuture<IdempotenciaPedidoService.Criacao> primeira =
+                CompletableFuture.supplyAsync(() -> service.criar(CHAVE, request("PED-1")));
+        assertThat(criando.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<IdempotenciaPedidoService.Criacao> repetida =
+                CompletableFuture.supplyAsync(() -> service.criar(CHAVE, request("PED-1")));
+        Thread.sleep(100);
+        liberar.countDown();
+
+        assertThatThrownBy(() -> primeira.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> repetida.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+
+        doReturn(pedido(11L)).when(pedidoService).criar(any());
+        IdempotenciaPedidoService.Criacao novaTentativa = service.criar(CHAVE, request("PED-1"));
+        assertThat(novaTentativa.repetida()).isFalse();
+        assertThat(novaTentativa.pedido().id()).isEqualTo(11L);
+    }
+
+    @Test
+    void chaveEmAndamentoEmOutraInstanciaAlemDoTimeoutDeLockResponde409() {
+        IdempotenciaPedidoService service = servico(Duration.ofMinutes(10));
+        when(repository.reservar(anyString(), any(), any()))
+                .thenThrow(new CannotAcquireLockException("Lock wait timeout exceeded"));
+
+        assertThatThrownBy(() -> service.criar(CHAVE, request("PED-1")))
+                .isInstanceOf(IdempotenciaEmAndamentoException.class);
+        verify(pedidoService, never()).criar(any());
+    }
+
+    @Test
+    void chaveReservadaSemRespostaResponde409() throws Exception {
+        IdempotenciaPedidoService service = servico(Duration.ofMinutes(10));
+        when(repository.reservar(anyString(), any(), any())).thenReturn(0);
+        when(repository.findById(CHAVE)).thenReturn(Optional.of(registro(request("PED-1"), null)));
+
+        assertThatThrownBy(() -> service.criar(CHAVE, request("PED-1")))
+                .isInstanceOf(IdempotenciaEmAndamentoException.class);
+        verify(pedidoService, never()).criar(any());
+    }
+
+    @Test
+    void chaveGravadaPorOutraInstanciaEhRepetidaAPartirDoBanco() throws Exception {
+        IdempotenciaPedidoService service = servico(Duration.ofMinutes(10));
+        when(repository.reservar(anyString(), any(), any())).thenReturn(0);
+        when(repository.findById(CHAVE)).thenReturn(Optional.of(registro(request("PED-1"), pedido(20L))));
+
+        IdempotenciaPedidoService.Criacao repetida = service.criar(CHAVE, request("PED-1"));
+
+        assertThat(repetida.repetida()).isTrue();
+        assertThat(repetida.pedido().id()).isEqualTo(20L);
+        assertThat(repetida.versao()).isEqualTo(3L);
+        assertThatThrownBy(() -> service.criar(CHAVE, request("PED-2")))
+                .isInstanceOf(IdempotenciaConflitanteException.class);
+        verify(pedidoService, never()).criar(any());
+    }
+
+    @Test
+    void chaveExpiraDaMemoriaEContinuaValendoPeloBanco() throws Exception {
+        IdempotenciaPedidoService service = servico(Duration.ofMillis(50));
+        service.criar(CHAVE, request("PED-1"));
+
+        ArgumentCaptor<Instant> expiraEm = ArgumentCaptor.forClass(Instant.class);
+        verify(repository).reservar(eq(CHAVE), any(), expiraEm.capture());
+        assertThat(expiraEm.getValue()).isCloseTo(Instant.now().plus(TTL), within(5, ChronoUnit.SECONDS));
+
+        Thread.sleep(100);
+        when(repository.reservar(anyString(), any(), any())).thenReturn(0);
+        when(repository.findById(CHAVE)).thenReturn(Optional.of(registro(request("PED-1"), pedido(10L))));
+        IdempotenciaPedidoService.Criacao repetida = service.criar(CHAVE, request("PED-1"));
+
+        assertThat(repetida.repetida()).isTrue();
+        verify(repository, times(2)).reservar(eq(CHAVE), any(), any());
+        verify(pedidoService, times(1)).criar(any());
+    }
+
+    @Test
+    void chaveComRetencaoVencidaAindaNaoPurgadaValeComoNova() throws Exception {
+        IdempotenciaPedidoService service = servico(Duration.ofMinutes(10));
+        IdempotenciaPedido vencido = registro(request("PED-ANTIGO"), pedido(20L));
+        vencido.setExpiraEm(Instant.now().minusSeconds(1));
+        when(repository.reservar(anyString(), any(), any())).thenReturn(0, 1);
+        when(repository.findById(CHAVE)).thenReturn(Optional.of(vencido));
+        when(repository.excluirExpirada(eq(CHAVE), any())).thenReturn(1);
+
+        IdempotenciaPedidoService.Criacao criacao = service.criar(CHAVE, request("PED-1"));
+
+        assertThat(criacao.repetida()).isFalse();
+        assertThat(criacao.pedido().id()).isEqualTo(10L);
+        verify(repository).excluirExpirada(eq(CHAVE), any());
+        verify(repository, times(2)).reservar(eq(CHAVE), any(), any());
+        verify(repository).concluir(eq(CHAVE), eq(10L), eq(0L), anyString());
+        assertThat(contador("nova")).isEqualTo(1);
+    }
+
+    @Test
+    void chaveVencidaReservadaDeNovoPorOutraInstanciaResponde409() throws Exception {
+        IdempotenciaPedidoService service = servico(Duration.ofMinutes(10));
+        IdempotenciaPedido vencido = registro(request("PED-1"), pedido(20L));
+        vencido.setExpiraEm(Instant.now().minusSeconds(1));
+        when(repository.reservar(anyString(), any(), any())).thenReturn(0);
+        when(repository.findById(CHAVE)).thenReturn(Optional.of(vencido));
+
+        assertThatThrownBy(() -> service.criar(CHAVE, request("PED-1")))
+                .isInstanceOf(IdempotenciaEmAndamentoException.class);
+        verify(pedidoService, never()).criar(any());
+    }
+
+    @Test
+    void chaveVaziaOuLongaDemaisEhRecusada() {
+        IdempotenciaPedidoService service = servico(Duration.ofMinutes(10));
+
+        assertThatThrownBy(() -> service.criar(" ", request("PED-1")))
+                .isInstanceOf(IdempotencyKeyInvalidaException.class);
+        assertThatThrownBy(() -> service.criar("k".repeat(101), request("PED-1")))
+                .isInstanceOf(IdempotencyKeyInvalidaException.class);
+        verify(pedidoService, never()).criar(any());
+        verify(repository, never()).reservar(anyString(), any(), any());
+    }
+
+    @Test
+    void expurgoRemoveChavesExpiradasAteAgora() {
+        IdempotenciaPedidoService service = servico(Duration.ofMinutes(10));
+        when(repository.excluirExpiradas(any())).thenReturn(2);
+
+        Instant antes = Instant.now();
+        service.purgar();
+
+        ArgumentCaptor<Instant> agora = ArgumentCaptor.forClass(Instant.class);
+        verify(repository).excluirExpiradas(agora.capture());
+        assertThat(agora.getValue()).isBetween(antes, Instant.now());
+    }
+
+    @Test
+    void semChaveCriaSemIdempotencia() {
+        IdempotenciaPedidoService service = servico(Duration.ofMinutes(10));
+
+        service.criar(null, request("PED-1"));
+        service.criar(null, request("PED-1"));
+
+        verify(pedidoService, times(2)).criar(any());
+        verify(repository, never()).reservar(anyString(), any(), any());
+        verify(repository, never()).concluir(anyString(), anyLong(), anyLong(), anyString());
+    }
+
+    private IdempotenciaPedidoService servico(Duration hotTtl) {
+        PedidosProperties properties = new PedidosProperties(null, null, null, null, null,
+                new PedidosProperties.Idempotencia(TTL, 100, hotTtl, "0 0 * * * *"), null);
+        return new IdempotenciaPedidoService(pedidoService, repository, transactionTemplate, objectMapper, properties, meterRegistry);
+    }
+
+    private IdempotenciaPedido registro(PedidoRequest request, PedidoResponse resposta) throws Exception {
+        IdempotenciaPedido registro = new IdempotenciaPedido();
+        registro.setChave(CHAVE);
+        registro.setHashRequisicao(MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+        registro.setExpiraEm(Instant.now().plus(TTL));
+        if (resposta != null) {
+            registro.setPedidoId(resposta.id());
+            registro.setVersao(3L);
+            registro.setResposta(objectMapper.writeValueAsString(resposta));
+        }
+        return registro;
+    }
+
+    private double contador(String resultado) {
+        return meterRegistry.counter("pedidos.idempotencia.requisicoes", "resultado", resultado).count();
+    }
+
+    private static PedidoRequest request(String numero) {
+        return new PedidoRequest(null, numero, TipoPedido.SAIDA, SituacaoPedido.PENDENTE, new BigDecimal("10.00"),
+                null, null, null, null);
+    }
+
+    private static PedidoResponse pedido(Long id) {
+        return new PedidoResponse(id, null, "PED-" + id, TipoPedido.SAIDA, SituacaoPedido.PENDENTE, new BigDecimal("10.00"),
+                null, null, null, 0L);
+    }
+}
@@ -0,0 +1,212 @@
+package com.econome.pedidos.service;
+
+import com.econome.pedidos.config.PedidosProperties;
+import com.econome.pedidos.dto.PedidoRequest;
+import com.econome.pedidos.dto.PedidoResponse;
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import com.econome.pedidos.exception.PedidoNaoEncontradoException;
+import com.econome.pedidos.integration.participante.cache.ParticipantesCache;
+import com.econome.pedidos.integration.participante.dto.ParticipanteResumo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link RespostasPedidoCache} sobre H2: reaproveitamento do JSON, invalidação na alteração e na exclusão,
+ * guarda de geração diante de uma invalidação concorrente ao carregamento, descarte após o commit, respostas
+ * parciais e participante desatualizado.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class RespostasPedidoCacheTest {
+
+    @Autowired
+    private RespostasPedidoCache respostasPedidoCache;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void hitDevolveOMesmoJsonSemCarregarDeNovo() {
+        PedidoResponse pedido = pedidoService.criar(request("HIT"));
+        Carregamento carregamento = new Carregamento(pedido.id());
+
+        RespostasPedidoCache.RespostaSerializada primeira = respostasPedidoCache.obter(pedido.id(), carregamento);
+        RespostasPedidoCache.RespostaSerializada segunda = respostasPedidoCache.obter(pedido.id(), carregamento);
+
+        assertThat(segunda.json()).isSameAs(primeira.json());
+        assertThat(segunda.versao()).isZero();
+        assertThat(carregamento.chamadas()).isEqualTo(1);
+    }
+
+    @Test
+    void alteracaoEExclusaoDescartamARespostaGuardada() {
+        PedidoResponse pedido = pedidoService.criar(request("ALT"));
+        Carregamento carregamento = new Carregamento(pedido.id());
+        respostasPedidoCache.obter(pedido.id(), carregamento);
+
+        pedidoService.atualizar(pedido.id(), request("ALT-NOVO"), null);
+        RespostasPedidoCache.RespostaSerializada alterada = respostasPedidoCache.obter(pedido.id(), carregamento);
+        assertThat(alterada.versao()).isEqualTo(1);
+        assertThat(new String(alterada.json())).contains("ALT-NOVO");
+        assertThat(carregamento.chamadas()).isEqualTo(2);
+
+        pedidoService.excluir(pedido.id());
+        assertThatThrownBy(() -> respostasPedidoCache.obter(pedido.id(), carregamento))
+                .isInstanceOf(PedidoNaoEncontradoException.class);
+        assertThat(carregamento.chamadas()).isEqualTo(3);
+    }
+
+    @Test
+    void carregamentoConcorrenteAUmaAlteracaoNaoGuardaAVersaoAnterior() throws Exception {
+        PedidoResponse pedido = pedidoService.criar(request("CON"));
+        CountDownLatch lido = new CountDownLatch(1);
+        CountDownLatch continuar = new CountDownLatch(1);
+
+        CompletableFuture<RespostasPedidoCache.RespostaSerializada> leitura = CompletableFuture.supplyAsync(() ->
+                respostasPedidoCache.obter(pedido.id(), () -> {
+                    PedidoResponse lidoAntes = pedidoService.buscarPorId(pedido.id());
+                    lido.countDown();
+                    aguardar(continuar);
+                    return lidoAntes;
+                }));
+        assertThat(lido.await(5, TimeUnit.SECONDS)).isTrue();
+        pedidoService.atualizar(pedido.id(), request("CON-NOVO"), null);
+        continuar.countDown();
+
+        assertThat(leitura.get(5, TimeUnit.SECONDS).versao()).isZero();
+        Carregamento carregamento = new Carregamento(pedido.id());
+        assertThat(respostasPedidoCache.obter(pedido.id(), carregamento).versao()).isEqualTo(1);
+        assertThat(carregamento.chamadas()).isEqualTo(1);
+    }
+
+    @Test
+    void respostaGuardadaDuranteATransacaoDaEscritaEhDescartadaNoCommit() {
+        PedidoResponse pedido = pedidoService.criar(request("TRX"));
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+
+        RespostasPedidoCache.RespostaSerializada lidaAntesDoCommit = transacao.execute(status -> {
+            pedidoService.atualizar(pedido.id(), request("TRX-NOVO"), null);
+            // Outra requisição lê a versão ainda confirmada e a guarda: a invalidação imediata já passou
+            return CompletableFuture.supplyAsync(() -> respostasPedidoCache.obter(pedido.id(), new Carregamento(pedido.id()))).join();
+        });
+        assertThat(lidaAntesDoCommit.versao()).isZero();
+
+        Carregamento carregamento = new Carregamento(pedido.id());
+        assertThat(respostasPedidoCache.obter(pedido.id(), carregamento).versao()).isEqualTo(1);
+        assertThat(carregamento.chamadas()).isEqualTo(1);
+    }
+
+    @Test
+    void respostaParcialNaoEhGuardada() {
+        RespostasPedidoCache cache = new RespostasPedidoCache(mock(ParticipantesCache.class), objectMapper, properties(),
+                new SimpleMeterRegistry());
+        AtomicInteger chamadas = new AtomicInteger();
+        Supplier<PedidoResponse> parcial = () -> {
+            chamadas.incrementAndGet();
+            return resposta(7L, null, true);
+        };
+
+        assertThat(cache.obter(1L, parcial).parcial()).isTrue();
+        cache.obter(1L, parcial);
+
+        assertThat(chamadas).hasValue(2);
+    }
+
+    @Test
+    void participanteRecarregadoComOutroValorRemontaOJson() {
+        ParticipantesCache participantesCache = mock(ParticipantesCache.class);
+        RespostasPedidoCache cache = new RespostasPedidoCache(participantesCache, objectMapper, properties(), new SimpleMeterRegistry());
+        ParticipanteResumo participante = new ParticipanteResumo(7L, "P7", "Participante", null, null, null);
+        AtomicInteger chamadas = new AtomicInteger();
+        Supplier<PedidoResponse> carregar = () -> {
+            chamadas.incrementAndGet();
+            return resposta(7L, participante, null);
+        };
+
+        when(participantesCache.atual(eq(7L), any())).thenReturn(true);
+        cache.obter(1L, carregar);
+        cache.obter(1L, carregar);
+        assertThat(chamadas).hasValue(1);
+
+        when(participantesCache.atual(eq(7L), any())).thenReturn(false);
+        cache.obter(1L, carregar);
+        assertThat(chamadas).hasValue(2);
+    }
+
+    private static PedidosProperties properties() {
+        return new PedidosProperties(null, null, null, null, null, null,
+                new PedidosProperties.Respostas(true, DataSize.ofMegabytes(1), Duration.ofMinutes(10)));
+    }
+
+    private static PedidoResponse resposta(Long participanteId, ParticipanteResumo participante, Boolean pendente) {
+        return new PedidoResponse(1L, ZonedDateTime.parse("2025-09-10T10:00:00-03:00"), "PED-1", TipoPedido.SAIDA,
+                SituacaoPedido.PENDENTE, new BigDecimal("10.00"), participanteId, participante, pendente, 0L);
+    }
+
+    private static PedidoRequest request(String prefixo) {
+        return new PedidoRequest(ZonedDateTime.parse("2025-09-10T10:00:00-03:00"), prefixo + "-" + UUID.randomUUID(),
+                TipoPedido.SAIDA, SituacaoPedido.PENDENTE, new BigDecimal("10.00"), null, null, null, null);
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Carregamento pelo serviço de pedidos que conta as chamadas (miss).
+     */
+    private class Carregamento implements Supplier<PedidoResponse> {
+
+        private final Long id;
+        private final AtomicInteger chamadas = new AtomicInteger();
+
+        Carregamento(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public PedidoResponse get() {
+            chamadas.incrementAndGet();
+            return pedidoService.buscarPorId(id);
+        }
+
+        int chamadas() {
+            return chamadas.get();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.econome.repository;
+
+import com.econome.pedidos.AppEconomePedidosApplication;
+import com.econome.pedidos.dto.PedidoFiltro;
+import com.econome.pedidos.dto.PedidoPaginaResponse;
+import com.econome.pedidos.dto.PedidoRequest;
+import com.econome.pedidos.dto.PedidoResponse;
+import com.econome.pedidos.enums.SituacaoPedido;
+import com.econome.pedidos.enums.TipoPedido;
+import com.econome.pedidos.service.PedidoService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listagem por keyset (id) sobre H2: continuidade do cursor com valores repetidos nas colunas filtradas, diante de
+ * inclusões e exclusões entre páginas, combinações de filtros e a marca de versão
+ * ({@link PedidoRepositoryCustom#marcaVersao}) do recorte da página.
+ */
+@SpringBootTest(classes = AppEconomePedidosApplication.class)
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PedidoRepositoryCustomImplTest {
+
+    private static final ZonedDateTime EMISSAO = ZonedDateTime.parse("2025-09-10T10:00:00-03:00");
+    private static final ZonedDateTime EMISSAO_SEGUINTE = EMISSAO.plusMonths(1);
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    private long participante;
+    private final List<PedidoResponse> criados = new ArrayList<>();
+
+    @BeforeAll
+    void criarPedidos() {
+        participante = novoParticipante();
+        SituacaoPedido[] situacoes = SituacaoPedido.values();
+        // Maioria com a mesma emissão, tipo e situação repetidos: só o id distingue os pedidos
+        for (int i = 0; i < 28; i++) {
+            criados.add(pedidoService.criar(request(i < 23 ? EMISSAO : EMISSAO_SEGUINTE,
+                    i % 2 == 0 ? TipoPedido.ENTRADA : TipoPedido.SAIDA, situacoes[i % situacoes.length], participante)));
+        }
+    }
+
+    @Test
+    void cursorPercorreTodosOsPedidosSemRepetirNemPular() {
+        PedidoFiltro filtro = new PedidoFiltro(null, null, participante, null, null);
+        List<PedidoPaginaResponse> paginas = paginas(filtro, 4);
+
+        assertThat(paginas).hasSize(7);
+        assertThat(paginas).allSatisfy(pagina -> assertThat(pagina.itens()).hasSizeLessThanOrEqualTo(4));
+        assertThat(paginas.subList(0, 6)).allSatisfy(pagina -> {
+            assertThat(pagina.possuiProxima()).isTrue();
+            assertThat(pagina.proximoCursor()).isEqualTo(pagina.itens().getLast().id());
+        });
+        assertThat(paginas.getLast().possuiProxima()).isFalse();
+        assertThat(paginas.getLast().proximoCursor()).isNull();
+        assertThat(idsDasPaginas(paginas)).containsExactlyElementsOf(ids(criados));
+    }
+
+    @Test
+    void cursorSegueContinuoComInclusoesEExclusoesEntrePaginas() {
+        long outroParticipante = novoParticipante();
+        List<PedidoResponse> pedidos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pedidos.add(pedidoService.criar(request(EMISSAO, TipoPedido.SAIDA, SituacaoPedido.PENDENTE, outroParticipante)));
+        }
+        PedidoFiltro filtro = new PedidoFiltro(null, null, outroParticipante, null, null);
+
+        PedidoPaginaResponse primeira = pedidoService.listar(filtro, null, 4);
+        // Exclui um pedido já devolvido e um da próxima página; inclui um novo (id maior que todos)
+        pedidoService.excluir(pedidos.get(1).id());
+        pedidoService.excluir(pedidos.get(5).id());
+        PedidoResponse novo = pedidoService.criar(request(EMISSAO, TipoPedido.SAIDA, SituacaoPedido.PENDENTE, outroParticipante));
+
+        List<Long> restantes = new ArrayList<>();
+        Long cursor = primeira.proximoCursor();
+        while (cursor != null) {
+            PedidoPaginaResponse pagina = pedidoService.listar(filtro, cursor, 4);
+            pagina.itens().forEach(item -> restantes.add(item.id()));
+            cursor = pagina.proximoCursor();
+        }
+
+        assertThat(ids(primeira.itens())).containsExactlyElementsOf(ids(pedidos.subList(0, 4)));
+        List<Long> esperados = new ArrayList<>(ids(pedidos.subList(4, 10)));
+        esperados.remove(pedidos.get(5).id());
+        esperados.add(novo.id());
+        assertThat(restantes).containsExactlyElementsOf(esperados);
+    }
+
+    @Test
+    void combinacoesDeFiltrosDevolvemExatamenteOsPedidosQueAtendem() {
+        TipoPedido[] tipos = {null, TipoPedido.ENTRADA, TipoPedido.SAIDA};
+        List<SituacaoPedido> situacoes = new ArrayList<>(Arrays.asList(SituacaoPedido.values()));
+        situacoes.add(0, null);
+        ZonedDateTime[][] periodos = {{null, null}, {EMISSAO, EMISSAO.plusDays(1)}, {EMISSAO.plusDays(1), null},
+                {null, EMISSAO}, {EMISSAO.withZoneSameInstant(ZoneOffset.UTC), EMISSAO_SEGUINTE.plusSeconds(1)}};
+
+        for (TipoPedido tipo : tipos) {
+            for (SituacaoPedido situacao : situacoes) {
+                for (ZonedDateTime[] periodo : periodos) {
+                    PedidoFiltro filtro = new PedidoFiltro(tipo, situacao, participante, periodo[0], periodo[1]);
+                    Predicate<PedidoResponse> atende = pedido -> (tipo == null || pedido.tipoPedido() == tipo)
+                            && (situacao == null || pedido.situacaoPedido() == situacao)
+                            && (periodo[0] == null || !emissao(pedido).isBefore(periodo[0].toInstant()))
+                            && (periodo[1] == null || emissao(pedido).isBefore(periodo[1].toInstant()));
+
+                    assertThat(idsDasPaginas(paginas(filtro, 3)))
+                            .as("tipo=%s situacao=%s periodo=%s", tipo, situacao, Arrays.toString(periodo))
+                            .containsExactlyElementsOf(ids(criados.stream().filter(atende).toList()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void marcaVersaoCobreApenasOsPrimeirosDoRecorte() {
+        long outroParticipante = novoParticipante();
+        List<PedidoResponse> pedidos = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            pedidos.add(pedidoService.criar(request(EMISSAO, TipoPedido.SAIDA, SituacaoPedido.PENDENTE, outroParticipante)));
+        }
+        PedidoFiltro filtro = new PedidoFiltro(null, null, outroParticipante, null, null);
+
+        assertThat(pedidoRepository.marcaVersao(PedidoSpecifications.filtrar(filtro, null), 5))
+                .isEqualTo(new MarcaVersaoPedidos(5, pedidos.get(4).id(), 0L));
+
+        pedidoService.atualizar(pedidos.get(4).id(), request(EMISSAO, TipoPedido.ENTRADA, SituacaoPedido.PENDENTE, outroParticipante), null);
+        assertThat(pedidoRepository.marcaVersao(PedidoSpecifications.filtrar(filtro, null), 5))
+                .isEqualTo(new MarcaVersaoPedidos(5, pedidos.get(4).id(), 1L));
+
+        // Fora do recorte: não altera a marca
+        pedidoService.atualizar(pedidos.get(5).id(), request(EMISSAO, TipoPedido.ENTRADA, SituacaoPedido.PENDENTE, outroParticipante), null);
+        assertThat(pedidoRepository.marcaVersao(PedidoSpecifications.filtrar(filtro, null), 5))
+                .isEqualTo(new MarcaVersaoPedidos(5, pedidos.get(4).id(), 1L));
+
+        pedidoService.excluir(pedidos.get(0).id());
+        assertThat(pedidoRepository.marcaVersao(PedidoSpecifications.filtrar(filtro, null), 5))
+                .isEqualTo(new MarcaVersaoPedidos(5, pedidos.get(5).id(), 2L));
+        assertThat(pedidoRepository.marcaVersao(PedidoSpecifications.filtrar(filtro, pedidos.get(3).id()), 5))
+                .isEqualTo(new MarcaVersaoPedidos(2, pedidos.get(5).id(), 2L));
+        assertThat(pedidoRepository.marcaVersao(PedidoSpecifications.filtrar(filtro, pedidos.get(5).id()), 5))
+                .isEqualTo(new MarcaVersaoPedidos(0, null, null));
+    }
+
+    private List<PedidoPaginaResponse> paginas(PedidoFiltro filtro, int tamanho) {
+        List<PedidoPaginaResponse> paginas = new ArrayList<>();
+        Long cursor = null;
+        do {
+            PedidoPaginaResponse pagina = pedidoService.listar(filtro, cursor, tamanho);
+            paginas.add(pagina);
+            cursor = pagina.proximoCursor();
+        } while (cursor != null);
+        return paginas;
+    }
+
+    private static List<Long> ids(List<PedidoResponse> pedidos) {
+        return pedidos.stream().map(PedidoResponse::id).toList();
+    }
+
+    private static List<Long> idsDasPaginas(List<PedidoPaginaResponse> paginas) {
+        return ids(paginas.stream().flatMap(pagina -> pagina.itens().stream()).toList());
+    }
+
+    private static Instant emissao(PedidoResponse pedido) {
+        return pedido.dataEmissaoPedido().toInstant();
+    }
+
+    private static long novoParticipante() {
+        return ThreadLocalRandom.current().nextLong(1_000_000, 2_000_000);
+    }
+
+    private static PedidoRequest request(ZonedDateTime emissao, TipoPedido tipo, SituacaoPedido situacao, Long participanteId) {
+        return new PedidoRequest(emissao, "KEY-" + UUID.randomUUID(), tipo, situacao, new BigDecimal("10.00"),
+                null, null, null, participanteId);
+    }
+}